@@ -163,6 +163,18 @@ suite = {
       "workingSets" : "Truffle",
     },
 
+    "com.oracle.truffle.object.basic.test" : {
+      "subDir" : "truffle",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.object.basic",
+        "mx:JUNIT"
+      ],
+      "checkstyle" : "com.oracle.truffle.dsl.processor",
+      "javaCompliance" : "1.7",
+      "workingSets" : "Truffle,Test",
+    },
+
     "com.oracle.truffle.tck" : {
       "subDir" : "truffle",
       "sourceDirs" : ["src"],
@@ -244,6 +256,20 @@ suite = {
       "license" : "UPL",
     },
 
+    "com.oracle.truffle.sl.benchmark" : {
+      "subDir" : "truffle",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.sl",
+        "mx:JMH",
+      ],
+      "checkstyle" : "com.oracle.truffle.sl",
+      "javaCompliance" : "1.7",
+      "annotationProcessors" : ["mx:JMH"],
+      "workingSets" : "Truffle,SimpleLanguage,Bench",
+      "license" : "UPL",
+    },
+
      #"com.oracle.truffle.pascal" : {
      # "subDir" : "truffle",
      # "sourceDirs" : ["src"],
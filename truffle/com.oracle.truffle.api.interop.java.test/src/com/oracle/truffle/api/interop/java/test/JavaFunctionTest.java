@@ -24,10 +24,16 @@
  */
 package com.oracle.truffle.api.interop.java.test;
 
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import java.io.IOException;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 public class JavaFunctionTest {
@@ -45,4 +51,54 @@ public class JavaFunctionTest {
 
         assertTrue("Runnable has been called", called[0]);
     }
+
+    @Test
+    public void executeWithLongs() throws UnexpectedResultException {
+        TruffleObject plus = JavaInterop.asTruffleFunction(LongBinary.class, new LongBinary() {
+            @Override
+            public long apply(long a, long b) {
+                return a + b;
+            }
+        });
+        assertEquals(42L, ForeignAccess.executeLong(Message.createExecute(2, long.class).createNode(), null, plus, 40, 2));
+    }
+
+    @Test
+    public void executeWithDoubles() throws UnexpectedResultException {
+        TruffleObject half = JavaInterop.asTruffleFunction(DoubleUnary.class, new DoubleUnary() {
+            @Override
+            public double apply(double a) {
+                return a / 2;
+            }
+        });
+        assertEquals(0.75, ForeignAccess.executeDouble(Message.createExecute(1, double.class).createNode(), null, half, 1.5), 0.0);
+    }
+
+    @Test
+    public void executeWithLongsReturningString() {
+        TruffleObject concat = JavaInterop.asTruffleFunction(LongConcat.class, new LongConcat() {
+            @Override
+            public String apply(long a, long b) {
+                return a + ":" + b;
+            }
+        });
+        try {
+            ForeignAccess.executeLong(Message.createExecute(2, long.class).createNode(), null, concat, 4, 2);
+            fail("String is not a long");
+        } catch (UnexpectedResultException ex) {
+            assertEquals("4:2", ex.getResult());
+        }
+    }
+
+    public interface LongBinary {
+        long apply(long a, long b);
+    }
+
+    public interface DoubleUnary {
+        double apply(double a);
+    }
+
+    public interface LongConcat {
+        String apply(long a, long b);
+    }
 }
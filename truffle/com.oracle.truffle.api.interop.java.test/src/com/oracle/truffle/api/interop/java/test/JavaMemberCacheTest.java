@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop.java.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Sends messages to Java objects of many classes through the same message node, so that the
+ * members resolved per receiver class are served from the inline caches.
+ */
+public class JavaMemberCacheTest {
+    public int value;
+    public static int shared;
+
+    public int sum(int a) {
+        return a;
+    }
+
+    public int sum(int a, int b) {
+        return a + b;
+    }
+
+    public int sum(int a, int b, int c) {
+        return a + b + c;
+    }
+
+    @Before
+    public void before() {
+        InstrumentationTestMode.set(true);
+    }
+
+    @After
+    public void after() {
+        InstrumentationTestMode.set(false);
+    }
+
+    @Test
+    public void invokeSelectsOverloadByArity() {
+        TruffleObject obj = JavaInterop.asTruffleObject(this);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, send(Message.createInvoke(2), obj, "sum", 1));
+            assertEquals(3, send(Message.createInvoke(3), obj, "sum", 1, 2));
+            assertEquals(6, send(Message.createInvoke(4), obj, "sum", 1, 2, 3));
+        }
+    }
+
+    @Test
+    public void invokeOnManyReceiverClasses() {
+        List<Collection<Object>> receivers = Arrays.<Collection<Object>> asList(new ArrayList<>(), new LinkedList<>(), new Vector<>(), new ArrayDeque<>(), new HashSet<>(), new LinkedHashSet<>(),
+                        new TreeSet<>(), new PriorityQueue<>(), new ConcurrentLinkedQueue<>(), new CopyOnWriteArrayList<>());
+        CallTarget add = createTarget(Message.createInvoke(2));
+        CallTarget size = createTarget(Message.createInvoke(1));
+        for (int round = 1; round <= 3; round++) {
+            for (Collection<Object> c : receivers) {
+                TruffleObject obj = JavaInterop.asTruffleObject(c);
+                assertEquals(Boolean.TRUE, add.call(obj, "add", round));
+                assertEquals(round, size.call(obj, "size"));
+            }
+        }
+    }
+
+    @Test
+    public void readAndWriteFieldsThroughSameNode() {
+        CallTarget read = createTarget(Message.READ);
+        CallTarget write = createTarget(Message.WRITE);
+        TruffleObject obj = JavaInterop.asTruffleObject(this);
+        TruffleObject clazz = JavaInterop.asTruffleObject(JavaMemberCacheTest.class);
+        for (int i = 0; i < 3; i++) {
+            write.call(obj, "value", i);
+            write.call(clazz, "shared", i * 10);
+            assertEquals(i, read.call(obj, "value"));
+            assertEquals(i * 10, read.call(clazz, "shared"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invokeWithUnknownArity() {
+        send(Message.createInvoke(5), JavaInterop.asTruffleObject(this), "sum", 1, 2, 3, 4);
+    }
+
+    private static Object send(Message message, TruffleObject receiver, Object... args) {
+        Object[] callArgs = new Object[args.length + 1];
+        callArgs[0] = receiver;
+        System.arraycopy(args, 0, callArgs, 1, args.length);
+        return createTarget(message).call(callArgs);
+    }
+
+    private static CallTarget createTarget(Message message) {
+        return Truffle.getRuntime().createCallTarget(new SendRoot(message.createNode()));
+    }
+
+    private static final class SendRoot extends RootNode {
+        @Child private Node foreignAccess;
+
+        SendRoot(Node foreignAccess) {
+            super(TruffleLanguage.class, null, null);
+            this.foreignAccess = foreignAccess;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            return ForeignAccess.execute(foreignAccess, frame, (TruffleObject) args[0], Arrays.copyOfRange(args, 1, args.length));
+        }
+    }
+}
@@ -24,6 +24,7 @@
  */
 package com.oracle.truffle.api.interop.java.test;
 
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.java.JavaInterop;
 
@@ -217,6 +218,39 @@ public class PrimitiveArrayInteropTest {
         assertSum("Sum is OK", 6, interop.doubleArr());
     }
 
+    @Test
+    public void bulkAccessOfLargeArray() {
+        intArr = new int[1000];
+        for (int i = 0; i < intArr.length; i++) {
+            intArr[i] = i;
+        }
+        List<Integer> list = interop.intArr();
+        Object[] elements = list.toArray();
+        assertEquals(intArr.length, elements.length);
+        Integer[] typed = list.toArray(new Integer[0]);
+        int i = 0;
+        for (Integer element : list) {
+            assertEquals(i, (int) element);
+            assertEquals(i, elements[i]);
+            assertEquals(i, (int) typed[i]);
+            i++;
+        }
+        assertEquals(intArr.length, i);
+    }
+
+    @Test
+    public void elementAccessReusesCallTargets() {
+        intArr = new int[]{1, 2, 3};
+        List<Integer> list = interop.intArr();
+        list.get(0);
+        int before = Truffle.getRuntime().getCallTargets().size();
+        for (int i = 0; i < 1000; i++) {
+            list.set(i % 3, list.get(i % 3));
+            list.size();
+        }
+        assertEquals("No new call targets", before, Truffle.getRuntime().getCallTargets().size());
+    }
+
     private static void assertSum(String msg, double expected, List<? extends Number> numbers) {
         double v = 0.0;
         for (Number n : numbers) {
@@ -27,11 +27,11 @@ package com.oracle.truffle.api.interop.java;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.nodes.RootNode;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.List;
 
 final class InvokeMemberNode extends RootNode {
+    @Child private LookupMemberNode lookup = LookupMemberNode.create(LookupMemberNode.Kind.INVOKE);
+
     InvokeMemberNode() {
         super(JavaInteropLanguage.class, null, null);
     }
@@ -46,17 +46,12 @@ final class InvokeMemberNode extends RootNode {
             throw new IllegalStateException();
         } else {
             String name = (String) nameOrIndex;
-            for (Method m : receiver.clazz.getMethods()) {
-                final boolean isStatic = (m.getModifiers() & Modifier.STATIC) != 0;
-                if (isStatic) {
-                    continue;
-                }
-                if (m.getName().equals(name) && m.getParameterTypes().length == argsLength) {
-                    Object[] arr = args.subList(1, args.size()).toArray();
-                    return JavaFunctionNode.execute(m, receiver.obj, arr);
-                }
+            JavaClassDesc.MethodDesc method = (JavaClassDesc.MethodDesc) lookup.executeLookup(receiver.clazz, false, name, argsLength);
+            if (method == null) {
+                throw new IllegalArgumentException(name);
             }
-            throw new IllegalArgumentException(name);
+            Object[] arr = args.subList(1, args.size()).toArray();
+            return JavaFunctionNode.execute(method, receiver.obj, arr);
         }
     }
 
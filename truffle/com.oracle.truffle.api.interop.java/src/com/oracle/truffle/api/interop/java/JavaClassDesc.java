@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop.java;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Public members of a Java class, resolved once per {@link Class} and shared by all interop nodes
+ * that access instances of it. Fields are looked up by name, methods by name or by name and number
+ * of parameters. With <code>-Dtruffle.interop.java.MethodHandles=true</code> the members are bound
+ * through {@link MethodHandle method handles} instead of core reflection.
+ */
+final class JavaClassDesc {
+    private static final boolean USE_METHOD_HANDLES = Boolean.getBoolean("truffle.interop.java.MethodHandles");
+
+    private static final ClassValue<JavaClassDesc> DESCS = new ClassValue<JavaClassDesc>() {
+        @Override
+        protected JavaClassDesc computeValue(Class<?> type) {
+            return new JavaClassDesc(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String, FieldDesc> instanceFields = new HashMap<>();
+    private final Map<String, FieldDesc> staticFields = new HashMap<>();
+    private final Map<String, MethodDesc[]> instanceMethods = new HashMap<>();
+    private final Map<String, MethodDesc[]> staticMethods = new HashMap<>();
+    private final Map<Method, MethodDesc> methods = new HashMap<>();
+
+    private JavaClassDesc(Class<?> type) {
+        this.type = type;
+        for (Field f : type.getFields()) {
+            Map<String, FieldDesc> map = isStatic(f.getModifiers()) ? staticFields : instanceFields;
+            if (!map.containsKey(f.getName())) {
+                map.put(f.getName(), bind(f));
+            }
+        }
+        for (Method m : type.getMethods()) {
+            MethodDesc desc = bind(m);
+            methods.put(m, desc);
+            Map<String, MethodDesc[]> map = isStatic(m.getModifiers()) ? staticMethods : instanceMethods;
+            int arity = m.getParameterTypes().length;
+            MethodDesc[] byArity = map.get(m.getName());
+            if (byArity == null) {
+                byArity = new MethodDesc[arity + 1];
+            } else if (byArity.length <= arity) {
+                byArity = Arrays.copyOf(byArity, arity + 1);
+            }
+            if (byArity[arity] == null) {
+                byArity[arity] = desc;
+            }
+            map.put(m.getName(), byArity);
+        }
+    }
+
+    static JavaClassDesc forClass(Class<?> type) {
+        return DESCS.get(type);
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the public field called <code>name</code> or <code>null</code>
+     */
+    FieldDesc lookupField(String name, boolean onlyStatic) {
+        return (onlyStatic ? staticFields : instanceFields).get(name);
+    }
+
+    /**
+     * @return a public method called <code>name</code>, regardless of its number of parameters, or
+     *         <code>null</code>
+     */
+    MethodDesc lookupMethod(String name, boolean onlyStatic) {
+        MethodDesc[] byArity = (onlyStatic ? staticMethods : instanceMethods).get(name);
+        if (byArity != null) {
+            for (MethodDesc desc : byArity) {
+                if (desc != null) {
+                    return desc;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a public method called <code>name</code> taking <code>arity</code> parameters or
+     *         <code>null</code>
+     */
+    MethodDesc lookupMethod(String name, int arity, boolean onlyStatic) {
+        MethodDesc[] byArity = (onlyStatic ? staticMethods : instanceMethods).get(name);
+        if (byArity == null || arity >= byArity.length) {
+            return null;
+        }
+        return byArity[arity];
+    }
+
+    /**
+     * @return the bound form of <code>method</code>, sharing the one of its declaring class if
+     *         possible
+     */
+    static MethodDesc forMethod(Method method) {
+        MethodDesc desc = forClass(method.getDeclaringClass()).methods.get(method);
+        return desc != null ? desc : bind(method);
+    }
+
+    private static Class<?> primitiveType(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type != long.class && type != double.class) {
+            return null;
+        }
+        for (Class<?> parameter : method.getParameterTypes()) {
+            if (parameter != type) {
+                return null;
+            }
+        }
+        return type;
+    }
+
+    private static MethodHandle primitiveHandle(Method method, Class<?> type) throws IllegalAccessException {
+        MethodHandle mh = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+        if (isStatic(method.getModifiers())) {
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        } else {
+            mh = mh.asType(mh.type().changeParameterType(0, Object.class));
+        }
+        int arity = method.getParameterTypes().length;
+        Class<?> arrayType = type == long.class ? long[].class : double[].class;
+        return mh.asSpreader(arrayType, arity);
+    }
+
+    private static boolean isStatic(int modifiers) {
+        return (modifiers & Modifier.STATIC) != 0;
+    }
+
+    private static FieldDesc bind(Field field) {
+        if (USE_METHOD_HANDLES) {
+            try {
+                return new MethodHandleFieldDesc(field);
+            } catch (IllegalAccessException ex) {
+                // fall back to reflection
+            }
+        }
+        return new ReflectionFieldDesc(field);
+    }
+
+    private static MethodDesc bind(Method method) {
+        if (USE_METHOD_HANDLES) {
+            try {
+                return new MethodHandleMethodDesc(method);
+            } catch (IllegalAccessException ex) {
+                // fall back to reflection
+            }
+        }
+        return new ReflectionMethodDesc(method);
+    }
+
+    abstract static class FieldDesc {
+        final Field field;
+
+        FieldDesc(Field field) {
+            this.field = field;
+        }
+
+        abstract Object get(Object obj);
+
+        abstract void set(Object obj, Object value);
+
+        @Override
+        public String toString() {
+            return field.toString();
+        }
+    }
+
+    abstract static class MethodDesc {
+        final Method method;
+        /**
+         * The method adapted to <code>(Object, long[])long</code> or
+         * <code>(Object, double[])double</code> if all its parameters and its return type are that
+         * primitive, otherwise <code>null</code>.
+         */
+        private final MethodHandle primitive;
+        private final Class<?> primitiveType;
+
+        MethodDesc(Method method) {
+            this.method = method;
+            Class<?> type = primitiveType(method);
+            MethodHandle handle = null;
+            if (type != null) {
+                try {
+                    handle = primitiveHandle(method, type);
+                } catch (IllegalAccessException ex) {
+                    type = null;
+                }
+            }
+            this.primitive = handle;
+            this.primitiveType = type;
+        }
+
+        /**
+         * Invokes the method. Any failure, including one thrown by the method itself, is reported
+         * as {@link IllegalStateException}.
+         */
+        abstract Object invoke(Object obj, Object[] args);
+
+        /**
+         * @return <code>true</code> if the method takes <code>arity</code> parameters of
+         *         <code>type</code> and returns <code>type</code>
+         */
+        final boolean isPrimitive(Class<?> type, int arity) {
+            return primitiveType == type && method.getParameterTypes().length == arity;
+        }
+
+        /**
+         * Invokes a method {@link #isPrimitive(java.lang.Class, int) taking and returning}
+         * <code>long</code>s without boxing.
+         */
+        final long invokeLong(Object obj, long[] args) {
+            try {
+                return (long) primitive.invokeExact(obj, args);
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        /**
+         * Invokes a method {@link #isPrimitive(java.lang.Class, int) taking and returning}
+         * <code>double</code>s without boxing.
+         */
+        final double invokeDouble(Object obj, double[] args) {
+            try {
+                return (double) primitive.invokeExact(obj, args);
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return method.toString();
+        }
+    }
+
+    private static final class ReflectionFieldDesc extends FieldDesc {
+        ReflectionFieldDesc(Field field) {
+            super(field);
+        }
+
+        @Override
+        Object get(Object obj) {
+            try {
+                return field.get(obj);
+            } catch (IllegalAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        @Override
+        void set(Object obj, Object value) {
+            try {
+                field.set(obj, value);
+            } catch (IllegalAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    private static final class ReflectionMethodDesc extends MethodDesc {
+        ReflectionMethodDesc(Method method) {
+            super(method);
+        }
+
+        @Override
+        Object invoke(Object obj, Object[] args) {
+            try {
+                return method.invoke(obj, args);
+            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Accessors adapted to <code>(Object)Object</code> and <code>(Object, Object)void</code>; the
+     * receiver is ignored for static fields.
+     */
+    private static final class MethodHandleFieldDesc extends FieldDesc {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        MethodHandleFieldDesc(Field field) throws IllegalAccessException {
+            super(field);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle get = lookup.unreflectGetter(field);
+            boolean isStatic = isStatic(field.getModifiers());
+            if (isStatic) {
+                get = MethodHandles.dropArguments(get, 0, Object.class);
+            }
+            this.getter = get.asType(MethodType.methodType(Object.class, Object.class));
+            if (Modifier.isFinal(field.getModifiers())) {
+                this.setter = null;
+            } else {
+                MethodHandle set = lookup.unreflectSetter(field);
+                if (isStatic) {
+                    set = MethodHandles.dropArguments(set, 0, Object.class);
+                }
+                this.setter = set.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            }
+        }
+
+        @Override
+        Object get(Object obj) {
+            try {
+                return (Object) getter.invokeExact(obj);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        void set(Object obj, Object value) {
+            if (setter == null) {
+                throw new RuntimeException(new IllegalAccessException("Cannot set final field " + field));
+            }
+            try {
+                setter.invokeExact(obj, value);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * The method adapted to <code>(Object, Object[])Object</code>; the receiver is ignored for
+     * static methods.
+     */
+    private static final class MethodHandleMethodDesc extends MethodDesc {
+        private final MethodHandle handle;
+
+        MethodHandleMethodDesc(Method method) throws IllegalAccessException {
+            super(method);
+            MethodHandle mh = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+            if (isStatic(method.getModifiers())) {
+                mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            }
+            int arity = method.getParameterTypes().length;
+            mh = mh.asType(MethodType.genericMethodType(arity + 1));
+            this.handle = mh.asSpreader(Object[].class, arity);
+        }
+
+        @Override
+        Object invoke(Object obj, Object[] args) {
+            try {
+                return (Object) handle.invokeExact(obj, args);
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
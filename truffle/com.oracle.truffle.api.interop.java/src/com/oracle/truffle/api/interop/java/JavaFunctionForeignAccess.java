@@ -83,6 +83,12 @@ final class JavaFunctionForeignAccess implements ForeignAccess.Factory10 {
 
     @Override
     public CallTarget accessMessage(Message unknown) {
+        if (Message.createExecute(0, long.class).equals(unknown)) {
+            return Truffle.getRuntime().createCallTarget(new JavaTypedFunctionNode(true));
+        }
+        if (Message.createExecute(0, double.class).equals(unknown)) {
+            return Truffle.getRuntime().createCallTarget(new JavaTypedFunctionNode(false));
+        }
         return null;
     }
 
@@ -27,8 +27,6 @@ package com.oracle.truffle.api.interop.java;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.nodes.RootNode;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 
 final class JavaFunctionNode extends RootNode {
@@ -48,21 +46,17 @@ final class JavaFunctionNode extends RootNode {
     }
 
     @SuppressWarnings("paramAssign")
-    static Object execute(Method method, Object obj, Object[] args) {
+    static Object execute(JavaClassDesc.MethodDesc method, Object obj, Object[] args) {
         for (int i = 0; i < args.length; i++) {
             if (args[i] instanceof JavaInterop.JavaObject) {
                 args[i] = ((JavaInterop.JavaObject) args[i]).obj;
             }
         }
-        try {
-            Object ret = method.invoke(obj, args);
-            if (JavaInterop.isPrimitive(ret)) {
-                return ret;
-            }
-            return JavaInterop.asTruffleObject(ret);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-            throw new IllegalStateException(ex);
+        Object ret = method.invoke(obj, args);
+        if (JavaInterop.isPrimitive(ret)) {
+            return ret;
         }
+        return JavaInterop.asTruffleObject(ret);
     }
 
 }
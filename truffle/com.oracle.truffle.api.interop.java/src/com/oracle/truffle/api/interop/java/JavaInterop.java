@@ -33,6 +33,7 @@ import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -40,7 +41,9 @@ import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Helper methods to simplify access to objects of {@link TruffleLanguage Truffle languages} from
@@ -262,7 +265,7 @@ public final class JavaInterop {
         if (!functionalType.isInterface() || arr.length != 1) {
             throw new IllegalArgumentException();
         }
-        return new JavaFunctionObject(arr[0], implementation);
+        return new JavaFunctionObject(JavaClassDesc.forMethod(arr[0]), implementation);
     }
 
     static Message findMessage(MethodMessage mm) {
@@ -439,12 +442,106 @@ public final class JavaInterop {
         return false;
     }
 
+    /**
+     * Call targets sending a message to any receiver passed as first argument, per thread as
+     * {@link ForeignAccess} may only be used by the thread that created it. Messages of the
+     * {@link Message#createExecute(int) execute} family are equal regardless of their arity, hence
+     * the targets are kept per number of arguments.
+     * <p>
+     * The inline caches of the targets specialize on the receivers they have seen and may thus
+     * reference objects, and through them the engines, of any language. The targets are therefore
+     * only softly reachable: they live at most as long as their thread and are dropped, to be
+     * created anew on the next message, when the heap runs short. The same holds for
+     * {@link #READ_ELEMENTS_TARGET}.
+     */
+    private static final ThreadLocal<SoftReference<Map<Message, CallTarget[]>>> MESSAGE_TARGETS = new ThreadLocal<>();
+
     static Object message(final Message m, Object receiver, Object... arr) {
-        Node n = m.createNode();
-        CallTarget callTarget = Truffle.getRuntime().createCallTarget(new TemporaryRoot(TruffleLanguage.class, n, (TruffleObject) receiver));
-        return callTarget.call(arr);
+        Object[] args = new Object[arr.length + 1];
+        args[0] = (TruffleObject) receiver;
+        System.arraycopy(arr, 0, args, 1, arr.length);
+        return messageTarget(m, arr.length).call(args);
     }
 
+    private static CallTarget messageTarget(Message m, int arity) {
+        SoftReference<Map<Message, CallTarget[]>> reference = MESSAGE_TARGETS.get();
+        Map<Message, CallTarget[]> targets = reference == null ? null : reference.get();
+        if (targets == null) {
+            targets = new HashMap<>();
+            MESSAGE_TARGETS.set(new SoftReference<>(targets));
+        }
+        CallTarget[] byArity = targets.get(m);
+        if (byArity == null || byArity.length <= arity) {
+            byArity = byArity == null ? new CallTarget[arity + 1] : Arrays.copyOf(byArity, arity + 1);
+            targets.put(m, byArity);
+        }
+        CallTarget target = byArity[arity];
+        if (target == null) {
+            target = Truffle.getRuntime().createCallTarget(new MessageRoot(TruffleLanguage.class, m.createNode()));
+            byArity[arity] = target;
+        }
+        return target;
+    }
+
+    /**
+     * The call target of {@link #readElements(TruffleObject, int, int)}, per thread and softly
+     * reachable like the {@link #MESSAGE_TARGETS}.
+     */
+    private static final ThreadLocal<SoftReference<CallTarget>> READ_ELEMENTS_TARGET = new ThreadLocal<>();
+
+    /**
+     * Reads the elements <code>from</code> (inclusive) to <code>to</code> (exclusive) of a foreign
+     * array with a single call.
+     */
+    static Object[] readElements(TruffleObject array, int from, int to) {
+        SoftReference<CallTarget> reference = READ_ELEMENTS_TARGET.get();
+        CallTarget target = reference == null ? null : reference.get();
+        if (target == null) {
+            target = Truffle.getRuntime().createCallTarget(new ReadElementsRoot(TruffleLanguage.class, Message.READ.createNode()));
+            READ_ELEMENTS_TARGET.set(new SoftReference<>(target));
+        }
+        return (Object[]) target.call(array, from, to);
+    }
+
+    private static final class MessageRoot extends RootNode {
+        @Node.Child private Node foreignAccess;
+
+        @SuppressWarnings("rawtypes")
+        MessageRoot(Class<? extends TruffleLanguage> lang, Node foreignAccess) {
+            super(lang, null, null);
+            this.foreignAccess = foreignAccess;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            return ForeignAccess.execute(foreignAccess, frame, (TruffleObject) args[0], Arrays.copyOfRange(args, 1, args.length));
+        }
+    } // end of MessageRoot
+
+    private static final class ReadElementsRoot extends RootNode {
+        @Node.Child private Node read;
+
+        @SuppressWarnings("rawtypes")
+        ReadElementsRoot(Class<? extends TruffleLanguage> lang, Node read) {
+            super(lang, null, null);
+            this.read = read;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            TruffleObject array = (TruffleObject) args[0];
+            int from = (Integer) args[1];
+            int to = (Integer) args[2];
+            Object[] elements = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                elements[i - from] = ForeignAccess.execute(read, frame, array, i);
+            }
+            return elements;
+        }
+    } // end of ReadElementsRoot
+
     private static class TemporaryRoot extends RootNode {
         @Node.Child private Node foreignAccess;
         private final TruffleObject function;
@@ -463,17 +560,24 @@ public final class JavaInterop {
     } // end of TemporaryRoot
 
     static final class JavaFunctionObject implements TruffleObject {
-        final Method method;
+        private static final ThreadLocal<ForeignAccess> ACCESS = new ThreadLocal<ForeignAccess>() {
+            @Override
+            protected ForeignAccess initialValue() {
+                return ForeignAccess.create(JavaFunctionObject.class, new JavaFunctionForeignAccess());
+            }
+        };
+
+        final JavaClassDesc.MethodDesc method;
         final Object obj;
 
-        public JavaFunctionObject(Method method, Object obj) {
+        public JavaFunctionObject(JavaClassDesc.MethodDesc method, Object obj) {
             this.method = method;
             this.obj = obj;
         }
 
         @Override
         public ForeignAccess getForeignAccess() {
-            return ForeignAccess.create(JavaFunctionObject.class, new JavaFunctionForeignAccess());
+            return ACCESS.get();
         }
 
     } // end of JavaFunctionObject
@@ -481,6 +585,13 @@ public final class JavaInterop {
     static final class JavaObject implements TruffleObject {
         static final JavaObject NULL = new JavaObject(null, Object.class);
 
+        private static final ThreadLocal<ForeignAccess> ACCESS = new ThreadLocal<ForeignAccess>() {
+            @Override
+            protected ForeignAccess initialValue() {
+                return ForeignAccess.create(JavaObject.class, new JavaObjectForeignAccess());
+            }
+        };
+
         final Object obj;
         final Class<?> clazz;
 
@@ -491,7 +602,7 @@ public final class JavaInterop {
 
         @Override
         public ForeignAccess getForeignAccess() {
-            return ForeignAccess.create(JavaObject.class, new JavaObjectForeignAccess());
+            return ACCESS.get();
         }
 
         @Override
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop.java;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Handles {@link Message#createExecute(int, java.lang.Class) typed execute} messages. Methods
+ * taking and returning the same primitive type are invoked without boxing; other ones get the
+ * boxed arguments.
+ */
+final class JavaTypedFunctionNode extends RootNode {
+    private final boolean isLong;
+
+    JavaTypedFunctionNode(boolean isLong) {
+        super(JavaInteropLanguage.class, null, null);
+        this.isLong = isLong;
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        JavaInterop.JavaFunctionObject receiver = (JavaInterop.JavaFunctionObject) ForeignAccess.getReceiver(frame);
+        if (isLong) {
+            long[] args = ForeignAccess.getLongArguments(frame);
+            if (receiver.method.isPrimitive(long.class, args.length)) {
+                return receiver.method.invokeLong(receiver.obj, args);
+            }
+            Object[] boxed = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                boxed[i] = args[i];
+            }
+            return JavaFunctionNode.execute(receiver, boxed);
+        } else {
+            double[] args = ForeignAccess.getDoubleArguments(frame);
+            if (receiver.method.isPrimitive(double.class, args.length)) {
+                return receiver.method.invokeDouble(receiver.obj, args);
+            }
+            Object[] boxed = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                boxed[i] = args[i];
+            }
+            return JavaFunctionNode.execute(receiver, boxed);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop.java;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Inline cache of members resolved through {@link JavaClassDesc}. Each entry remembers the member
+ * found for one receiver class, static-ness, name and arity; after {@link #CACHE_SIZE} entries the
+ * chain is replaced by a node that always asks the class descriptor.
+ */
+abstract class LookupMemberNode extends Node {
+    static final int CACHE_SIZE = 8;
+
+    enum Kind {
+        /** A field, or if there is none, a method of any arity. */
+        READ,
+        /** A field, instance or static. */
+        WRITE,
+        /** A method of the given arity. */
+        INVOKE
+    }
+
+    /**
+     * @return a {@link JavaClassDesc.FieldDesc}, a {@link JavaClassDesc.MethodDesc} or
+     *         <code>null</code> if there is no such member
+     */
+    abstract Object executeLookup(Class<?> clazz, boolean onlyStatic, String name, int arity);
+
+    static LookupMemberNode create(Kind kind) {
+        return new UninitializedLookupNode(kind, 0);
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    static Object lookup(Kind kind, Class<?> clazz, boolean onlyStatic, String name, int arity) {
+        JavaClassDesc desc = JavaClassDesc.forClass(clazz);
+        switch (kind) {
+            case READ:
+                JavaClassDesc.FieldDesc field = desc.lookupField(name, onlyStatic);
+                if (field != null) {
+                    return field;
+                }
+                return desc.lookupMethod(name, onlyStatic);
+            case WRITE:
+                JavaClassDesc.FieldDesc writable = desc.lookupField(name, onlyStatic);
+                return writable != null ? writable : desc.lookupField(name, !onlyStatic);
+            case INVOKE:
+                return desc.lookupMethod(name, arity, onlyStatic);
+            default:
+                throw new IllegalStateException(kind.toString());
+        }
+    }
+
+    private static final class UninitializedLookupNode extends LookupMemberNode {
+        private final Kind kind;
+        private final int depth;
+
+        UninitializedLookupNode(Kind kind, int depth) {
+            this.kind = kind;
+            this.depth = depth;
+        }
+
+        @Override
+        Object executeLookup(Class<?> clazz, boolean onlyStatic, String name, int arity) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            Object member = lookup(kind, clazz, onlyStatic, name, arity);
+            if (depth < CACHE_SIZE) {
+                replace(new CachedLookupNode(clazz, onlyStatic, name, arity, member, new UninitializedLookupNode(kind, depth + 1)));
+            } else {
+                Node first = this;
+                while (first.getParent() instanceof LookupMemberNode) {
+                    first = first.getParent();
+                }
+                first.replace(new GenericLookupNode(kind));
+            }
+            return member;
+        }
+    }
+
+    private static final class CachedLookupNode extends LookupMemberNode {
+        private final Class<?> clazz;
+        private final boolean onlyStatic;
+        private final String name;
+        private final int arity;
+        private final Object member;
+        @Child private LookupMemberNode next;
+
+        CachedLookupNode(Class<?> clazz, boolean onlyStatic, String name, int arity, Object member, LookupMemberNode next) {
+            this.clazz = clazz;
+            this.onlyStatic = onlyStatic;
+            this.name = name;
+            this.arity = arity;
+            this.member = member;
+            this.next = next;
+        }
+
+        @Override
+        Object executeLookup(Class<?> otherClazz, boolean otherOnlyStatic, String otherName, int otherArity) {
+            if (clazz == otherClazz && onlyStatic == otherOnlyStatic && arity == otherArity && name.equals(otherName)) {
+                return member;
+            }
+            return next.executeLookup(otherClazz, otherOnlyStatic, otherName, otherArity);
+        }
+    }
+
+    private static final class GenericLookupNode extends LookupMemberNode {
+        private final Kind kind;
+
+        GenericLookupNode(Kind kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        Object executeLookup(Class<?> clazz, boolean onlyStatic, String name, int arity) {
+            return lookup(kind, clazz, onlyStatic, name, arity);
+        }
+    }
+}
@@ -28,54 +28,38 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.nodes.RootNode;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 
 final class ReadFieldNode extends RootNode {
+    @Child private LookupMemberNode lookup = LookupMemberNode.create(LookupMemberNode.Kind.READ);
+
     ReadFieldNode() {
         super(JavaInteropLanguage.class, null, null);
     }
 
     @Override
     public Object execute(VirtualFrame frame) {
-        try {
-            JavaInterop.JavaObject receiver = (JavaInterop.JavaObject) ForeignAccess.getReceiver(frame);
-            Object obj = receiver.obj;
-            final boolean onlyStatic = obj == null;
-            final Object nameOrIndex = ForeignAccess.getArguments(frame).get(0);
-            Object val;
-            if (nameOrIndex instanceof Integer) {
-                val = Array.get(obj, (int) nameOrIndex);
+        JavaInterop.JavaObject receiver = (JavaInterop.JavaObject) ForeignAccess.getReceiver(frame);
+        Object obj = receiver.obj;
+        final boolean onlyStatic = obj == null;
+        final Object nameOrIndex = ForeignAccess.getArguments(frame).get(0);
+        Object val;
+        if (nameOrIndex instanceof Integer) {
+            val = Array.get(obj, (int) nameOrIndex);
+        } else {
+            String name = (String) nameOrIndex;
+            Object member = lookup.executeLookup(receiver.clazz, onlyStatic, name, -1);
+            if (member instanceof JavaClassDesc.FieldDesc) {
+                val = ((JavaClassDesc.FieldDesc) member).get(obj);
+            } else if (member instanceof JavaClassDesc.MethodDesc) {
+                return new JavaInterop.JavaFunctionObject((JavaClassDesc.MethodDesc) member, obj);
             } else {
-                String name = (String) nameOrIndex;
-                try {
-                    final Field field = receiver.clazz.getField(name);
-                    final boolean isStatic = (field.getModifiers() & Modifier.STATIC) != 0;
-                    if (onlyStatic != isStatic) {
-                        throw new NoSuchFieldException();
-                    }
-                    val = field.get(obj);
-                } catch (NoSuchFieldException ex) {
-                    for (Method m : receiver.clazz.getMethods()) {
-                        final boolean isStatic = (m.getModifiers() & Modifier.STATIC) != 0;
-                        if (onlyStatic != isStatic) {
-                            continue;
-                        }
-                        if (m.getName().equals(name)) {
-                            return new JavaInterop.JavaFunctionObject(m, obj);
-                        }
-                    }
-                    throw (NoSuchFieldError) new NoSuchFieldError(ex.getMessage()).initCause(ex);
-                }
-            }
-            if (JavaInterop.isPrimitive(val)) {
-                return val;
+                throw new NoSuchFieldError(name);
             }
-            return JavaInterop.asTruffleObject(val);
-        } catch (IllegalAccessException ex) {
-            throw new RuntimeException(ex);
         }
+        if (JavaInterop.isPrimitive(val)) {
+            return val;
+        }
+        return JavaInterop.asTruffleObject(val);
     }
 
 }
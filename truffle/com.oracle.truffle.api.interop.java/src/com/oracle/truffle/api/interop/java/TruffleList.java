@@ -27,9 +27,15 @@ package com.oracle.truffle.api.interop.java;
 import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 final class TruffleList<T> extends AbstractList<T> {
+    /** Number of elements fetched by one call of the bulk operations. */
+    static final int BATCH_SIZE = 256;
+
     private final TruffleObject array;
     private final Class<T> type;
 
@@ -59,4 +65,70 @@ final class TruffleList<T> extends AbstractList<T> {
         return (Integer) JavaInterop.message(Message.GET_SIZE, array);
     }
 
+    @Override
+    public Object[] toArray() {
+        int size = size();
+        Object[] elements = new Object[size];
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, size);
+            Object[] batch = JavaInterop.readElements(array, from, to);
+            for (int i = 0; i < batch.length; i++) {
+                elements[from + i] = type.cast(batch[i]);
+            }
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> E[] toArray(E[] a) {
+        Object[] elements = toArray();
+        if (a.length < elements.length) {
+            return (E[]) Arrays.copyOf(elements, elements.length, a.getClass());
+        }
+        System.arraycopy(elements, 0, a, 0, elements.length);
+        if (a.length > elements.length) {
+            a[elements.length] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Iterates over the elements the array has when the iteration starts, reading them in batches
+     * of {@link #BATCH_SIZE}.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new BatchIterator();
+    }
+
+    private final class BatchIterator implements Iterator<T> {
+        private final int size = size();
+        private Object[] batch = new Object[0];
+        private int batchStart;
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            if (index - batchStart >= batch.length) {
+                batchStart = index;
+                batch = JavaInterop.readElements(array, index, Math.min(index + BATCH_SIZE, size));
+            }
+            return type.cast(batch[index++ - batchStart]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
 }
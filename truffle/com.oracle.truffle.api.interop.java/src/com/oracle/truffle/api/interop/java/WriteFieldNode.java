@@ -31,6 +31,7 @@ import com.oracle.truffle.api.nodes.RootNode;
 import java.lang.reflect.Array;
 
 class WriteFieldNode extends RootNode {
+    @Child private LookupMemberNode lookup = LookupMemberNode.create(LookupMemberNode.Kind.WRITE);
 
     public WriteFieldNode() {
         super(JavaInteropLanguage.class, null, null);
@@ -38,25 +39,21 @@ class WriteFieldNode extends RootNode {
 
     @Override
     public Object execute(VirtualFrame frame) {
-        try {
-            JavaInterop.JavaObject receiver = (JavaInterop.JavaObject) ForeignAccess.getReceiver(frame);
-            Object obj = receiver.obj;
-            final Object indexOrName = ForeignAccess.getArguments(frame).get(0);
-            Object value = ForeignAccess.getArguments(frame).get(1);
-            if (indexOrName instanceof Integer) {
-                Array.set(obj, (Integer) indexOrName, value);
-                return JavaObject.NULL;
-            }
-            String name = (String) indexOrName;
-            try {
-                receiver.clazz.getField(name).set(obj, value);
-                return JavaObject.NULL;
-            } catch (NoSuchFieldException ex) {
-                throw new RuntimeException(ex);
-            }
-        } catch (IllegalAccessException ex) {
-            throw new RuntimeException(ex);
+        JavaInterop.JavaObject receiver = (JavaInterop.JavaObject) ForeignAccess.getReceiver(frame);
+        Object obj = receiver.obj;
+        final Object indexOrName = ForeignAccess.getArguments(frame).get(0);
+        Object value = ForeignAccess.getArguments(frame).get(1);
+        if (indexOrName instanceof Integer) {
+            Array.set(obj, (Integer) indexOrName, value);
+            return JavaObject.NULL;
         }
+        String name = (String) indexOrName;
+        JavaClassDesc.FieldDesc field = (JavaClassDesc.FieldDesc) lookup.executeLookup(receiver.clazz, obj == null, name, -1);
+        if (field == null) {
+            throw new RuntimeException(new NoSuchFieldException(name));
+        }
+        field.set(obj, value);
+        return JavaObject.NULL;
     }
 
 }
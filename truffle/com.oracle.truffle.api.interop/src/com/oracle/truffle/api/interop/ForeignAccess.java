@@ -26,21 +26,37 @@ package com.oracle.truffle.api.interop;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.impl.ReadOnlyArrayList;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encapsulates types of access to {@link TruffleObject}. If you want to expose your own objects to
  * foreign language implementations, you need to implement {@link TruffleObject} and its
  * {@link TruffleObject#getForeignAccess()} method. To create instance of <code>ForeignAccess</code>
  * , use one of the factory methods available in this class.
+ * <p>
+ * The {@link CallTarget} the factory provides for a {@link Message} is requested only once per
+ * instance and reused afterwards. Return the same instance from
+ * {@link TruffleObject#getForeignAccess()} for all objects of a kind (on a given thread), rather
+ * than creating a new one on every call.
  */
 public final class ForeignAccess {
     private final Factory factory;
     private final Thread initThread;
+    /**
+     * Call targets provided by {@link #factory}, per message and, as messages of the
+     * {@link Message#createExecute(int) execute} family are equal regardless of their arity, per
+     * number of arguments. The same holds for the {@link Message#createExecute(int, Class) typed}
+     * ones.
+     */
+    private final ConcurrentHashMap<Message, CallTarget[]> targets = new ConcurrentHashMap<>();
 
     private ForeignAccess(Factory faf) {
         this.factory = faf;
@@ -95,6 +111,50 @@ public final class ForeignAccess {
         return fn.executeForeign(frame, receiver, arguments);
     }
 
+    /**
+     * Executes {@link Message#createNode() foreign node} of a message obtained by
+     * {@link Message#createExecute(int, java.lang.Class) Message.createExecute(arguments.length,
+     * long.class)} without boxing the arguments.
+     *
+     * @param foreignNode the createNode created by {@link Message#createNode()}
+     * @param frame the call frame
+     * @param receiver foreign object to execute
+     * @param arguments parameters for the receiver, as many as the message has been created for
+     * @return the return value
+     * @throws UnexpectedResultException if the receiver returned something else than an integral
+     *             number; the exception carries the value
+     * @throws IllegalAccessError if the <code>receiver</code> cannot be executed
+     */
+    public static long executeLong(Node foreignNode, VirtualFrame frame, TruffleObject receiver, long... arguments) throws UnexpectedResultException {
+        ForeignObjectAccessHeadNode fn = (ForeignObjectAccessHeadNode) foreignNode;
+        assert isTypedExecute(fn.getAccessTree(), true, arguments.length) : "Not created by Message.createExecute(" + arguments.length + ", long.class)";
+        return TypedExecute.expectLong(fn.executeForeign(frame, receiver, new Object[]{arguments}));
+    }
+
+    /**
+     * Executes {@link Message#createNode() foreign node} of a message obtained by
+     * {@link Message#createExecute(int, java.lang.Class) Message.createExecute(arguments.length,
+     * double.class)} without boxing the arguments.
+     *
+     * @param foreignNode the createNode created by {@link Message#createNode()}
+     * @param frame the call frame
+     * @param receiver foreign object to execute
+     * @param arguments parameters for the receiver, as many as the message has been created for
+     * @return the return value
+     * @throws UnexpectedResultException if the receiver returned something else than a number
+     *             representable as <code>double</code>; the exception carries the value
+     * @throws IllegalAccessError if the <code>receiver</code> cannot be executed
+     */
+    public static double executeDouble(Node foreignNode, VirtualFrame frame, TruffleObject receiver, double... arguments) throws UnexpectedResultException {
+        ForeignObjectAccessHeadNode fn = (ForeignObjectAccessHeadNode) foreignNode;
+        assert isTypedExecute(fn.getAccessTree(), false, arguments.length) : "Not created by Message.createExecute(" + arguments.length + ", double.class)";
+        return TypedExecute.expectDouble(fn.executeForeign(frame, receiver, new Object[]{arguments}));
+    }
+
+    private static boolean isTypedExecute(Message message, boolean isLong, int arity) {
+        return message instanceof TypedExecute && ((TypedExecute) message).isLong() == isLong && ((TypedExecute) message).getArity() == arity;
+    }
+
     /**
      * Read only access to foreign call arguments inside of a frame.
      *
@@ -107,6 +167,30 @@ public final class ForeignAccess {
         return ReadOnlyArrayList.asList(arr, 1, arr.length);
     }
 
+    /**
+     * Arguments of a {@link Message#createExecute(int, java.lang.Class) typed execute} message with
+     * <code>long</code> parameters. The array must not be modified.
+     *
+     * @param frame the frame that was called via
+     *            {@link #executeLong(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.frame.VirtualFrame, com.oracle.truffle.api.interop.TruffleObject, long...)}
+     * @return the arguments passed to the frame
+     */
+    public static long[] getLongArguments(Frame frame) {
+        return (long[]) frame.getArguments()[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT];
+    }
+
+    /**
+     * Arguments of a {@link Message#createExecute(int, java.lang.Class) typed execute} message with
+     * <code>double</code> parameters. The array must not be modified.
+     *
+     * @param frame the frame that was called via
+     *            {@link #executeDouble(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.frame.VirtualFrame, com.oracle.truffle.api.interop.TruffleObject, double...)}
+     * @return the arguments passed to the frame
+     */
+    public static double[] getDoubleArguments(Frame frame) {
+        return (double[]) frame.getArguments()[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT];
+    }
+
     /**
      * The foreign receiver in the frame.
      *
@@ -129,13 +213,59 @@ public final class ForeignAccess {
         return "ForeignAccess[" + f.getClass().getName() + "]";
     }
 
-    private void checkThread() {
+    /**
+     * Asserts that this instance is used by the thread that created it.
+     */
+    void checkThread() {
         assert initThread == Thread.currentThread();
     }
 
     CallTarget access(Message message) {
         checkThread();
-        return factory.accessMessage(message);
+        int arity;
+        if (message instanceof Execute) {
+            arity = ((Execute) message).getArity();
+        } else if (message instanceof TypedExecute) {
+            arity = ((TypedExecute) message).getArity();
+        } else {
+            arity = 0;
+        }
+        CallTarget[] byArity = targets.get(message);
+        if (byArity != null && arity < byArity.length && byArity[arity] != null) {
+            return byArity[arity];
+        }
+        CallTarget target;
+        if (message instanceof TypedExecute) {
+            target = accessTyped((TypedExecute) message);
+        } else {
+            target = factory.accessMessage(message);
+        }
+        if (target != null) {
+            CallTarget[] update = byArity == null ? new CallTarget[arity + 1] : Arrays.copyOf(byArity, Math.max(byArity.length, arity + 1));
+            update[arity] = target;
+            targets.put(message, update);
+        }
+        return target;
+    }
+
+    /**
+     * Factories unaware of typed execution are served by boxing the arguments and sending the
+     * regular execute message.
+     */
+    private CallTarget accessTyped(TypedExecute message) {
+        CallTarget target;
+        try {
+            target = factory.accessMessage(message);
+        } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+            target = null;
+        }
+        if (target == null) {
+            CallTarget boxed = access(message.boxed());
+            if (boxed != null) {
+                target = Truffle.getRuntime().createCallTarget(new TypedExecuteAdapterNode(message, boxed));
+            }
+        }
+        return target;
     }
 
     boolean canHandle(TruffleObject receiver) {
@@ -271,7 +401,10 @@ public final class ForeignAccess {
         CallTarget accessNew(int argumentsLength);
 
         /**
-         * Handles request for access to a message not known in version 1.0.
+         * Handles request for access to a message not known in version 1.0. This includes the
+         * {@link Message#createExecute(int, java.lang.Class) typed execute} messages; when
+         * <code>null</code> is returned for them, the arguments are boxed and
+         * {@link #accessExecute(int)} is used instead.
          *
          * @param unknown the message
          * @return call target to handle the message or <code>null</code> if this message is not
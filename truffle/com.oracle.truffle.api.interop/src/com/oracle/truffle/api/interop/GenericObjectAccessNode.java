@@ -29,9 +29,20 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Megamorphic access. The targets are kept in a table of this node, keyed by the identity of the
+ * receivers' {@link ForeignAccess}, so that each kind of receiver is resolved only once.
+ */
 final class GenericObjectAccessNode extends ObjectAccessNode {
+    /**
+     * Bounds the table, as {@link ForeignAccess} instances are often per thread.
+     */
+    static final int TABLE_SIZE = 64;
+
     private final Message access;
+    private final ConcurrentHashMap<ForeignAccess, CallTarget> targets = new ConcurrentHashMap<>();
     @Child private IndirectCallNode indirectCallNode;
 
     @Child private ForeignAccessArguments accessArguments = new ForeignAccessArguments();
@@ -47,14 +58,29 @@ final class GenericObjectAccessNode extends ObjectAccessNode {
 
     @Override
     public Object executeWith(VirtualFrame frame, TruffleObject truffleObject, Object[] arguments) {
-        final ForeignAccess fa = truffleObject.getForeignAccess();
-        final CallTarget ct = fa.access(access);
-        if (ct == null) {
-            throw messageNotRecognizedException(fa);
-        }
+        final CallTarget ct = lookup(truffleObject.getForeignAccess());
         return indirectCallNode.call(frame, ct, accessArguments.executeCreate(truffleObject, arguments));
     }
 
+    @CompilerDirectives.TruffleBoundary
+    private CallTarget lookup(ForeignAccess fa) {
+        CallTarget ct = targets.get(fa);
+        if (ct != null) {
+            /* A hit bypasses ForeignAccess.access, which would otherwise do this check. */
+            fa.checkThread();
+        } else {
+            ct = fa.access(access);
+            if (ct == null) {
+                throw messageNotRecognizedException(fa);
+            }
+            InteropCacheStatistics.megamorphicMiss();
+            if (targets.size() < TABLE_SIZE) {
+                targets.put(fa, ct);
+            }
+        }
+        return ct;
+    }
+
     @CompilerDirectives.TruffleBoundary
     private RuntimeException messageNotRecognizedException(final ForeignAccess fa) {
         throw new IllegalStateException("Message " + access + " not recognized by " + fa);
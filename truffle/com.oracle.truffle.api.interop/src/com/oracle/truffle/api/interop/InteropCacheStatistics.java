@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of the inline caches of the {@link Message#createNode() message nodes}, for tuning.
+ * A node caches the targets of the first receivers it sees (it is <em>polymorphic</em> as soon as
+ * it caches more than one) and goes <em>megamorphic</em> when the cache is full: from then on it
+ * resolves targets through a hash table keyed by the receivers' {@link ForeignAccess}. The counts
+ * are global and updated only when a node changes its state or resolves a new target. Run with
+ * <code>-Dtruffle.interop.PrintCacheStatistics=true</code> to print them when the VM exits.
+ */
+public final class InteropCacheStatistics {
+    private static final AtomicLong SITES = new AtomicLong();
+    private static final AtomicLong POLYMORPHIC = new AtomicLong();
+    private static final AtomicLong MEGAMORPHIC = new AtomicLong();
+    private static final AtomicLong MEGAMORPHIC_MISSES = new AtomicLong();
+    private static final AtomicLongArray CACHE_SIZES = new AtomicLongArray(UnresolvedObjectAccessNode.CACHE_SIZE);
+
+    static {
+        if (Boolean.getBoolean("truffle.interop.PrintCacheStatistics")) {
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    print(System.out);
+                }
+            });
+        }
+    }
+
+    private InteropCacheStatistics() {
+    }
+
+    /**
+     * @return number of message nodes that have cached at least one receiver
+     */
+    public static long getSites() {
+        return SITES.get();
+    }
+
+    /**
+     * @return number of message nodes that have cached more than one receiver
+     */
+    public static long getPolymorphicSites() {
+        return POLYMORPHIC.get();
+    }
+
+    /**
+     * @return number of message nodes that went megamorphic
+     */
+    public static long getMegamorphicSites() {
+        return MEGAMORPHIC.get();
+    }
+
+    /**
+     * @return number of times a megamorphic node resolved the target for a {@link ForeignAccess}
+     *         it had not seen (or could not keep) in its table
+     */
+    public static long getMegamorphicMisses() {
+        return MEGAMORPHIC_MISSES.get();
+    }
+
+    /**
+     * @return at index <code>i</code>, the number of message nodes currently caching
+     *         <code>i</code> receivers; megamorphic nodes are not included
+     */
+    public static long[] getCacheSizes() {
+        long[] sizes = new long[CACHE_SIZES.length()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = CACHE_SIZES.get(i);
+        }
+        return sizes;
+    }
+
+    /**
+     * Resets all counts to zero, to measure a workload in isolation. Nodes keep their state, so the
+     * cache sizes are only meaningful for nodes created after the reset.
+     */
+    public static void reset() {
+        SITES.set(0);
+        POLYMORPHIC.set(0);
+        MEGAMORPHIC.set(0);
+        MEGAMORPHIC_MISSES.set(0);
+        for (int i = 0; i < CACHE_SIZES.length(); i++) {
+            CACHE_SIZES.set(i, 0);
+        }
+    }
+
+    /**
+     * Prints the counts.
+     *
+     * @param out the stream to print to
+     */
+    public static void print(PrintStream out) {
+        out.println("Interop cache statistics:");
+        out.println("  sites:        " + getSites());
+        out.println("  polymorphic:  " + getPolymorphicSites());
+        out.println("  megamorphic:  " + getMegamorphicSites() + " (" + getMegamorphicMisses() + " table misses)");
+        long[] sizes = getCacheSizes();
+        for (int i = 1; i < sizes.length; i++) {
+            out.println("  cache size " + i + ": " + sizes[i]);
+        }
+    }
+
+    /**
+     * A node added a receiver to its cache, which now holds <code>entries</code> of them.
+     */
+    static void cached(int entries) {
+        if (entries == 1) {
+            SITES.incrementAndGet();
+        } else {
+            if (entries == 2) {
+                POLYMORPHIC.incrementAndGet();
+            }
+            CACHE_SIZES.decrementAndGet(entries - 1);
+        }
+        CACHE_SIZES.incrementAndGet(entries);
+    }
+
+    /**
+     * A node holding <code>entries</code> receivers went megamorphic.
+     */
+    static void megamorphic(int entries) {
+        MEGAMORPHIC.incrementAndGet();
+        CACHE_SIZES.decrementAndGet(entries);
+    }
+
+    static void megamorphicMiss() {
+        MEGAMORPHIC_MISSES.incrementAndGet();
+    }
+}
@@ -161,6 +161,33 @@ public abstract class Message {
         return Execute.create(Execute.EXECUTE, argumentsLength);
     }
 
+    /**
+     * Creates an execute message with primitive parameters and return value. Such a message is
+     * sent via
+     * {@link ForeignAccess#executeLong(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.frame.VirtualFrame, com.oracle.truffle.api.interop.TruffleObject, long...)}
+     * or
+     * {@link ForeignAccess#executeDouble(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.frame.VirtualFrame, com.oracle.truffle.api.interop.TruffleObject, double...)}
+     * and passes the arguments as a single <code>long[]</code> or <code>double[]</code> instead of
+     * boxing each of them. Targets that handle it read the arguments via
+     * {@link ForeignAccess#getLongArguments(com.oracle.truffle.api.frame.Frame)} or
+     * {@link ForeignAccess#getDoubleArguments(com.oracle.truffle.api.frame.Frame)}. Receivers whose
+     * {@link ForeignAccess.Factory factory} does not support the message are sent
+     * {@link #createExecute(int)} with the boxed arguments instead, so the message can be sent to
+     * any executable object.
+     * <p>
+     * All messages created by this method for the same <code>type</code> are
+     * {@link Object#equals(java.lang.Object) equal} to each other regardless of the value of
+     * <code>argumentsLength</code>.
+     *
+     * @param argumentsLength number of parameters to pass to the target, at most four
+     * @param type either <code>long.class</code> or <code>double.class</code>
+     * @return typed execute message
+     * @throws IllegalArgumentException if the number of arguments or the type is not supported
+     */
+    public static Message createExecute(int argumentsLength, Class<?> type) {
+        return TypedExecute.create(argumentsLength, type);
+    }
+
     /**
      * Message to check executability of a
      * {@link ForeignAccess#getReceiver(com.oracle.truffle.api.frame.Frame) foreign object}.
@@ -392,6 +419,9 @@ public abstract class Message {
         if (message instanceof Execute) {
             return ((Execute) message).name();
         }
+        if (message instanceof TypedExecute) {
+            return ((TypedExecute) message).name();
+        }
         return message.getClass().getName();
     }
 
@@ -408,6 +438,10 @@ public abstract class Message {
         try {
             return (Message) Message.class.getField(message).get(null);
         } catch (Exception ex) {
+            Message typed = TypedExecute.forName(message);
+            if (typed != null) {
+                return typed;
+            }
             try {
                 String factory = "create" + message.charAt(0) + message.substring(1).toLowerCase();
                 return (Message) Message.class.getMethod(factory, int.class).invoke(null, 0);
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop;
+
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+final class TypedExecute extends KnownMessage {
+    public static final int LONG = 423427;
+    public static final int DOUBLE = 423426;
+    static final int MAX_ARITY = 4;
+
+    private final int arity;
+    private final int type;
+
+    public static TypedExecute create(int arity, Class<?> type) {
+        if (arity < 0 || arity > MAX_ARITY) {
+            throw new IllegalArgumentException("Typed execute supports up to " + MAX_ARITY + " arguments: " + arity);
+        }
+        if (type == long.class) {
+            return new TypedExecute(LONG, arity);
+        } else if (type == double.class) {
+            return new TypedExecute(DOUBLE, arity);
+        }
+        throw new IllegalArgumentException("Typed execute supports long and double only: " + type);
+    }
+
+    static TypedExecute forName(String name) {
+        if ("EXECUTE_LONG".equals(name)) {
+            return new TypedExecute(LONG, 0);
+        } else if ("EXECUTE_DOUBLE".equals(name)) {
+            return new TypedExecute(DOUBLE, 0);
+        }
+        return null;
+    }
+
+    private TypedExecute(int type, int arity) {
+        this.type = type;
+        this.arity = arity;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    boolean isLong() {
+        return type == LONG;
+    }
+
+    Execute boxed() {
+        return Execute.create(Execute.EXECUTE, arity);
+    }
+
+    @Override
+    public boolean equals(Object message) {
+        if (!(message instanceof TypedExecute)) {
+            return false;
+        }
+        return type == ((TypedExecute) message).type;
+    }
+
+    @Override
+    public int hashCode() {
+        return type;
+    }
+
+    String name() {
+        return type == LONG ? "EXECUTE_LONG" : "EXECUTE_DOUBLE";
+    }
+
+    static long expectLong(Object result) throws UnexpectedResultException {
+        if (result instanceof Long) {
+            return (Long) result;
+        }
+        if (result instanceof Integer || result instanceof Short || result instanceof Byte) {
+            return ((Number) result).longValue();
+        }
+        throw new UnexpectedResultException(result);
+    }
+
+    static double expectDouble(Object result) throws UnexpectedResultException {
+        if (result instanceof Double) {
+            return (Double) result;
+        }
+        if (result instanceof Float || result instanceof Integer || result instanceof Short || result instanceof Byte) {
+            return ((Number) result).doubleValue();
+        }
+        throw new UnexpectedResultException(result);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Serves a {@link TypedExecute typed execute} message for receivers that only understand the boxed
+ * one: unpacks the primitive arguments and calls the target of {@link Message#createExecute(int)}.
+ */
+final class TypedExecuteAdapterNode extends RootNode {
+    private final int arity;
+    private final boolean isLong;
+    @Child private DirectCallNode boxed;
+
+    TypedExecuteAdapterNode(TypedExecute message, CallTarget boxed) {
+        super(TruffleLanguage.class, null, null);
+        this.arity = message.getArity();
+        this.isLong = message.isLong();
+        this.boxed = Truffle.getRuntime().createDirectCallNode(boxed);
+    }
+
+    @ExplodeLoop
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] typed = frame.getArguments();
+        Object[] arguments = new Object[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT + arity];
+        arguments[ForeignAccessArguments.RECEIVER_INDEX] = typed[ForeignAccessArguments.RECEIVER_INDEX];
+        if (isLong) {
+            long[] values = (long[]) typed[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT];
+            for (int i = 0; i < arity; i++) {
+                arguments[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT + i] = values[i];
+            }
+        } else {
+            double[] values = (double[]) typed[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT];
+            for (int i = 0; i < arity; i++) {
+                arguments[ForeignAccessArguments.RUNTIME_ARGUMENT_COUNT + i] = values[i];
+            }
+        }
+        return boxed.call(frame, arguments);
+    }
+}
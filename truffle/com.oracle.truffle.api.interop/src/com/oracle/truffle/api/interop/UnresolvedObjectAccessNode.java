@@ -31,7 +31,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeUtil;
 
 final class UnresolvedObjectAccessNode extends ObjectAccessNode {
-    private static final int CACHE_SIZE = 8;
+    static final int CACHE_SIZE = 8;
     private int cacheLength = 1;
 
     @Override
@@ -41,9 +41,11 @@ final class UnresolvedObjectAccessNode extends ObjectAccessNode {
         ObjectAccessNode first = nthParent.getFirst();
         if (cacheLength < UnresolvedObjectAccessNode.CACHE_SIZE) {
             CachedObjectAccessNode createCachedAccess = createCachedAccess(receiver, nthParent.getAccessTree(), first);
+            InteropCacheStatistics.cached(cacheLength);
             cacheLength++;
             return first.replace(createCachedAccess).executeWith(frame, receiver, arguments);
         } else {
+            InteropCacheStatistics.megamorphic(cacheLength - 1);
             return first.replace(createGenericAccess(nthParent.getAccessTree())).executeWith(frame, receiver, arguments);
         }
     }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+/**
+ * An allocation site creates {@link DynamicObject}s from an initial shape and remembers the shape
+ * that its objects eventually grow into, so that later objects can be allocated with enough
+ * storage for that shape up front. Languages typically create one allocation site per object
+ * creation node.
+ *
+ * @see Layout#createAllocationSite(Shape)
+ */
+public interface AllocationSite {
+    /**
+     * Create a new {@link DynamicObject} in the initial shape of this allocation site.
+     */
+    DynamicObject newInstance();
+
+    /**
+     * @return the initial shape of objects created by this allocation site.
+     */
+    Shape getShape();
+
+    /**
+     * @return the shape recently observed on objects created by this allocation site, or
+     *         {@code null} if no feedback has been recorded yet.
+     */
+    Shape getPredictedShape();
+}
@@ -24,6 +24,11 @@
  */
 package com.oracle.truffle.api.object;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import com.oracle.truffle.api.TypedObject;
 import com.oracle.truffle.api.interop.TruffleObject;
 
@@ -33,6 +38,8 @@ import com.oracle.truffle.api.interop.TruffleObject;
  * @see Shape
  */
 public abstract class DynamicObject implements TypedObject, TruffleObject {
+    private static final Object ABSENT = new Object();
+
     /**
      * Get the object's current shape.
      */
@@ -70,7 +77,46 @@ public abstract class DynamicObject implements TypedObject, TruffleObject {
      * Returns {@code true} if this object contains a property with the given key.
      */
     public final boolean containsKey(Object key) {
-        return getShape().getProperty(key) != null;
+        Shape shape = getShape();
+        if (shape.isDictionary()) {
+            return get(key, ABSENT) != ABSENT;
+        }
+        return shape.getProperty(key) != null;
+    }
+
+    /**
+     * Get the flags of a property.
+     *
+     * @param key property identifier
+     * @param defaultFlags return value if property is not found
+     * @return property flags or defaultFlags if object has no such property
+     */
+    public int getFlags(Object key, int defaultFlags) {
+        Property property = getShape().getProperty(key);
+        return property != null ? property.getFlags() : defaultFlags;
+    }
+
+    /**
+     * Get the keys of all non-hidden properties of this object, in insertion order. Unlike
+     * {@link Shape#getKeyList()}, this also works for objects in {@link Shape#isDictionary()
+     * dictionary mode}.
+     */
+    public List<Object> getKeyList() {
+        return getShape().getKeyList();
+    }
+
+    /**
+     * Get the keys and values of all non-hidden properties of this object, in insertion order.
+     *
+     * @see #getKeyList()
+     */
+    public List<Map.Entry<Object, Object>> getEntryList() {
+        List<Object> keys = getKeyList();
+        List<Map.Entry<Object, Object>> entries = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            entries.add(new SimpleImmutableEntry<>(key, get(key)));
+        }
+        return entries;
     }
 
     /**
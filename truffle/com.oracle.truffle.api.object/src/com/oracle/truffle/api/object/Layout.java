@@ -63,6 +63,31 @@ public abstract class Layout {
 
     public abstract DynamicObject newInstance(Shape shape);
 
+    /**
+     * Create an {@link AllocationSite} for objects that start out in the given shape. Objects
+     * allocated through the site are pre-sized for the shape that earlier objects from the same
+     * site have grown into.
+     * <p>
+     * The default implementation records no feedback: it allocates every object with
+     * {@link #newInstance(Shape)} and never predicts a shape. Layouts that can pre-size objects
+     * override it.
+     */
+    public AllocationSite createAllocationSite(final Shape initialShape) {
+        return new AllocationSite() {
+            public DynamicObject newInstance() {
+                return Layout.this.newInstance(initialShape);
+            }
+
+            public Shape getShape() {
+                return initialShape;
+            }
+
+            public Shape getPredictedShape() {
+                return null;
+            }
+        };
+    }
+
     public abstract Class<? extends DynamicObject> getType();
 
     public abstract Shape createShape(ObjectType operations);
@@ -122,6 +147,7 @@ public abstract class Layout {
     public static final class Builder {
         private EnumSet<ImplicitCast> allowedImplicitCasts;
         private boolean polymorphicUnboxing;
+        private boolean dictionaryMode;
 
         /**
          * Create a new layout builder.
@@ -164,6 +190,18 @@ public abstract class Layout {
             this.polymorphicUnboxing = polymorphicUnboxing;
             return this;
         }
+
+        /**
+         * If {@code true}, objects that have been given many properties or that had a property
+         * other than the most recently added one deleted switch to a shared dictionary shape and
+         * keep their properties in a hash table.
+         *
+         * @see Shape#isDictionary()
+         */
+        public Builder setDictionaryMode(boolean dictionaryMode) {
+            this.dictionaryMode = dictionaryMode;
+            return this;
+        }
     }
 
     protected static EnumSet<ImplicitCast> getAllowedImplicitCasts(Builder builder) {
@@ -173,4 +211,8 @@ public abstract class Layout {
     protected static boolean getPolymorphicUnboxing(Builder builder) {
         return builder.polymorphicUnboxing;
     }
+
+    protected static boolean getDictionaryMode(Builder builder) {
+        return builder.dictionaryMode;
+    }
 }
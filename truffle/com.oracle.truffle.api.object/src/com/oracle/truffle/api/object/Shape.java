@@ -256,6 +256,31 @@ public abstract class Shape {
      */
     public abstract Shape tryMerge(Shape other);
 
+    /**
+     * Returns {@code true} if objects of this shape are in dictionary mode, i.e., store their
+     * properties in a hash table instead of describing them in the shape. The properties of such
+     * objects can only be accessed through the methods of {@link DynamicObject}, e.g.
+     * {@link DynamicObject#getKeyList()}, not through {@link #getProperty(Object)} or
+     * {@link #getKeyList()}.
+     *
+     * @see Layout.Builder#setDictionaryMode(boolean)
+     */
+    public boolean isDictionary() {
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if objects of this shape switch to dictionary mode when the next property
+     * is added. Such an addition has to go through {@link DynamicObject#define(Object, Object)}
+     * rather than a transition from this shape obtained by
+     * {@link #defineProperty(Object, Object, int)}.
+     *
+     * @see Layout.Builder#setDictionaryMode(boolean)
+     */
+    public boolean isDictionaryModeDue() {
+        return false;
+    }
+
     /**
      * Utility class to allocate locations in an object layout.
      */
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.TruffleStackOverflowException;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.test.FrameTest;
+
+/**
+ * Tests the frame reuse of the {@link DefaultFrameStack} and the primitive frames of the
+ * {@link DefaultTruffleRuntime}, as well as the stack depth cap, independently of the options the
+ * test VM was started with.
+ */
+public class DefaultFrameStackTest {
+
+    @Test
+    public void framesAreReused() throws FrameSlotTypeException {
+        DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(false), true, 0);
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot slot = descriptor.addFrameSlot("value", FrameSlotKind.Int);
+
+        AbstractDefaultFrame first = stack.enter(null, descriptor, new Object[]{1});
+        first.setInt(slot, 42);
+        stack.exit();
+        assertNull("Arguments are dropped on exit", first.getArguments());
+
+        AbstractDefaultFrame second = stack.enter(null, descriptor, new Object[]{2});
+        assertSame(first, second);
+        assertArrayEquals(new Object[]{2}, second.getArguments());
+        assertEquals("Slots are reset", descriptor.getDefaultValue(), second.getValue(slot));
+
+        AbstractDefaultFrame nested = stack.enter(null, descriptor, new Object[]{3});
+        assertNotSame("Every level has its own frame", second, nested);
+        stack.exit();
+        stack.exit();
+        assertEquals(0, stack.getDepth());
+    }
+
+    @Test
+    public void framesAreNotReusedWithoutOption() {
+        DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(false), false, 0);
+        FrameDescriptor descriptor = new FrameDescriptor();
+
+        AbstractDefaultFrame first = stack.enter(null, descriptor, new Object[]{1});
+        stack.exit();
+        AbstractDefaultFrame second = stack.enter(null, descriptor, new Object[]{2});
+        stack.exit();
+        assertNotSame(first, second);
+        assertArrayEquals("A frame is left alone after its activation", new Object[]{1}, first.getArguments());
+    }
+
+    @Test
+    public void materializedFramesAreNotReused() throws FrameSlotTypeException {
+        DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(false), true, 0);
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot slot = descriptor.addFrameSlot("value", FrameSlotKind.Int);
+
+        AbstractDefaultFrame first = stack.enter(null, descriptor, new Object[]{1});
+        first.setInt(slot, 1);
+        MaterializedFrame materialized = first.materialize();
+        stack.exit();
+
+        AbstractDefaultFrame second = stack.enter(null, descriptor, new Object[]{2});
+        second.setInt(slot, 2);
+        stack.exit();
+        assertNotSame(first, second);
+        assertEquals(1, materialized.getInt(slot));
+        assertArrayEquals(new Object[]{1}, materialized.getArguments());
+
+        assertSame("The replacement frame is reused again", second, stack.enter(null, descriptor, new Object[]{3}));
+        stack.exit();
+    }
+
+    @Test
+    public void escapedFramesAreNotReused() {
+        DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(false), true, 0);
+        FrameDescriptor descriptor = new FrameDescriptor();
+
+        AbstractDefaultFrame first = stack.enter(null, descriptor, new Object[]{1});
+        assertSame(first, stack.getCurrentFrame().getFrame(FrameAccess.READ_WRITE, true));
+        stack.exit();
+        AbstractDefaultFrame second = stack.enter(null, descriptor, new Object[]{2});
+        stack.exit();
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void primitiveFrames() throws FrameSlotTypeException {
+        assertTrue(FrameTest.checkPrimitiveValuesRoundTrip(new DefaultTruffleRuntime(true)) instanceof DefaultPrimitiveVirtualFrame);
+        assertTrue(FrameTest.checkPrimitiveValuesRoundTrip(new DefaultTruffleRuntime(false)) instanceof DefaultVirtualFrame);
+    }
+
+    @Test
+    public void reusedPrimitiveFramesAreReset() throws FrameSlotTypeException {
+        DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(true), true, 0);
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot slot = descriptor.addFrameSlot("value", FrameSlotKind.Long);
+
+        AbstractDefaultFrame first = stack.enter(null, descriptor, new Object[0]);
+        assertTrue(first instanceof DefaultPrimitiveVirtualFrame);
+        first.setLong(slot, 42L);
+        stack.exit();
+
+        AbstractDefaultFrame second = stack.enter(null, descriptor, new Object[0]);
+        assertSame(first, second);
+        assertTrue("The slot lost its primitive tag", second.isObject(slot));
+        assertEquals(descriptor.getDefaultValue(), second.getValue(slot));
+        stack.exit();
+    }
+
+    @Test
+    public void recursionStopsAtMaxDepth() {
+        for (int maxDepth : new int[]{3, 40}) {
+            DefaultFrameStack stack = new DefaultFrameStack(new DefaultTruffleRuntime(false), true, maxDepth);
+            try {
+                recurse(stack, new FrameDescriptor());
+                fail("Expected TruffleStackOverflowException");
+            } catch (TruffleStackOverflowException e) {
+                // expected
+            }
+            assertEquals("Every entered activation was exited", 0, stack.getDepth());
+
+            FrameDescriptor descriptor = new FrameDescriptor();
+            for (int i = 0; i < maxDepth; i++) {
+                stack.enter(null, descriptor, new Object[0]);
+            }
+            assertEquals(maxDepth, stack.getDepth());
+            try {
+                stack.enter(null, descriptor, new Object[0]);
+                fail("Expected TruffleStackOverflowException");
+            } catch (TruffleStackOverflowException e) {
+                assertEquals("The failed call was not entered", maxDepth, stack.getDepth());
+            }
+        }
+    }
+
+    private static void recurse(DefaultFrameStack stack, FrameDescriptor descriptor) {
+        stack.enter(null, descriptor, new Object[0]);
+        try {
+            recurse(stack, descriptor);
+        } finally {
+            stack.exit();
+        }
+    }
+}
@@ -198,4 +198,88 @@ public class FrameTest {
         Object ret = Truffle.getRuntime().createCallTarget(frn).call();
         assertEquals("Returns itself", frn, ret);
     }
+
+    @Test
+    public void materializedFramesSurviveLaterCalls() throws FrameSlotTypeException {
+        final TruffleRuntime runtime = Truffle.getRuntime();
+        final FrameDescriptor frameDescriptor = new FrameDescriptor();
+        final FrameSlot slot = frameDescriptor.addFrameSlot("value", FrameSlotKind.Int);
+
+        class MaterializingRootNode extends RootNode {
+
+            MaterializingRootNode() {
+                super(TestingLanguage.class, null, frameDescriptor);
+            }
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                frame.setInt(slot, (Integer) frame.getArguments()[0]);
+                return runtime.getCurrentFrame().getFrame(FrameInstance.FrameAccess.MATERIALIZE, true);
+            }
+        }
+
+        CallTarget target = runtime.createCallTarget(new MaterializingRootNode());
+        MaterializedFrame first = (MaterializedFrame) target.call(1);
+        MaterializedFrame second = (MaterializedFrame) target.call(2);
+        assertEquals(1, first.getInt(slot));
+        assertEquals(2, second.getInt(slot));
+        assertEquals(1, first.getArguments()[0]);
+    }
+
+    @Test
+    public void primitiveValuesRoundTrip() throws FrameSlotTypeException {
+        checkPrimitiveValuesRoundTrip(Truffle.getRuntime());
+    }
+
+    /**
+     * Stores a value of every slot kind in a frame of {@code runtime} and reads it back, boxed and
+     * unboxed. Returns the frame so that callers can check its implementation.
+     */
+    public static VirtualFrame checkPrimitiveValuesRoundTrip(TruffleRuntime runtime) throws FrameSlotTypeException {
+        FrameDescriptor frameDescriptor = new FrameDescriptor();
+        FrameSlot intSlot = frameDescriptor.addFrameSlot("int", FrameSlotKind.Int);
+        FrameSlot longSlot = frameDescriptor.addFrameSlot("long", FrameSlotKind.Long);
+        FrameSlot doubleSlot = frameDescriptor.addFrameSlot("double", FrameSlotKind.Double);
+        FrameSlot floatSlot = frameDescriptor.addFrameSlot("float", FrameSlotKind.Float);
+        FrameSlot booleanSlot = frameDescriptor.addFrameSlot("boolean", FrameSlotKind.Boolean);
+        FrameSlot byteSlot = frameDescriptor.addFrameSlot("byte", FrameSlotKind.Byte);
+        FrameSlot objectSlot = frameDescriptor.addFrameSlot("object", FrameSlotKind.Object);
+
+        VirtualFrame frame = runtime.createVirtualFrame(new Object[0], frameDescriptor);
+        assertEquals(null, frame.getValue(objectSlot));
+        frame.setInt(intSlot, -42);
+        frame.setLong(longSlot, Long.MIN_VALUE);
+        frame.setDouble(doubleSlot, -0.0d);
+        frame.setFloat(floatSlot, Float.NaN);
+        frame.setBoolean(booleanSlot, true);
+        frame.setByte(byteSlot, (byte) -1);
+        frame.setObject(objectSlot, "value");
+
+        assertEquals(-42, frame.getInt(intSlot));
+        assertEquals(Long.MIN_VALUE, frame.getLong(longSlot));
+        assertEquals(Double.doubleToRawLongBits(-0.0d), Double.doubleToRawLongBits(frame.getDouble(doubleSlot)));
+        assertTrue(Float.isNaN(frame.getFloat(floatSlot)));
+        assertTrue(frame.getBoolean(booleanSlot));
+        assertEquals((byte) -1, frame.getByte(byteSlot));
+        assertEquals("value", frame.getObject(objectSlot));
+
+        assertEquals(-42, frame.getValue(intSlot));
+        assertEquals(Long.MIN_VALUE, frame.getValue(longSlot));
+        assertEquals(-0.0d, frame.getValue(doubleSlot));
+        assertEquals(Float.NaN, frame.getValue(floatSlot));
+        assertEquals(true, frame.getValue(booleanSlot));
+        assertEquals((byte) -1, frame.getValue(byteSlot));
+
+        MaterializedFrame materialized = frame.materialize();
+        materialized.setInt(longSlot, 7);
+        assertTrue(frame.isInt(longSlot));
+        assertEquals(7, frame.getInt(longSlot));
+        try {
+            frame.getLong(longSlot);
+            Assert.fail("Expected FrameSlotTypeException");
+        } catch (FrameSlotTypeException e) {
+            // expected
+        }
+        return frame;
+    }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.impl.DefaultTruffleRuntime;
+import com.oracle.truffle.api.impl.ForkJoinAcceleratorBackend;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the OpenCL kernel IDs of the call targets of the {@link DefaultTruffleRuntime} and the
+ * dispatch of kernels to an accelerator backend.
+ */
+public class OpenCLKernelTest {
+
+    private DefaultTruffleRuntime runtime;
+
+    @Before
+    public void before() {
+        Assume.assumeTrue(Truffle.getRuntime() instanceof DefaultTruffleRuntime);
+        runtime = (DefaultTruffleRuntime) Truffle.getRuntime();
+    }
+
+    @After
+    public void after() {
+        if (runtime != null) {
+            runtime.setAcceleratorBackend(null);
+        }
+    }
+
+    @Test
+    public void testStableID() {
+        RootCallTarget target = runtime.createCallTarget(new KernelRootNode());
+        assertEquals(RootCallTarget.OCL_INIT, target.getIDForOpenCL());
+        target.generateIDForOpenCL();
+        long id = target.getIDForOpenCL();
+        assertNotEquals(RootCallTarget.OCL_INIT, id);
+        target.generateIDForOpenCL();
+        assertEquals(id, target.getIDForOpenCL());
+        assertSame(target, runtime.getCallTargetForOpenCL(id));
+
+        RootCallTarget other = runtime.createCallTarget(new KernelRootNode());
+        other.generateIDForOpenCL();
+        assertNotEquals(id, other.getIDForOpenCL());
+    }
+
+    @Test
+    public void testReplaceInvalidatesID() {
+        KernelRootNode root = new KernelRootNode();
+        RootCallTarget target = runtime.createCallTarget(root);
+        target.generateIDForOpenCL();
+        long id = target.getIDForOpenCL();
+
+        root.body.replace(new AddNode(2));
+        assertEquals(RootCallTarget.OCL_INIT, target.getIDForOpenCL());
+        assertNull(runtime.getCallTargetForOpenCL(id));
+
+        target.generateIDForOpenCL();
+        assertNotEquals(id, target.getIDForOpenCL());
+        assertSame(target, runtime.getCallTargetForOpenCL(target.getIDForOpenCL()));
+    }
+
+    @Test
+    public void testResetID() {
+        RootCallTarget target = runtime.createCallTarget(new KernelRootNode());
+        target.generateIDForOpenCL();
+        long id = target.getIDForOpenCL();
+        target.resetIDForOpenCL();
+        assertEquals(RootCallTarget.OCL_INIT, target.getIDForOpenCL());
+        assertNull(runtime.getCallTargetForOpenCL(id));
+    }
+
+    @Test
+    public void testSetIDRejectsOwnedID() {
+        RootCallTarget target = runtime.createCallTarget(new KernelRootNode());
+        target.generateIDForOpenCL();
+        long id = target.getIDForOpenCL();
+
+        RootCallTarget other = runtime.createCallTarget(new KernelRootNode());
+        try {
+            other.setIDForOpenCL(id);
+            fail("ID is owned by another call target");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(RootCallTarget.OCL_INIT, other.getIDForOpenCL());
+        assertEquals(id, target.getIDForOpenCL());
+        assertSame(target, runtime.getCallTargetForOpenCL(id));
+
+        target.resetIDForOpenCL();
+        other.setIDForOpenCL(id);
+        assertSame(other, runtime.getCallTargetForOpenCL(id));
+    }
+
+    @Test
+    public void testGeneratedIDSkipsExplicitID() {
+        RootCallTarget probe = runtime.createCallTarget(new KernelRootNode());
+        probe.generateIDForOpenCL();
+        long next = probe.getIDForOpenCL() + 1;
+
+        RootCallTarget explicit = runtime.createCallTarget(new KernelRootNode());
+        explicit.setIDForOpenCL(next);
+        RootCallTarget generated = runtime.createCallTarget(new KernelRootNode());
+        generated.generateIDForOpenCL();
+        assertNotEquals(next, generated.getIDForOpenCL());
+        assertSame(explicit, runtime.getCallTargetForOpenCL(next));
+        assertSame(generated, runtime.getCallTargetForOpenCL(generated.getIDForOpenCL()));
+    }
+
+    @Test
+    public void testExecuteKernel() {
+        ForkJoinAcceleratorBackend backend = new ForkJoinAcceleratorBackend();
+        runtime.setAcceleratorBackend(backend);
+        KernelRootNode root = new KernelRootNode();
+        RootCallTarget target = runtime.createCallTarget(root);
+
+        Object[][] workItems = new Object[100][];
+        Object[] expected = new Object[workItems.length];
+        for (int i = 0; i < workItems.length; i++) {
+            workItems[i] = new Object[]{i};
+            expected[i] = i + 1;
+        }
+        assertArrayEquals(expected, runtime.executeKernel(target, workItems));
+        long id = target.getIDForOpenCL();
+        assertTrue(backend.isInstalled(id));
+
+        runtime.executeKernel(target, workItems);
+        assertEquals(id, target.getIDForOpenCL());
+
+        root.body.replace(new AddNode(2));
+        assertFalse(backend.isInstalled(id));
+        for (int i = 0; i < workItems.length; i++) {
+            expected[i] = i + 2;
+        }
+        assertArrayEquals(expected, runtime.executeKernel(target, workItems));
+        assertTrue(backend.isInstalled(target.getIDForOpenCL()));
+    }
+
+    @Test
+    public void testExecuteOnOwnPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ForkJoinAcceleratorBackend backend = new ForkJoinAcceleratorBackend(pool);
+            RootCallTarget target = runtime.createCallTarget(new KernelRootNode());
+            backend.install(7, target);
+            assertArrayEquals(new Object[]{2, 3}, backend.execute(7, new Object[][]{{1}, {2}}));
+            backend.invalidate(7);
+            assertFalse(backend.isInstalled(7));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInstalledTargetIsNotRetained() {
+        ForkJoinAcceleratorBackend backend = new ForkJoinAcceleratorBackend();
+        WeakReference<RootCallTarget> reference = installKernel(backend, 42);
+        assertTrue(backend.isInstalled(42));
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(reference.get());
+        assertFalse(backend.isInstalled(42));
+        try {
+            backend.execute(42, new Object[][]{{1}});
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private WeakReference<RootCallTarget> installKernel(ForkJoinAcceleratorBackend backend, long id) {
+        RootCallTarget target = runtime.createCallTarget(new KernelRootNode());
+        backend.install(id, target);
+        return new WeakReference<>(target);
+    }
+
+    static class KernelRootNode extends RootNode {
+
+        @Child AddNode body = new AddNode(1);
+
+        KernelRootNode() {
+            super(TestingLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return body.execute(frame);
+        }
+    }
+
+    static class AddNode extends Node {
+
+        private final int summand;
+
+        AddNode(int summand) {
+            this.summand = summand;
+        }
+
+        int execute(VirtualFrame frame) {
+            return (Integer) frame.getArguments()[0] + summand;
+        }
+    }
+}
@@ -29,18 +29,22 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.frame.FrameStackDepth;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
@@ -127,6 +131,35 @@ public class TruffleRuntimeTest {
         assertTrue(runtime.getCallTargets().contains(target2));
     }
 
+    @Test
+    public void testGetCallTargetsConcurrently() throws InterruptedException {
+        final int targetsPerThread = 100;
+        final List<List<RootCallTarget>> created = new ArrayList<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final List<RootCallTarget> targets = new ArrayList<>();
+            created.add(targets);
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < targetsPerThread; j++) {
+                        targets.add(runtime.createCallTarget(createTestRootNode(null)));
+                        runtime.getCallTargets();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Collection<RootCallTarget> callTargets = runtime.getCallTargets();
+        for (List<RootCallTarget> targets : created) {
+            assertEquals(targetsPerThread, targets.size());
+            assertTrue(callTargets.containsAll(targets));
+        }
+    }
+
     /*
      * This test case documents the use case for profilers and debuggers where they need to access
      * multiple call targets for the same source section. This case may happen when the optimization
@@ -161,6 +194,31 @@ public class TruffleRuntimeTest {
         assertTrue(target2 == targets2.get(1) ^ target2Copy == targets2.get(1));
     }
 
+    @Test
+    public void testStackDepth() {
+        final FrameStackDepth stackDepth = runtime.getCapability(FrameStackDepth.class);
+        Assume.assumeNotNull(stackDepth);
+        final int outerDepth = stackDepth.getStackDepth();
+        RootCallTarget inner = runtime.createCallTarget(new RootNode(TestingLanguage.class, null, null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return stackDepth.getStackDepth();
+            }
+        });
+        final DirectCallNode callNode = runtime.createDirectCallNode(inner);
+        RootCallTarget outer = runtime.createCallTarget(new RootNode(TestingLanguage.class, null, null) {
+            @Child DirectCallNode child = callNode;
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return child.call(frame, new Object[0]);
+            }
+        });
+        assertEquals(outerDepth + 1, inner.call());
+        assertEquals(outerDepth + 2, outer.call());
+        assertEquals(outerDepth, stackDepth.getStackDepth());
+    }
+
     private static Map<SourceSection, List<RootCallTarget>> groupUniqueCallTargets() {
         Map<SourceSection, List<RootCallTarget>> groupedTargets = new HashMap<>();
         for (RootCallTarget target : Truffle.getRuntime().getCallTargets()) {
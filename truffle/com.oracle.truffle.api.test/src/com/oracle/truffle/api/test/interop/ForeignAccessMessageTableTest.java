@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012, 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.interop;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.TestingLanguage;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ForeignAccessMessageTableTest implements ForeignAccess.Factory, TruffleObject {
+    private final ForeignAccess fa = ForeignAccess.create(this);
+    private final List<Message> requested = new ArrayList<>();
+
+    @Test
+    public void callTargetRequestedOncePerMessage() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Boolean.TRUE, send(Message.IS_EXECUTABLE));
+            assertEquals(2, send(Message.createExecute(2), 1, 2));
+        }
+        assertEquals("One request per message " + requested, 2, requested.size());
+    }
+
+    @Test
+    public void executeTargetsArePerArity() {
+        assertEquals(0, send(Message.createExecute(0)));
+        assertEquals(1, send(Message.createExecute(1), 1));
+        assertEquals(3, send(Message.createExecute(3), 1, 2, 3));
+        assertEquals(1, send(Message.createExecute(1), 1));
+        assertEquals("One request per arity " + requested, 3, requested.size());
+    }
+
+    private Object send(Message message, Object... args) {
+        Node n = message.createNode();
+        return ForeignAccess.execute(n, null, this, args);
+    }
+
+    @Override
+    public boolean canHandle(TruffleObject obj) {
+        return obj == this;
+    }
+
+    @Override
+    public CallTarget accessMessage(Message tree) {
+        requested.add(tree);
+        if (Message.IS_EXECUTABLE.equals(tree)) {
+            return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(Boolean.TRUE));
+        }
+        return Truffle.getRuntime().createCallTarget(new ArgumentCountNode());
+    }
+
+    @Override
+    public ForeignAccess getForeignAccess() {
+        return fa;
+    }
+
+    private static final class ArgumentCountNode extends RootNode {
+        ArgumentCountNode() {
+            super(TestingLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return ForeignAccess.getArguments(frame).size();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2012, 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.interop;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropCacheStatistics;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InteropCacheStatisticsTest {
+    @Before
+    public void reset() {
+        InteropCacheStatistics.reset();
+    }
+
+    @Test
+    public void monomorphicSite() {
+        Node node = Message.IS_NULL.createNode();
+        Receiver receiver = new Receiver(0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, ForeignAccess.execute(node, null, receiver));
+        }
+        assertEquals(1, InteropCacheStatistics.getSites());
+        assertEquals(0, InteropCacheStatistics.getPolymorphicSites());
+        assertEquals(0, InteropCacheStatistics.getMegamorphicSites());
+        assertEquals(1, InteropCacheStatistics.getCacheSizes()[1]);
+    }
+
+    @Test
+    public void polymorphicSite() {
+        Node node = Message.IS_NULL.createNode();
+        Receiver[] receivers = {new Receiver(0), new Receiver(1), new Receiver(2)};
+        for (int i = 0; i < 3; i++) {
+            for (Receiver receiver : receivers) {
+                assertEquals(receiver.id, ForeignAccess.execute(node, null, receiver));
+            }
+        }
+        assertEquals(1, InteropCacheStatistics.getSites());
+        assertEquals(1, InteropCacheStatistics.getPolymorphicSites());
+        assertEquals(0, InteropCacheStatistics.getMegamorphicSites());
+        long[] sizes = InteropCacheStatistics.getCacheSizes();
+        assertEquals(0, sizes[1]);
+        assertEquals(0, sizes[2]);
+        assertEquals(1, sizes[3]);
+    }
+
+    @Test
+    public void megamorphicSiteResolvesEachReceiverKindOnce() {
+        Node node = Message.IS_NULL.createNode();
+        Receiver[] receivers = new Receiver[20];
+        for (int i = 0; i < receivers.length; i++) {
+            receivers[i] = new Receiver(i);
+        }
+        for (int i = 0; i < 3; i++) {
+            for (Receiver receiver : receivers) {
+                assertEquals(receiver.id, ForeignAccess.execute(node, null, receiver));
+            }
+        }
+        assertEquals(1, InteropCacheStatistics.getSites());
+        assertEquals(1, InteropCacheStatistics.getPolymorphicSites());
+        assertEquals(1, InteropCacheStatistics.getMegamorphicSites());
+        assertEquals(receivers.length, InteropCacheStatistics.getMegamorphicMisses());
+        for (long size : InteropCacheStatistics.getCacheSizes()) {
+            assertEquals(0, size);
+        }
+    }
+
+    @Test
+    public void megamorphicSiteChecksThreadOnHit() throws InterruptedException {
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        Assume.assumeTrue(assertionsEnabled);
+
+        final Node node = Message.IS_NULL.createNode();
+        final Receiver[] receivers = new Receiver[20];
+        for (int i = 0; i < receivers.length; i++) {
+            receivers[i] = new Receiver(i);
+        }
+        for (Receiver receiver : receivers) {
+            ForeignAccess.execute(node, null, receiver);
+        }
+        assertEquals(1, InteropCacheStatistics.getMegamorphicSites());
+
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    ForeignAccess.execute(node, null, receivers[receivers.length - 1]);
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        assertTrue("Using a receiver of another thread fails: " + failure[0], failure[0] instanceof AssertionError);
+    }
+
+    /**
+     * Each instance has a {@link ForeignAccess} of its own, so every one is a new kind of receiver
+     * for a message node.
+     */
+    private static final class Receiver implements TruffleObject, ForeignAccess.Factory {
+        final int id;
+        private final ForeignAccess access = ForeignAccess.create(this);
+
+        Receiver(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public ForeignAccess getForeignAccess() {
+            return access;
+        }
+
+        @Override
+        public boolean canHandle(TruffleObject obj) {
+            return obj == this;
+        }
+
+        @Override
+        public CallTarget accessMessage(Message tree) {
+            return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(id));
+        }
+    }
+}
@@ -23,6 +23,7 @@
 package com.oracle.truffle.api.test.interop;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 
@@ -72,6 +73,9 @@ public class MessageStringTest {
             if ((m.getModifiers() & Modifier.STATIC) == 0) {
                 continue;
             }
+            if (m.getParameterTypes().length != 1) {
+                continue;
+            }
             Message msg = (Message) m.invoke(null, 0);
 
             String persistent = Message.toString(msg);
@@ -87,6 +91,33 @@ public class MessageStringTest {
         }
     }
 
+    @Test
+    public void typedExecuteMessages() {
+        for (Class<?> type : new Class<?>[]{long.class, double.class}) {
+            Message msg = Message.createExecute(2, type);
+
+            String persistent = Message.toString(msg);
+            assertEquals("It is in upper case", persistent, persistent.toUpperCase(Locale.ENGLISH));
+
+            Message newMsg = Message.valueOf(persistent);
+
+            assertEquals("Same for " + type, msg, newMsg);
+            assertEquals("Same toString()", persistent, msg.toString());
+            assertNotEquals("Differs from boxed execute", Message.createExecute(2), msg);
+        }
+        assertNotEquals(Message.createExecute(1, long.class), Message.createExecute(1, double.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typedExecuteOfUnsupportedType() {
+        Message.createExecute(1, int.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typedExecuteOfTooManyArguments() {
+        Message.createExecute(5, long.class);
+    }
+
     @Test
     public void specialMessagePersitance() {
         SpecialMsg msg = new SpecialMsg();
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2012, 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.interop;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.test.TestingLanguage;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class TypedExecuteTest implements ForeignAccess.Factory, TruffleObject {
+    private final ForeignAccess fa = ForeignAccess.create(this);
+    private boolean typed = true;
+    private Object boxedResult;
+
+    @Test
+    public void typedLongTarget() throws UnexpectedResultException {
+        assertEquals(10L, ForeignAccess.executeLong(Message.createExecute(4, long.class).createNode(), null, this, 1, 2, 3, 4));
+        assertEquals(0L, ForeignAccess.executeLong(Message.createExecute(0, long.class).createNode(), null, this));
+    }
+
+    @Test
+    public void typedDoubleTarget() throws UnexpectedResultException {
+        assertEquals(3.5, ForeignAccess.executeDouble(Message.createExecute(2, double.class).createNode(), null, this, 1.25, 2.25), 0.0);
+    }
+
+    @Test
+    public void boxedFallback() throws UnexpectedResultException {
+        typed = false;
+        assertEquals(6L, ForeignAccess.executeLong(Message.createExecute(3, long.class).createNode(), null, this, 1, 2, 3));
+        assertEquals(1.5, ForeignAccess.executeDouble(Message.createExecute(1, double.class).createNode(), null, this, 1.5), 0.0);
+    }
+
+    @Test
+    public void unexpectedResult() {
+        typed = false;
+        boxedResult = "forty-two";
+        try {
+            ForeignAccess.executeLong(Message.createExecute(1, long.class).createNode(), null, this, 42);
+            fail("String is not a long");
+        } catch (UnexpectedResultException ex) {
+            assertEquals("forty-two", ex.getResult());
+        }
+    }
+
+    @Override
+    public boolean canHandle(TruffleObject obj) {
+        return obj == this;
+    }
+
+    @Override
+    public CallTarget accessMessage(Message tree) {
+        if (Message.createExecute(0, long.class).equals(tree)) {
+            return typed ? Truffle.getRuntime().createCallTarget(new TypedSumNode(true)) : null;
+        }
+        if (Message.createExecute(0, double.class).equals(tree)) {
+            return typed ? Truffle.getRuntime().createCallTarget(new TypedSumNode(false)) : null;
+        }
+        if (Message.createExecute(0).equals(tree)) {
+            return Truffle.getRuntime().createCallTarget(new BoxedSumNode(this));
+        }
+        throw new IllegalArgumentException(tree.toString());
+    }
+
+    @Override
+    public ForeignAccess getForeignAccess() {
+        return fa;
+    }
+
+    private static final class TypedSumNode extends RootNode {
+        private final boolean isLong;
+
+        TypedSumNode(boolean isLong) {
+            super(TestingLanguage.class, null, null);
+            this.isLong = isLong;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            if (isLong) {
+                long sum = 0;
+                for (long value : ForeignAccess.getLongArguments(frame)) {
+                    sum += value;
+                }
+                return sum;
+            }
+            double sum = 0;
+            for (double value : ForeignAccess.getDoubleArguments(frame)) {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+
+    private static final class BoxedSumNode extends RootNode {
+        private final TypedExecuteTest test;
+
+        BoxedSumNode(TypedExecuteTest test) {
+            super(TestingLanguage.class, null, null);
+            this.test = test;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            if (test.boxedResult != null) {
+                return test.boxedResult;
+            }
+            List<Object> args = ForeignAccess.getArguments(frame);
+            if (!args.isEmpty() && args.get(0) instanceof Double) {
+                double sum = 0;
+                for (Object value : args) {
+                    sum += (Double) value;
+                }
+                return sum;
+            }
+            long sum = 0;
+            for (Object value : args) {
+                assertTrue("Boxed long " + value, value instanceof Long);
+                sum += (Long) value;
+            }
+            return sum;
+        }
+    }
+}
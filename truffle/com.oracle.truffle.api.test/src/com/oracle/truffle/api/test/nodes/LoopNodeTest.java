@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.nodes;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.LoopCountReceiver;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.impl.DefaultLoopNode;
+import com.oracle.truffle.api.impl.DefaultTruffleRuntime;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.TestingLanguage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests that loops created by {@link TruffleRuntime#createLoopNode(RepeatingNode)} report their
+ * iterations to the {@link LoopCountReceiver}s above them.
+ */
+public class LoopNodeTest {
+
+    @Test
+    public void testLoopCountIsReported() {
+        CountingRootNode root = new CountingRootNode(12345);
+        Truffle.getRuntime().createCallTarget(root).call();
+        assertEquals(12345, root.receiver.count);
+        assertEquals(12345, root.repeating.executed - 1);
+    }
+
+    @Test
+    public void testOSRHandler() {
+        Assume.assumeTrue(Truffle.getRuntime() instanceof DefaultTruffleRuntime);
+        DefaultTruffleRuntime runtime = (DefaultTruffleRuntime) Truffle.getRuntime();
+        final int[] offered = new int[1];
+        runtime.setOSRHandler(new DefaultLoopNode.OSRHandler() {
+            public boolean executeLoop(LoopNode loop, VirtualFrame frame) {
+                offered[0]++;
+                RepeatingNode repeating = loop.getRepeatingNode();
+                while (repeating.executeRepeating(frame)) {
+                    // execute the rest of the loop
+                }
+                return true;
+            }
+        });
+        try {
+            CountingRootNode root = new CountingRootNode(1000000);
+            CallTarget target = runtime.createCallTarget(root);
+            target.call();
+            assertEquals(1, offered[0]);
+            assertEquals(1000000, root.repeating.executed - 1);
+        } finally {
+            runtime.setOSRHandler(null);
+        }
+        assertSame(null, runtime.getOSRHandler());
+    }
+
+    private static final class CountingRootNode extends RootNode {
+
+        @Child ReceiverNode receiver;
+        final CountingRepeatingNode repeating;
+
+        CountingRootNode(int iterations) {
+            super(TestingLanguage.class, null, null);
+            this.repeating = new CountingRepeatingNode(iterations);
+            this.receiver = new ReceiverNode(Truffle.getRuntime().createLoopNode(repeating));
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            receiver.loop.executeLoop(frame);
+            return null;
+        }
+    }
+
+    private static final class ReceiverNode extends Node implements LoopCountReceiver {
+
+        @Child LoopNode loop;
+        long count;
+
+        ReceiverNode(LoopNode loop) {
+            this.loop = loop;
+        }
+
+        public void reportLoopCount(int iterations) {
+            count += iterations;
+        }
+    }
+
+    private static final class CountingRepeatingNode extends Node implements RepeatingNode {
+
+        private final int iterations;
+        int executed;
+
+        CountingRepeatingNode(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public boolean executeRepeating(VirtualFrame frame) {
+            return executed++ < iterations;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013, 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.source;
+
+import com.oracle.truffle.api.source.ContentHashCache;
+import com.oracle.truffle.api.source.Source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class ContentHashCacheTest {
+    @Test
+    public void sameTextDifferentName() {
+        ContentHashCache<String> cache = new ContentHashCache<>(4);
+        Source s1 = Source.fromText("function main() {}", "first").withMimeType("text/x-test");
+        Source s2 = Source.fromNamedText("function main() {}", "second").withMimeType("text/x-test");
+        assertNull(cache.get(s1));
+        cache.put(s1, "parsed");
+        assertEquals("parsed", cache.get(s2));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void differentTextOrMimeType() {
+        ContentHashCache<String> cache = new ContentHashCache<>(4);
+        cache.put(Source.fromText("a", "a").withMimeType("text/x-test"), "a");
+        assertNull(cache.get(Source.fromText("b", "a").withMimeType("text/x-test")));
+        assertNull(cache.get(Source.fromText("a", "a").withMimeType("text/x-other")));
+        assertNull(cache.get(Source.fromText("a", "a")));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ContentHashCache<Integer> cache = new ContentHashCache<>(2);
+        Source s0 = Source.fromText("0", "s");
+        Source s1 = Source.fromText("1", "s");
+        Source s2 = Source.fromText("2", "s");
+        cache.put(s0, 0);
+        cache.put(s1, 1);
+        assertEquals(Integer.valueOf(0), cache.get(s0));
+        cache.put(s2, 2);
+        assertEquals(2, cache.size());
+        assertEquals(Integer.valueOf(0), cache.get(s0));
+        assertNull(cache.get(s1));
+        assertEquals(Integer.valueOf(2), cache.get(s2));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
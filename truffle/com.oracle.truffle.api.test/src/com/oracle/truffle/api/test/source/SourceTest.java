@@ -23,14 +23,20 @@
 package com.oracle.truffle.api.test.source;
 
 import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 public class SourceTest {
@@ -101,6 +107,107 @@ public class SourceTest {
         assertNotEquals("So they are different", s1, s2);
     }
 
+    @Test
+    public void assignMimeTypeAndIdentityForMappedFile() throws IOException {
+        File file = File.createTempFile("Hello", ".java");
+        file.deleteOnExit();
+
+        String text;
+        try (FileWriter w = new FileWriter(file)) {
+            text = "// Hello";
+            w.write(text);
+        }
+
+        Source s1 = Source.fromMappedFile(file.getPath()).withMimeType("text/x-java");
+        assertEquals("Recognized as Java", "text/x-java", s1.getMimeType());
+        Source s2 = s1.withMimeType("text/x-c");
+        assertEquals("They have the same content", s1.getCode(), s2.getCode());
+        assertEquals("// Hello", s1.getCode());
+        assertNotEquals("But different type", s1.getMimeType(), s2.getMimeType());
+        assertNotEquals("So they are different", s1, s2);
+    }
+
+    @Test
+    public void mappedFileLinesAndSections() throws IOException {
+        File file = File.createTempFile("Lines", ".txt");
+        file.deleteOnExit();
+        String text = "first\nzw\u00f6lf \u20ac\nlast";
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+
+        Source source = Source.fromMappedFile(file.getPath());
+        assertEquals(text, source.getCharacters().toString());
+        assertEquals(text.length(), source.getLength());
+        assertEquals(3, source.getLineCount());
+        assertEquals("zw\u00f6lf \u20ac", source.getCode(2));
+
+        SourceSection section = source.createSection("euro", text.indexOf('\u20ac'), 1);
+        assertEquals(2, section.getStartLine());
+        assertEquals(7, section.getStartColumn());
+        assertEquals("\u20ac", section.getCode());
+
+        char[] buffer = new char[text.length()];
+        try (Reader reader = source.getReader()) {
+            assertEquals(text.length(), reader.read(buffer));
+        }
+        assertEquals(text, new String(buffer));
+        assertEquals(text, source.getCode());
+    }
+
+    @Test
+    public void mappedFileLargeUTF8() throws IOException {
+        File file = File.createTempFile("Large", ".txt");
+        file.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 100000) {
+            sb.append("line ").append(sb.length()).append(" \u00e4\u20ac\n");
+        }
+        String text = sb.toString();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+
+        Source source = Source.fromMappedFile(file.getPath());
+        CharSequence characters = source.getCharacters();
+        assertSame("View is cached", characters, source.getCharacters());
+        assertEquals(text, characters.toString());
+        assertEquals(text.substring(70000, 70010), characters.subSequence(70000, 70010).toString());
+    }
+
+    @Test
+    public void mappedFileASCII() throws IOException {
+        File file = File.createTempFile("Ascii", ".txt");
+        file.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 100000) {
+            sb.append("line ").append(sb.length()).append('\n');
+        }
+        String text = sb.toString();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+
+        Source source = Source.fromMappedFile(file.getPath());
+        CharSequence characters = source.getCharacters();
+        assertFalse("Served from the mapping", characters instanceof String);
+        assertSame("View is cached", characters, source.getCharacters());
+        assertEquals(text.length(), characters.length());
+        assertEquals(text.charAt(54321), characters.charAt(54321));
+        assertEquals(text.substring(70000, 70010), characters.subSequence(70000, 70010).toString());
+        assertEquals(text, characters.toString());
+        assertEquals(text.split("\n")[1], source.getCode(2));
+        char[] buffer = new char[text.length()];
+        try (Reader reader = source.getReader()) {
+            int read = 0;
+            int count;
+            while ((count = reader.read(buffer, read, buffer.length - read)) > 0) {
+                read += count;
+            }
+            assertEquals(text.length(), read);
+        }
+        assertEquals(text, new String(buffer));
+
+        String changed = "changed \u00e4\n";
+        Files.write(file.toPath(), changed.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertEquals(changed, source.getCharacters().toString());
+    }
+
     @Test
     public void assignMimeTypeAndIdentityForVirtualFile() throws IOException {
         File file = File.createTempFile("Hello", ".java");
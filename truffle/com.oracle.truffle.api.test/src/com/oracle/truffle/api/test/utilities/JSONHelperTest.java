@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.utilities;
+
+import com.oracle.truffle.api.utilities.JSONHelper;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class JSONHelperTest {
+
+    @Test
+    public void testObject() {
+        String json = JSONHelper.object().add("int", 42).add("long", 1L << 40).add("double", 1.5).add("boolean", true).add("string", "a\"b").toString();
+        assertEquals("{\"int\": 42, \"long\": 1099511627776, \"double\": \"1.5\", \"boolean\": true, \"string\": \"a\\\"b\"}", json);
+    }
+
+    @Test
+    public void testArray() {
+        String json = JSONHelper.array().add(Long.MIN_VALUE).add(-1).add(JSONHelper.object().add("nested", 0L)).add("x").toString();
+        assertEquals("[-9223372036854775808, -1, {\"nested\": 0}, \"x\"]", json);
+    }
+}
@@ -36,7 +36,14 @@ import com.oracle.truffle.api.nodes.RootNode;
 import java.io.IOException;
 import java.util.Objects;
 
-final class EngineTruffleObject implements TruffleObject, ForeignAccess.Factory {
+final class EngineTruffleObject implements TruffleObject {
+    private static final ThreadLocal<ForeignAccess> ACCESS = new ThreadLocal<ForeignAccess>() {
+        @Override
+        protected ForeignAccess initialValue() {
+            return ForeignAccess.create(new EngineForeignAccess());
+        }
+    };
+
     private final PolyglotEngine engine;
     private final TruffleObject delegate;
 
@@ -47,23 +54,13 @@ final class EngineTruffleObject implements TruffleObject, ForeignAccess.Factory
 
     @Override
     public ForeignAccess getForeignAccess() {
-        return ForeignAccess.create(this);
+        return ACCESS.get();
     }
 
     TruffleObject getDelegate() {
         return delegate;
     }
 
-    @Override
-    public boolean canHandle(TruffleObject obj) {
-        return true;
-    }
-
-    @Override
-    public CallTarget accessMessage(Message tree) {
-        return Truffle.getRuntime().createCallTarget(new WrappingRoot(TruffleLanguage.class, tree.createNode()));
-    }
-
     @Override
     public int hashCode() {
         int hash = 7;
@@ -89,20 +86,34 @@ final class EngineTruffleObject implements TruffleObject, ForeignAccess.Factory
         return delegate.toString();
     }
 
+    private static final class EngineForeignAccess implements ForeignAccess.Factory {
+        @Override
+        public boolean canHandle(TruffleObject obj) {
+            return obj instanceof EngineTruffleObject;
+        }
+
+        @Override
+        public CallTarget accessMessage(Message tree) {
+            return Truffle.getRuntime().createCallTarget(new WrappingRoot(TruffleLanguage.class, tree));
+        }
+    }
+
     static class WrappingRoot extends RootNode {
+        private final Message message;
         @Child private Node foreignAccess;
 
         @SuppressWarnings("rawtypes")
-        public WrappingRoot(Class<? extends TruffleLanguage> lang, Node foreignAccess) {
+        public WrappingRoot(Class<? extends TruffleLanguage> lang, Message message) {
             super(lang, null, null);
-            this.foreignAccess = foreignAccess;
+            this.message = message;
+            this.foreignAccess = message.createNode();
         }
 
         @Override
         public Object execute(VirtualFrame frame) {
             EngineTruffleObject engineTruffleObject = (EngineTruffleObject) ForeignAccess.getReceiver(frame);
             try {
-                return engineTruffleObject.engine.invokeForeign(foreignAccess, frame, engineTruffleObject.delegate);
+                return engineTruffleObject.engine.invokeForeign(message, foreignAccess, frame, engineTruffleObject.delegate);
             } catch (IOException ex) {
                 throw new IllegalArgumentException(ex);
             }
@@ -56,6 +56,7 @@ import com.oracle.truffle.api.impl.Accessor;
 import com.oracle.truffle.api.instrument.Instrumenter;
 import com.oracle.truffle.api.instrument.Probe;
 import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.java.JavaInterop;
 import com.oracle.truffle.api.nodes.Node;
@@ -428,7 +429,7 @@ public class PolyglotEngine {
     }
 
     @SuppressWarnings("try")
-    final Object invokeForeign(final Node foreignNode, VirtualFrame frame, final TruffleObject receiver) throws IOException {
+    final Object invokeForeign(final Message message, final Node foreignNode, VirtualFrame frame, final TruffleObject receiver) throws IOException {
         Object res;
         if (executor == null) {
             try (final Closeable c = SPI.executionStart(PolyglotEngine.this, -1, debugger, null)) {
@@ -436,7 +437,7 @@ public class PolyglotEngine {
                 res = ForeignAccess.execute(foreignNode, frame, receiver, args);
             }
         } else {
-            res = invokeForeignOnExecutor(foreignNode, frame, receiver);
+            res = invokeForeignOnExecutor(message, frame, receiver);
         }
         if (res instanceof TruffleObject) {
             return new EngineTruffleObject(this, (TruffleObject) res);
@@ -445,8 +446,12 @@ public class PolyglotEngine {
         }
     }
 
+    /**
+     * The message is sent by a node of its own, as the caller's node may be shared with other
+     * threads and {@link ForeignAccess} must only be used by the thread that created it.
+     */
     @TruffleBoundary
-    private Object invokeForeignOnExecutor(final Node foreignNode, VirtualFrame frame, final TruffleObject receiver) throws IOException {
+    private Object invokeForeignOnExecutor(final Message message, VirtualFrame frame, final TruffleObject receiver) throws IOException {
         final MaterializedFrame materialized = frame.materialize();
         ComputeInExecutor<Object> compute = new ComputeInExecutor<Object>(executor) {
             @SuppressWarnings("try")
@@ -454,7 +459,7 @@ public class PolyglotEngine {
             protected Object compute() throws IOException {
                 try (final Closeable c = SPI.executionStart(PolyglotEngine.this, -1, debugger, null)) {
                     final Object[] args = ForeignAccess.getArguments(materialized).toArray();
-                    RootNode node = SymbolInvokerImpl.createTemporaryRoot(TruffleLanguage.class, foreignNode, receiver, args.length);
+                    RootNode node = SymbolInvokerImpl.createTemporaryRoot(TruffleLanguage.class, message.createNode(), receiver, args.length);
                     final CallTarget target = Truffle.getRuntime().createCallTarget(node);
                     return target.call(args);
                 }
@@ -24,6 +24,7 @@
  */
 package com.oracle.truffle.api;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -436,6 +437,21 @@ public abstract class TruffleLanguage<C> {
         public Instrumenter instrumenter() {
             return instrumenter;
         }
+
+        /**
+         * Makes the {@link com.oracle.truffle.api.vm.PolyglotEngine} this language is being
+         * executed in the current engine of the calling thread, until the returned
+         * {@link Closeable} is closed. Languages that execute code on threads they create
+         * themselves, for example on the workers of a thread pool, have to enter the engine on
+         * those threads first, otherwise {@link TruffleLanguage#findContext(Node)} cannot find
+         * their context there. Unlike executions started by the engine, entering it does not
+         * notify the debugger.
+         *
+         * @return closeable that restores the previous engine of the calling thread
+         */
+        public Closeable enter() {
+            return API.enterVM(vm);
+        }
     }
 
     private static final AccessAPI API = new AccessAPI();
@@ -453,6 +469,11 @@ public abstract class TruffleLanguage<C> {
             return super.importSymbol(vm, queryingLang, globalName);
         }
 
+        @Override
+        protected Closeable enterVM(Object vm) {
+            return super.enterVM(vm);
+        }
+
         @Override
         protected CallTarget parse(TruffleLanguage<?> truffleLanguage, Source code, Node context, String... argumentNames) throws IOException {
             return truffleLanguage.parse(code, context, argumentNames);
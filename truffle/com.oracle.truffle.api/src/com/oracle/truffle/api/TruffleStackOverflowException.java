@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api;
+
+/**
+ * Thrown by a {@link TruffleRuntime} when a call would exceed the maximum depth of the Truffle call
+ * stack that the runtime is configured with. Unlike a {@link StackOverflowError} of the host VM,
+ * the exception is thrown before the callee is entered, while the Java stack still has room to
+ * handle it, so languages can catch it and report a guest language stack overflow.
+ */
+public class TruffleStackOverflowException extends RuntimeException {
+
+    private final int maxDepth;
+
+    public TruffleStackOverflowException(int maxDepth) {
+        super(String.format("Maximum Truffle stack depth of %d exceeded.", maxDepth));
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Returns the maximum number of nested calls that was exceeded.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private static final long serialVersionUID = 4270318395207546383L;
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Common base class of the frames created by the {@link DefaultTruffleRuntime}. Frames can be
+ * {@link #reset(FrameDescriptor, Object[]) reused} for another activation as long as they did not
+ * escape.
+ */
+abstract class AbstractDefaultFrame implements VirtualFrame {
+
+    private boolean escaped;
+
+    /**
+     * Prepares a frame that is not in use anymore for another activation. The slot arrays are
+     * reused if they are large enough.
+     */
+    abstract void reset(FrameDescriptor newDescriptor, Object[] newArguments);
+
+    /**
+     * Drops all references held by a frame whose activation has ended, unless the frame escaped.
+     */
+    abstract void clear();
+
+    /**
+     * Marks this frame as reachable from outside its activation. An escaped frame is never reused.
+     */
+    final void markEscaped() {
+        escaped = true;
+    }
+
+    final boolean isEscaped() {
+        return escaped;
+    }
+
+    @Override
+    public final MaterializedFrame materialize() {
+        escaped = true;
+        return new DefaultMaterializedFrame(this);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.RootCallTarget;
+
+/**
+ * A device that executes {@link RootCallTarget}s as data-parallel kernels, see
+ * {@link DefaultTruffleRuntime#executeKernel(RootCallTarget, Object[][])}. Kernels are identified
+ * by the ID that the runtime assigns to a call target with
+ * {@link RootCallTarget#generateIDForOpenCL()}. The runtime installs a kernel once per ID and
+ * invalidates it as soon as the AST of its call target is rewritten, so a backend may cache
+ * whatever it generated for an ID until {@link #invalidate(long)} is called.
+ */
+public interface AcceleratorBackend {
+
+    /**
+     * Prepares the kernel for the given call target. Called at most once per ID and backend unless
+     * the ID was invalidated in the meantime.
+     */
+    void install(long kernelID, RootCallTarget target);
+
+    /**
+     * Discards the kernel cached for an ID. The ID is not used again for another AST.
+     */
+    void invalidate(long kernelID);
+
+    /**
+     * Executes an installed kernel once for each work item.
+     *
+     * @param kernelID the ID of an installed kernel
+     * @param workItems the call arguments of every work item
+     * @return the results of the work items in the order of {@code workItems}
+     * @throws IllegalStateException if no kernel is installed for the ID
+     */
+    Object[] execute(long kernelID, Object[][] workItems);
+}
@@ -266,8 +266,9 @@ public abstract class Accessor {
         return DEBUG.createDebugger(vm, instrumenter);
     }
 
-    private static Reference<Object> previousVM = new WeakReference<>(null);
-    private static Assumption oneVM = Truffle.getRuntime().createAssumption();
+    private static final Object ONE_VM_LOCK = new Object();
+    private static volatile Reference<Object> previousVM = new WeakReference<>(null);
+    private static volatile Assumption oneVM = Truffle.getRuntime().createAssumption();
 
     @TruffleBoundary
     @SuppressWarnings("unused")
@@ -275,12 +276,7 @@ public abstract class Accessor {
         vm.getClass();
         final Object prev = CURRENT_VM.get();
         final Closeable debugClose = DEBUG.executionStart(vm, prev == null ? 0 : -1, debugger, s);
-        if (!(vm == previousVM.get())) {
-            previousVM = new WeakReference<>(vm);
-            oneVM.invalidate();
-            oneVM = Truffle.getRuntime().createAssumption();
-
-        }
+        checkOneVM(vm);
         CURRENT_VM.set(vm);
         class ContextCloseable implements Closeable {
             @TruffleBoundary
@@ -293,6 +289,44 @@ public abstract class Accessor {
         return new ContextCloseable();
     }
 
+    /**
+     * Makes {@code vm} the current virtual machine of the calling thread, without notifying the
+     * debugger about a started execution.
+     */
+    @TruffleBoundary
+    protected Closeable enterVM(Object vm) {
+        vm.getClass();
+        final Object prev = CURRENT_VM.get();
+        checkOneVM(vm);
+        CURRENT_VM.set(vm);
+        class EnteredCloseable implements Closeable {
+            @TruffleBoundary
+            @Override
+            public void close() throws IOException {
+                CURRENT_VM.set(prev);
+            }
+        }
+        return new EnteredCloseable();
+    }
+
+    /**
+     * Invalidates the {@link #oneVMAssumption() one VM assumption} when {@code vm} differs from the
+     * previously entered virtual machine. Kernel work items enter the VM from several threads, so
+     * the check is repeated under a lock; {@link #previousVM} is published last, so a thread that
+     * sees its own VM there also sees the old assumption invalidated.
+     */
+    private static void checkOneVM(Object vm) {
+        if (vm != previousVM.get()) {
+            synchronized (ONE_VM_LOCK) {
+                if (vm != previousVM.get()) {
+                    oneVM.invalidate();
+                    oneVM = Truffle.getRuntime().createAssumption();
+                    previousVM = new WeakReference<>(vm);
+                }
+            }
+        }
+    }
+
     protected void dispatchEvent(Object vm, Object event) {
         SPI.dispatchEvent(vm, event);
     }
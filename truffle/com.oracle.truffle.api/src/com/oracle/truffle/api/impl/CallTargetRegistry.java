@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.RootCallTarget;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Weakly references the call targets created by the {@link DefaultTruffleRuntime}. Registration
+ * and {@link #snapshot() snapshots} never block each other: targets are kept in a concurrent map
+ * under identity-based weak keys, and keys of collected targets are purged through a reference
+ * queue whenever a new target is registered.
+ */
+final class CallTargetRegistry {
+
+    private final ConcurrentMap<TargetReference, Boolean> targets = new ConcurrentHashMap<>();
+    private final ReferenceQueue<RootCallTarget> queue = new ReferenceQueue<>();
+
+    void register(RootCallTarget target) {
+        expungeStaleEntries();
+        targets.put(new TargetReference(target, queue), Boolean.TRUE);
+    }
+
+    /**
+     * Returns the call targets that are still referenced. The result is a copy and is not updated
+     * by later registrations.
+     */
+    List<RootCallTarget> snapshot() {
+        List<RootCallTarget> result = new ArrayList<>(targets.size());
+        for (TargetReference reference : targets.keySet()) {
+            RootCallTarget target = reference.get();
+            if (target != null) {
+                result.add(target);
+            }
+        }
+        return result;
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends RootCallTarget> reference;
+        while ((reference = queue.poll()) != null) {
+            targets.remove(reference);
+        }
+    }
+
+    /**
+     * A weak reference that compares by the identity of its referent. A cleared reference is only
+     * equal to itself, so it can still be removed from the map after its target was collected.
+     */
+    private static final class TargetReference extends WeakReference<RootCallTarget> {
+
+        private final int hash;
+
+        TargetReference(RootCallTarget target, ReferenceQueue<RootCallTarget> queue) {
+            super(target, queue);
+            this.hash = System.identityHashCode(target);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof TargetReference)) {
+                return false;
+            }
+            Object target = get();
+            return target != null && target == ((TargetReference) obj).get();
+        }
+    }
+}
@@ -24,27 +24,38 @@
  */
 package com.oracle.truffle.api.impl;
 
-import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.LoopCountReceiver;
+import com.oracle.truffle.api.ReplaceObserver;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleRuntime;
-import com.oracle.truffle.api.frame.Frame;
-import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.utilities.StripedCounter;
 
 /**
  * This is an implementation-specific class. Do not use or instantiate it. Instead, use
  * {@link TruffleRuntime#createCallTarget(RootNode)} to create a {@link RootCallTarget}.
  */
-public class DefaultCallTarget implements RootCallTarget {
+public class DefaultCallTarget implements RootCallTarget, LoopCountReceiver, ReplaceObserver {
 
     private final RootNode rootNode;
+    private long loopCount;
+    private final StripedCounter callCount;
+    private final StripedCounter interpreterTime;
+    private volatile long openCLID = OCL_INIT;
 
     protected DefaultCallTarget(RootNode function) {
         this.rootNode = function;
         this.rootNode.adoptChildren();
         this.rootNode.applyInstrumentation();
+        if (DefaultRuntimeOptions.ProfileCalls) {
+            this.callCount = new StripedCounter();
+            this.interpreterTime = new StripedCounter();
+        } else {
+            this.callCount = null;
+            this.interpreterTime = null;
+        }
     }
 
     @Override
@@ -58,54 +69,110 @@ public class DefaultCallTarget implements RootCallTarget {
 
     @Override
     public Object call(Object... args) {
-        final DefaultVirtualFrame frame = new DefaultVirtualFrame(getRootNode().getFrameDescriptor(), args);
-        FrameInstance oldCurrentFrame = defaultTruffleRuntime().setCurrentFrame(new FrameInstance() {
-
-            public Frame getFrame(FrameAccess access, boolean slowPath) {
-                if (access == FrameAccess.MATERIALIZE) {
-                    return new DefaultMaterializedFrame(frame);
-                }
-                return frame;
-            }
-
-            public boolean isVirtualFrame() {
-                return false;
-            }
+        if (callCount != null) {
+            return profiledCall(args);
+        }
+        return doCall(args);
+    }
 
-            public Node getCallNode() {
-                return null;
-            }
+    private Object profiledCall(Object[] args) {
+        callCount.increment();
+        final long start = System.nanoTime();
+        try {
+            return doCall(args);
+        } finally {
+            interpreterTime.add(System.nanoTime() - start);
+        }
+    }
 
-            public CallTarget getCallTarget() {
-                return DefaultCallTarget.this;
-            }
-        });
+    private Object doCall(Object[] args) {
+        final DefaultFrameStack stack = defaultTruffleRuntime().getFrameStack();
+        final AbstractDefaultFrame frame = stack.enter(this, getRootNode().getFrameDescriptor(), args);
         try {
             return getRootNode().execute(frame);
         } finally {
-            defaultTruffleRuntime().setCurrentFrame(oldCurrentFrame);
+            stack.exit();
         }
     }
 
+    @Override
+    public void reportLoopCount(int count) {
+        loopCount += count;
+    }
+
+    /**
+     * Returns the number of loop iterations reported by the loops of this call target. The count
+     * is not synchronized and is only meant as a profiling hint.
+     */
+    public final long getLoopCount() {
+        return loopCount;
+    }
+
+    /**
+     * Returns the number of times this call target was called, or zero if call profiling is
+     * disabled. Calls from different threads are counted without contention.
+     */
+    public final long getCallCount() {
+        return callCount == null ? 0 : callCount.get();
+    }
+
+    /**
+     * Returns the time in nanoseconds spent executing this call target including its callees, or
+     * zero if call profiling is disabled. Recursive calls are counted once per activation.
+     */
+    public final long getInterpreterTime() {
+        return interpreterTime == null ? 0 : interpreterTime.get();
+    }
+
     private static DefaultTruffleRuntime defaultTruffleRuntime() {
         return (DefaultTruffleRuntime) Truffle.getRuntime();
     }
 
+    /**
+     * Assigns a kernel ID to this call target unless it already has one. The ID stays the same
+     * until a node of the AST is replaced; after that a new ID is generated.
+     */
     public void generateIDForOpenCL() {
+        if (openCLID == OCL_INIT) {
+            synchronized (this) {
+                if (openCLID == OCL_INIT) {
+                    openCLID = defaultTruffleRuntime().getOpenCLKernels().register(this);
+                }
+            }
+        }
     }
 
     @Override
     public long getIDForOpenCL() {
-        return RootCallTarget.OCL_INIT;
+        return openCLID;
     }
 
     @Override
-    public void resetIDForOpenCL() {
-        // empty
+    public synchronized void resetIDForOpenCL() {
+        long id = openCLID;
+        if (id != OCL_INIT) {
+            openCLID = OCL_INIT;
+            defaultTruffleRuntime().getOpenCLKernels().unregister(id);
+        }
     }
 
+    /**
+     * Moves this call target to the given kernel ID, or releases its ID if the given one is
+     * {@link #OCL_INIT}.
+     *
+     * @throws IllegalStateException if another call target owns the ID
+     */
     @Override
-    public void setIDForOpenCL(long id) {
-        // empty
+    public synchronized void setIDForOpenCL(long id) {
+        defaultTruffleRuntime().getOpenCLKernels().reassign(this, openCLID, id);
+        openCLID = id;
+    }
+
+    public boolean nodeReplaced(Node oldNode, Node newNode, CharSequence reason) {
+        // kernels generated for the old AST are stale
+        if (openCLID != OCL_INIT) {
+            resetIDForOpenCL();
+        }
+        return false;
     }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.TruffleStackOverflowException;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.nodes.Node;
+import java.util.Arrays;
+
+/**
+ * Per-thread call stack of the {@link DefaultTruffleRuntime}. Every level of the stack belongs to
+ * one {@link DefaultCallTarget#call(Object...) call}. The stack is backed by arrays that only grow,
+ * so pushing and popping an activation does not allocate. {@link FrameInstance}s are only created
+ * when the stack is inspected.
+ * <p>
+ * If {@link DefaultRuntimeOptions#ReuseFrames} is enabled, each level keeps its frame for reuse by
+ * later calls at the same depth.
+ */
+final class DefaultFrameStack {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final DefaultTruffleRuntime runtime;
+    private final boolean reuseFrames;
+    private final int maxDepth;
+    private AbstractDefaultFrame[] frames;
+    private CallTarget[] targets;
+    private Node[] callNodes;
+    private Frame[] callerFrames;
+    private int depth;
+
+    DefaultFrameStack(DefaultTruffleRuntime runtime, boolean reuseFrames, int maxDepth) {
+        this.runtime = runtime;
+        this.reuseFrames = reuseFrames;
+        this.maxDepth = maxDepth;
+        int capacity = maxDepth > 0 ? Math.min(INITIAL_CAPACITY, maxDepth) : INITIAL_CAPACITY;
+        this.frames = new AbstractDefaultFrame[capacity];
+        this.targets = new CallTarget[capacity];
+        this.callNodes = new Node[capacity];
+        this.callerFrames = new Frame[capacity];
+    }
+
+    AbstractDefaultFrame enter(CallTarget target, FrameDescriptor descriptor, Object[] arguments) {
+        final int level = depth;
+        if (level == frames.length) {
+            grow();
+        }
+        AbstractDefaultFrame frame = frames[level];
+        if (frame == null || frame.isEscaped() || !reuseFrames) {
+            frame = runtime.createFrame(descriptor, arguments);
+            frames[level] = frame;
+        } else {
+            frame.reset(descriptor, arguments);
+        }
+        targets[level] = target;
+        depth = level + 1;
+        return frame;
+    }
+
+    void exit() {
+        final int level = --depth;
+        if (reuseFrames) {
+            frames[level].clear();
+        } else {
+            frames[level] = null;
+        }
+        targets[level] = null;
+    }
+
+    /**
+     * Returns the number of activations on this stack.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Records that the activation on top of the stack is about to call another target through
+     * {@code callNode}.
+     */
+    void enterCall(Node callNode, Frame callerFrame) {
+        if (depth > 0) {
+            callNodes[depth - 1] = callNode;
+            callerFrames[depth - 1] = callerFrame;
+        }
+    }
+
+    void exitCall() {
+        if (depth > 0) {
+            callNodes[depth - 1] = null;
+            callerFrames[depth - 1] = null;
+        }
+    }
+
+    FrameInstance getCurrentFrame() {
+        if (depth == 0) {
+            return null;
+        }
+        return new CurrentFrameInstance(frames[depth - 1], targets[depth - 1]);
+    }
+
+    FrameInstance getCallerFrame() {
+        for (int level = depth - 1; level >= 0; level--) {
+            if (callNodes[level] != null) {
+                return new CallerFrameInstance(callerFrames[level], callNodes[level], targets[level]);
+            }
+        }
+        return null;
+    }
+
+    <T> T iterateFrames(FrameInstanceVisitor<T> visitor) {
+        T result = null;
+        for (int level = depth - 1; level >= 0; level--) {
+            if (callNodes[level] != null) {
+                result = visitor.visitFrame(new CallerFrameInstance(callerFrames[level], callNodes[level], targets[level]));
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        int newCapacity = frames.length * 2;
+        if (maxDepth > 0) {
+            if (frames.length >= maxDepth) {
+                throw new TruffleStackOverflowException(maxDepth);
+            }
+            newCapacity = Math.min(newCapacity, maxDepth);
+        }
+        frames = Arrays.copyOf(frames, newCapacity);
+        targets = Arrays.copyOf(targets, newCapacity);
+        callNodes = Arrays.copyOf(callNodes, newCapacity);
+        callerFrames = Arrays.copyOf(callerFrames, newCapacity);
+    }
+
+    static Frame escape(Frame frame) {
+        if (frame instanceof AbstractDefaultFrame) {
+            ((AbstractDefaultFrame) frame).markEscaped();
+        }
+        return frame;
+    }
+
+    private static final class CurrentFrameInstance implements FrameInstance {
+        private final AbstractDefaultFrame frame;
+        private final CallTarget target;
+
+        CurrentFrameInstance(AbstractDefaultFrame frame, CallTarget target) {
+            this.frame = frame;
+            this.target = target;
+        }
+
+        public Frame getFrame(FrameAccess access, boolean slowPath) {
+            if (access == FrameAccess.MATERIALIZE) {
+                return frame.materialize();
+            }
+            return escape(frame);
+        }
+
+        public boolean isVirtualFrame() {
+            return false;
+        }
+
+        public Node getCallNode() {
+            return null;
+        }
+
+        public CallTarget getCallTarget() {
+            return target;
+        }
+    }
+
+    private static final class CallerFrameInstance implements FrameInstance {
+        private final Frame frame;
+        private final Node callNode;
+        private final CallTarget target;
+
+        CallerFrameInstance(Frame frame, Node callNode, CallTarget target) {
+            this.frame = frame;
+            this.callNode = callNode;
+            this.target = target;
+        }
+
+        public Frame getFrame(FrameAccess access, boolean slowPath) {
+            return escape(frame);
+        }
+
+        public boolean isVirtualFrame() {
+            return false;
+        }
+
+        public Node getCallNode() {
+            return callNode;
+        }
+
+        public CallTarget getCallTarget() {
+            return target;
+        }
+    }
+}
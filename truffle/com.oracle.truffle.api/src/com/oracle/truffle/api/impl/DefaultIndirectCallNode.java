@@ -26,42 +26,21 @@ package com.oracle.truffle.api.impl;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.Truffle;
-import com.oracle.truffle.api.frame.Frame;
-import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
-import com.oracle.truffle.api.nodes.Node;
 
 /**
  * This is runtime specific API. Do not use in a guest language.
  */
 final class DefaultIndirectCallNode extends IndirectCallNode {
     @Override
-    public Object call(final VirtualFrame frame, final CallTarget target, Object[] arguments) {
-        DefaultTruffleRuntime truffleRuntime = (DefaultTruffleRuntime) Truffle.getRuntime();
-        final CallTarget currentCallTarget = truffleRuntime.getCurrentFrame().getCallTarget();
-        FrameInstance frameInstance = new FrameInstance() {
-            public Frame getFrame(FrameAccess access, boolean slowPath) {
-                return frame;
-            }
-
-            public boolean isVirtualFrame() {
-                return false;
-            }
-
-            public Node getCallNode() {
-                return DefaultIndirectCallNode.this;
-            }
-
-            public CallTarget getCallTarget() {
-                return currentCallTarget;
-            }
-        };
-        truffleRuntime.pushFrame(frameInstance);
+    public Object call(VirtualFrame frame, CallTarget target, Object[] arguments) {
+        DefaultFrameStack stack = ((DefaultTruffleRuntime) Truffle.getRuntime()).getFrameStack();
+        stack.enterCall(this, frame);
         try {
             return target.call(arguments);
         } finally {
-            truffleRuntime.popFrame();
+            stack.exitCall();
         }
     }
 }
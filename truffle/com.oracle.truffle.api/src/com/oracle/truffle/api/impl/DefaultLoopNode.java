@@ -24,12 +24,44 @@
  */
 package com.oracle.truffle.api.impl;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 
+/**
+ * Loop node of the {@link DefaultTruffleRuntime}. It counts iterations locally and reports them in
+ * batches of {@link #REPORT_INTERVAL} iterations via {@link LoopNode#reportLoopCount}. Once an
+ * execution of the loop reached {@link DefaultRuntimeOptions#OSRThreshold} iterations, the
+ * installed {@link OSRHandler} is offered to take over the rest of the loop.
+ */
 public final class DefaultLoopNode extends LoopNode {
 
+    /**
+     * Number of iterations after which the loop count is reported and the OSR threshold is checked.
+     */
+    static final int REPORT_INTERVAL = DefaultRuntimeOptions.OSRThreshold > 0 ? Math.min(1024, DefaultRuntimeOptions.OSRThreshold) : 1024;
+
+    /**
+     * Alternative executor for long-running loops, installed with
+     * {@link DefaultTruffleRuntime#setOSRHandler(OSRHandler)}.
+     */
+    public interface OSRHandler {
+
+        /**
+         * Called at most once per execution of a loop after it ran for
+         * {@code -Dtruffle.DefaultRuntime.OSRThreshold} iterations. The handler may execute the
+         * remaining iterations of the loop in the given frame.
+         *
+         * @param loop the loop that crossed the threshold
+         * @param frame the frame of the running loop
+         * @return {@code true} if the handler executed the loop to completion, {@code false} to
+         *         continue in the interpreter
+         */
+        boolean executeLoop(LoopNode loop, VirtualFrame frame);
+    }
+
     @Child private RepeatingNode repeatNode;
 
     public DefaultLoopNode(RepeatingNode repeatNode) {
@@ -43,8 +75,33 @@ public final class DefaultLoopNode extends LoopNode {
 
     @Override
     public void executeLoop(VirtualFrame frame) {
-        while (repeatNode.executeRepeating(frame)) {
-            // Empty
+        int iterations = 0;
+        long total = 0;
+        boolean osrOffered = false;
+        try {
+            while (repeatNode.executeRepeating(frame)) {
+                if (++iterations == REPORT_INTERVAL) {
+                    reportLoopCount(this, iterations);
+                    total += iterations;
+                    iterations = 0;
+                    if (!osrOffered && DefaultRuntimeOptions.OSRThreshold > 0 && total >= DefaultRuntimeOptions.OSRThreshold) {
+                        osrOffered = true;
+                        if (offerOSR(frame)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (iterations > 0) {
+                reportLoopCount(this, iterations);
+            }
         }
     }
+
+    @TruffleBoundary
+    private boolean offerOSR(VirtualFrame frame) {
+        OSRHandler handler = ((DefaultTruffleRuntime) Truffle.getRuntime()).getOSRHandler();
+        return handler != null && handler.executeLoop(this, frame);
+    }
 }
@@ -38,9 +38,9 @@ import com.oracle.truffle.api.frame.MaterializedFrame;
  */
 final class DefaultMaterializedFrame implements MaterializedFrame {
 
-    private final DefaultVirtualFrame wrapped;
+    private final AbstractDefaultFrame wrapped;
 
-    DefaultMaterializedFrame(DefaultVirtualFrame wrapped) {
+    DefaultMaterializedFrame(AbstractDefaultFrame wrapped) {
         this.wrapped = wrapped;
     }
 
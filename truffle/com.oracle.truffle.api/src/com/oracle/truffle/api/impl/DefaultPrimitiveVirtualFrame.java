@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import java.util.Arrays;
+
+/**
+ * Variant of {@link DefaultVirtualFrame} that stores primitive values unboxed in a parallel
+ * {@code long[]}. Floats and doubles are kept as their raw bits. Used if
+ * {@link DefaultRuntimeOptions#PrimitiveFrames} is enabled.
+ * <p>
+ * This is an implementation-specific class. Do not use or instantiate it. Instead, use
+ * {@link TruffleRuntime#createVirtualFrame(Object[], FrameDescriptor)} to create a
+ * {@link VirtualFrame}.
+ */
+final class DefaultPrimitiveVirtualFrame extends AbstractDefaultFrame {
+
+    private FrameDescriptor descriptor;
+    private Object[] arguments;
+    private Object[] locals;
+    private long[] primitiveLocals;
+    private byte[] tags;
+    private int size;
+
+    DefaultPrimitiveVirtualFrame(FrameDescriptor descriptor, Object[] arguments) {
+        this.descriptor = descriptor;
+        this.arguments = arguments;
+        this.size = descriptor.getSize();
+        this.locals = new Object[size];
+        Arrays.fill(locals, descriptor.getDefaultValue());
+        this.primitiveLocals = new long[size];
+        this.tags = new byte[size];
+    }
+
+    @Override
+    void reset(FrameDescriptor newDescriptor, Object[] newArguments) {
+        assert !isEscaped();
+        this.descriptor = newDescriptor;
+        this.arguments = newArguments;
+        this.size = newDescriptor.getSize();
+        if (size > locals.length) {
+            locals = new Object[size];
+            primitiveLocals = new long[size];
+            tags = new byte[size];
+        } else {
+            Arrays.fill(tags, 0, size, (byte) 0);
+        }
+        Arrays.fill(locals, 0, size, newDescriptor.getDefaultValue());
+    }
+
+    @Override
+    void clear() {
+        if (!isEscaped()) {
+            arguments = null;
+            Arrays.fill(locals, 0, size, null);
+        }
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object getObject(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Object);
+        return locals[slot.getIndex()];
+    }
+
+    @Override
+    public void setObject(FrameSlot slot, Object value) {
+        verifySet(slot, FrameSlotKind.Object);
+        locals[slot.getIndex()] = value;
+    }
+
+    @Override
+    public byte getByte(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Byte);
+        return (byte) primitiveLocals[slot.getIndex()];
+    }
+
+    @Override
+    public void setByte(FrameSlot slot, byte value) {
+        setPrimitive(slot, FrameSlotKind.Byte, value);
+    }
+
+    @Override
+    public boolean getBoolean(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Boolean);
+        return primitiveLocals[slot.getIndex()] != 0L;
+    }
+
+    @Override
+    public void setBoolean(FrameSlot slot, boolean value) {
+        setPrimitive(slot, FrameSlotKind.Boolean, value ? 1L : 0L);
+    }
+
+    @Override
+    public int getInt(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Int);
+        return (int) primitiveLocals[slot.getIndex()];
+    }
+
+    @Override
+    public void setInt(FrameSlot slot, int value) {
+        setPrimitive(slot, FrameSlotKind.Int, value);
+    }
+
+    @Override
+    public long getLong(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Long);
+        return primitiveLocals[slot.getIndex()];
+    }
+
+    @Override
+    public void setLong(FrameSlot slot, long value) {
+        setPrimitive(slot, FrameSlotKind.Long, value);
+    }
+
+    @Override
+    public float getFloat(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Float);
+        return Float.intBitsToFloat((int) primitiveLocals[slot.getIndex()]);
+    }
+
+    @Override
+    public void setFloat(FrameSlot slot, float value) {
+        setPrimitive(slot, FrameSlotKind.Float, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public double getDouble(FrameSlot slot) throws FrameSlotTypeException {
+        verifyGet(slot, FrameSlotKind.Double);
+        return Double.longBitsToDouble(primitiveLocals[slot.getIndex()]);
+    }
+
+    @Override
+    public void setDouble(FrameSlot slot, double value) {
+        setPrimitive(slot, FrameSlotKind.Double, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public FrameDescriptor getFrameDescriptor() {
+        return this.descriptor;
+    }
+
+    @Override
+    public Object getValue(FrameSlot slot) {
+        int slotIndex = getSlotIndexChecked(slot);
+        byte tag = tags[slotIndex];
+        long primitive = primitiveLocals[slotIndex];
+        if (tag == FrameSlotKind.Long.tag) {
+            return primitive;
+        } else if (tag == FrameSlotKind.Int.tag) {
+            return (int) primitive;
+        } else if (tag == FrameSlotKind.Double.tag) {
+            return Double.longBitsToDouble(primitive);
+        } else if (tag == FrameSlotKind.Float.tag) {
+            return Float.intBitsToFloat((int) primitive);
+        } else if (tag == FrameSlotKind.Boolean.tag) {
+            return primitive != 0L;
+        } else if (tag == FrameSlotKind.Byte.tag) {
+            return (byte) primitive;
+        }
+        return locals[slotIndex];
+    }
+
+    private void setPrimitive(FrameSlot slot, FrameSlotKind accessKind, long value) {
+        int slotIndex = getSlotIndexChecked(slot);
+        tags[slotIndex] = (byte) accessKind.ordinal();
+        primitiveLocals[slotIndex] = value;
+        locals[slotIndex] = null;
+    }
+
+    private int getSlotIndexChecked(FrameSlot slot) {
+        int slotIndex = slot.getIndex();
+        if (slotIndex >= size) {
+            if (!resize()) {
+                throw new IllegalArgumentException(String.format("The frame slot '%s' is not known by the frame descriptor.", slot));
+            }
+        }
+        return slotIndex;
+    }
+
+    private void verifySet(FrameSlot slot, FrameSlotKind accessKind) {
+        int slotIndex = getSlotIndexChecked(slot);
+        tags[slotIndex] = (byte) accessKind.ordinal();
+    }
+
+    private void verifyGet(FrameSlot slot, FrameSlotKind accessKind) throws FrameSlotTypeException {
+        int slotIndex = getSlotIndexChecked(slot);
+        byte tag = tags[slotIndex];
+        if (accessKind == FrameSlotKind.Object ? tag != 0 : tag != accessKind.ordinal()) {
+            throw new FrameSlotTypeException();
+        }
+    }
+
+    private boolean resize() {
+        int oldSize = size;
+        int newSize = descriptor.getSize();
+        if (newSize > oldSize) {
+            if (newSize > locals.length) {
+                locals = Arrays.copyOf(locals, newSize);
+                primitiveLocals = Arrays.copyOf(primitiveLocals, newSize);
+                tags = Arrays.copyOf(tags, newSize);
+            } else {
+                Arrays.fill(tags, oldSize, newSize, (byte) 0);
+            }
+            Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
+            size = newSize;
+            return true;
+        }
+        return false;
+    }
+
+    private byte getTag(FrameSlot slot) {
+        int slotIndex = getSlotIndexChecked(slot);
+        return tags[slotIndex];
+    }
+
+    @Override
+    public boolean isObject(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Object.ordinal();
+    }
+
+    @Override
+    public boolean isByte(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Byte.ordinal();
+    }
+
+    @Override
+    public boolean isBoolean(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Boolean.ordinal();
+    }
+
+    @Override
+    public boolean isInt(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Int.ordinal();
+    }
+
+    @Override
+    public boolean isLong(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Long.ordinal();
+    }
+
+    @Override
+    public boolean isFloat(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Float.ordinal();
+    }
+
+    @Override
+    public boolean isDouble(FrameSlot slot) {
+        return getTag(slot) == FrameSlotKind.Double.ordinal();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Options of the {@link DefaultTruffleRuntime}. They only apply if the virtual machine does not
+ * provide a better performing runtime.
+ */
+final class DefaultRuntimeOptions {
+    private DefaultRuntimeOptions() {
+    }
+
+    /**
+     * Reuses the frames of finished activations on the per-thread call stack instead of allocating
+     * a new frame for every call.
+     * <p>
+     * Can be set with {@code -Dtruffle.DefaultRuntime.ReuseFrames=true}.
+     */
+    static final boolean ReuseFrames;
+
+    /**
+     * Stores primitive frame slot values unboxed instead of boxing them into the object locals of
+     * the frame.
+     * <p>
+     * Can be set with {@code -Dtruffle.DefaultRuntime.PrimitiveFrames=true}.
+     */
+    static final boolean PrimitiveFrames;
+
+    /**
+     * Maximum number of nested calls per thread. A call beyond this depth fails with a
+     * {@link com.oracle.truffle.api.TruffleStackOverflowException} before the callee is entered.
+     * Zero or a negative value means no limit.
+     * <p>
+     * Can be set with {@code -Dtruffle.DefaultRuntime.MaxStackDepth=<depth>}.
+     */
+    static final int MaxStackDepth;
+
+    /**
+     * Number of iterations of a single loop execution after which the
+     * {@link DefaultLoopNode.OSRHandler} is offered to take over the loop. Zero or a negative value
+     * disables on-stack replacement.
+     * <p>
+     * Can be set with {@code -Dtruffle.DefaultRuntime.OSRThreshold=<iterations>}.
+     */
+    static final int OSRThreshold;
+
+    /**
+     * Counts the invocations of every {@link DefaultCallTarget} and measures the time spent in
+     * them, see {@link DefaultTruffleRuntime#getHottestCallTargets(int)}.
+     * <p>
+     * Can be set with {@code -Dtruffle.DefaultRuntime.ProfileCalls=true}.
+     */
+    static final boolean ProfileCalls;
+
+    static {
+        final boolean[] values = new boolean[3];
+        final int[] intValues = new int[2];
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                values[0] = Boolean.getBoolean("truffle.DefaultRuntime.ReuseFrames");
+                values[1] = Boolean.getBoolean("truffle.DefaultRuntime.PrimitiveFrames");
+                values[2] = Boolean.getBoolean("truffle.DefaultRuntime.ProfileCalls");
+                intValues[0] = Integer.getInteger("truffle.DefaultRuntime.MaxStackDepth", 0);
+                intValues[1] = Integer.getInteger("truffle.DefaultRuntime.OSRThreshold", 100000);
+                return null;
+            }
+        });
+        ReuseFrames = values[0];
+        PrimitiveFrames = values[1];
+        ProfileCalls = values[2];
+        MaxStackDepth = intValues[0];
+        OSRThreshold = intValues[1];
+    }
+}
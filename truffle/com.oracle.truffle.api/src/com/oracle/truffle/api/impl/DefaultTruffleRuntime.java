@@ -33,6 +33,7 @@ import com.oracle.truffle.api.TruffleRuntime;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.frame.FrameStackDepth;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
@@ -41,11 +42,10 @@ import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 import com.oracle.truffle.api.nodes.RootNode;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.List;
 
 /**
  * Default implementation of the Truffle runtime if the virtual machine does not provide a better
@@ -54,13 +54,26 @@ import java.util.WeakHashMap;
  * This is an implementation-specific class. Do not use or instantiate it. Instead, use
  * {@link Truffle#getRuntime()} to retrieve the current {@link TruffleRuntime}.
  */
-public final class DefaultTruffleRuntime implements TruffleRuntime {
+public final class DefaultTruffleRuntime implements TruffleRuntime, FrameStackDepth {
 
-    private final ThreadLocal<LinkedList<FrameInstance>> stackTraces = new ThreadLocal<>();
-    private final ThreadLocal<FrameInstance> currentFrames = new ThreadLocal<>();
-    private final Map<RootCallTarget, Void> callTargets = Collections.synchronizedMap(new WeakHashMap<RootCallTarget, Void>());
+    private final CallTargetRegistry callTargets = new CallTargetRegistry();
+    private final boolean primitiveFrames;
+    private volatile DefaultLoopNode.OSRHandler osrHandler;
+    private final OpenCLKernelRegistry openCLKernels = new OpenCLKernelRegistry();
+    private volatile AcceleratorBackend acceleratorBackend;
+    private final ThreadLocal<DefaultFrameStack> frameStacks = new ThreadLocal<DefaultFrameStack>() {
+        @Override
+        protected DefaultFrameStack initialValue() {
+            return new DefaultFrameStack(DefaultTruffleRuntime.this, DefaultRuntimeOptions.ReuseFrames, DefaultRuntimeOptions.MaxStackDepth);
+        }
+    };
 
     public DefaultTruffleRuntime() {
+        this(DefaultRuntimeOptions.PrimitiveFrames);
+    }
+
+    DefaultTruffleRuntime(boolean primitiveFrames) {
+        this.primitiveFrames = primitiveFrames;
     }
 
     @Override
@@ -72,7 +85,7 @@ public final class DefaultTruffleRuntime implements TruffleRuntime {
     public RootCallTarget createCallTarget(RootNode rootNode) {
         DefaultCallTarget target = new DefaultCallTarget(rootNode);
         rootNode.setCallTarget(target);
-        callTargets.put(target, null);
+        callTargets.register(target);
         return target;
     }
 
@@ -86,7 +99,7 @@ public final class DefaultTruffleRuntime implements TruffleRuntime {
 
     @Override
     public VirtualFrame createVirtualFrame(Object[] arguments, FrameDescriptor frameDescriptor) {
-        return new DefaultVirtualFrame(frameDescriptor, arguments);
+        return createFrame(frameDescriptor, arguments);
     }
 
     @Override
@@ -96,7 +109,14 @@ public final class DefaultTruffleRuntime implements TruffleRuntime {
 
     @Override
     public MaterializedFrame createMaterializedFrame(Object[] arguments, FrameDescriptor frameDescriptor) {
-        return new DefaultMaterializedFrame(new DefaultVirtualFrame(frameDescriptor, arguments));
+        return new DefaultMaterializedFrame(createFrame(frameDescriptor, arguments));
+    }
+
+    AbstractDefaultFrame createFrame(FrameDescriptor frameDescriptor, Object[] arguments) {
+        if (primitiveFrames) {
+            return new DefaultPrimitiveVirtualFrame(frameDescriptor, arguments);
+        }
+        return new DefaultVirtualFrame(frameDescriptor, arguments);
     }
 
     @Override
@@ -114,63 +134,152 @@ public final class DefaultTruffleRuntime implements TruffleRuntime {
         return new DefaultAssumption(name);
     }
 
-    private LinkedList<FrameInstance> getThreadLocalStackTrace() {
-        LinkedList<FrameInstance> result = stackTraces.get();
-        if (result == null) {
-            result = new LinkedList<>();
-            stackTraces.set(result);
-        }
-        return result;
+    DefaultFrameStack getFrameStack() {
+        return frameStacks.get();
     }
 
-    public FrameInstance setCurrentFrame(FrameInstance newValue) {
-        FrameInstance oldValue = currentFrames.get();
-        currentFrames.set(newValue);
-        return oldValue;
+    @Override
+    public <T> T iterateFrames(FrameInstanceVisitor<T> visitor) {
+        return getFrameStack().iterateFrames(visitor);
     }
 
-    public void pushFrame(FrameInstance frame) {
-        getThreadLocalStackTrace().addFirst(frame);
+    @Override
+    public FrameInstance getCallerFrame() {
+        return getFrameStack().getCallerFrame();
     }
 
-    public void popFrame() {
-        getThreadLocalStackTrace().removeFirst();
+    @Override
+    public Collection<RootCallTarget> getCallTargets() {
+        return Collections.unmodifiableList(callTargets.snapshot());
     }
 
-    @Override
-    public <T> T iterateFrames(FrameInstanceVisitor<T> visitor) {
-        T result = null;
-        for (FrameInstance frameInstance : getThreadLocalStackTrace()) {
-            result = visitor.visitFrame(frameInstance);
-            if (result != null) {
-                return result;
+    /**
+     * Returns at most {@code limit} call targets ordered by decreasing call count, with the
+     * interpreter time as tie breaker. Requires {@code -Dtruffle.DefaultRuntime.ProfileCalls=true};
+     * otherwise all counts are zero and the order is unspecified.
+     *
+     * @param limit the maximum number of call targets to return
+     * @return a new list of the most frequently called targets
+     */
+    public List<DefaultCallTarget> getHottestCallTargets(int limit) {
+        List<CallTargetProfile> profiles = new ArrayList<>();
+        for (RootCallTarget target : callTargets.snapshot()) {
+            if (target instanceof DefaultCallTarget) {
+                profiles.add(new CallTargetProfile((DefaultCallTarget) target));
             }
         }
-        return result;
+        // counters keep changing while we sort, so sort a snapshot of them
+        Collections.sort(profiles);
+        int size = Math.max(0, Math.min(limit, profiles.size()));
+        List<DefaultCallTarget> hottest = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hottest.add(profiles.get(i).target);
+        }
+        return hottest;
     }
 
-    @Override
-    public FrameInstance getCallerFrame() {
-        return getThreadLocalStackTrace().peekFirst();
+    private static final class CallTargetProfile implements Comparable<CallTargetProfile> {
+        final DefaultCallTarget target;
+        final long callCount;
+        final long interpreterTime;
+
+        CallTargetProfile(DefaultCallTarget target) {
+            this.target = target;
+            this.callCount = target.getCallCount();
+            this.interpreterTime = target.getInterpreterTime();
+        }
+
+        public int compareTo(CallTargetProfile o) {
+            int result = Long.compare(o.callCount, callCount);
+            if (result == 0) {
+                result = Long.compare(o.interpreterTime, interpreterTime);
+            }
+            return result;
+        }
     }
 
     @Override
-    public Collection<RootCallTarget> getCallTargets() {
-        return Collections.unmodifiableSet(callTargets.keySet());
+    public FrameInstance getCurrentFrame() {
+        return getFrameStack().getCurrentFrame();
     }
 
     @Override
-    public FrameInstance getCurrentFrame() {
-        return currentFrames.get();
+    public int getStackDepth() {
+        return getFrameStack().getDepth();
     }
 
     public <T> T getCapability(Class<T> capability) {
+        if (capability == FrameStackDepth.class) {
+            return capability.cast(this);
+        }
         return null;
     }
 
     public void notifyTransferToInterpreter() {
     }
 
+    /**
+     * Installs the handler that is offered to take over loops that run for a long time in the
+     * interpreter, or removes it if {@code handler} is {@code null}.
+     */
+    public void setOSRHandler(DefaultLoopNode.OSRHandler handler) {
+        this.osrHandler = handler;
+    }
+
+    public DefaultLoopNode.OSRHandler getOSRHandler() {
+        return osrHandler;
+    }
+
+    OpenCLKernelRegistry getOpenCLKernels() {
+        return openCLKernels;
+    }
+
+    /**
+     * Returns the call target that currently owns an OpenCL kernel ID, or {@code null} if the ID
+     * was never assigned, was invalidated by a rewrite of the AST, or its call target was
+     * collected.
+     *
+     * @see RootCallTarget#generateIDForOpenCL()
+     */
+    public RootCallTarget getCallTargetForOpenCL(long id) {
+        return openCLKernels.lookup(id);
+    }
+
+    /**
+     * Installs the backend used by {@link #executeKernel(RootCallTarget, Object[][])}, or removes
+     * it if {@code backend} is {@code null}.
+     */
+    public void setAcceleratorBackend(AcceleratorBackend backend) {
+        this.acceleratorBackend = backend;
+    }
+
+    public AcceleratorBackend getAcceleratorBackend() {
+        return acceleratorBackend;
+    }
+
+    /**
+     * Executes a call target as a kernel on the installed {@link AcceleratorBackend}, once for every
+     * work item. Assigns a kernel ID to the call target and installs the kernel in the backend if
+     * that did not happen yet; later executions reuse the installed kernel until the AST of the
+     * call target is rewritten.
+     *
+     * @param target the call target to execute
+     * @param workItems the call arguments of every work item
+     * @return the results of the work items in the order of {@code workItems}
+     * @throws IllegalStateException if no backend is installed, or if the AST was rewritten
+     *             concurrently to the dispatch
+     */
+    public Object[] executeKernel(RootCallTarget target, Object[][] workItems) {
+        AcceleratorBackend backend = acceleratorBackend;
+        if (backend == null) {
+            throw new IllegalStateException("No accelerator backend installed.");
+        }
+        target.generateIDForOpenCL();
+        long id = target.getIDForOpenCL();
+        openCLKernels.install(id, target, backend);
+        return backend.execute(id, workItems);
+    }
+
     public LoopNode createLoopNode(RepeatingNode repeating) {
         if (!(repeating instanceof Node)) {
             throw new IllegalArgumentException("Repeating node must be of type Node.");
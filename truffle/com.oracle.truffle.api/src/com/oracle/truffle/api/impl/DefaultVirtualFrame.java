@@ -29,7 +29,6 @@ import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
-import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import java.util.Arrays;
 
@@ -38,29 +37,49 @@ import java.util.Arrays;
  * {@link TruffleRuntime#createVirtualFrame(Object[], FrameDescriptor)} to create a
  * {@link VirtualFrame}.
  */
-final class DefaultVirtualFrame implements VirtualFrame {
+final class DefaultVirtualFrame extends AbstractDefaultFrame {
 
-    private final FrameDescriptor descriptor;
-    private final Object[] arguments;
+    private FrameDescriptor descriptor;
+    private Object[] arguments;
     private Object[] locals;
     private byte[] tags;
+    private int size;
 
     DefaultVirtualFrame(FrameDescriptor descriptor, Object[] arguments) {
         this.descriptor = descriptor;
         this.arguments = arguments;
-        this.locals = new Object[descriptor.getSize()];
+        this.size = descriptor.getSize();
+        this.locals = new Object[size];
         Arrays.fill(locals, descriptor.getDefaultValue());
-        this.tags = new byte[descriptor.getSize()];
+        this.tags = new byte[size];
     }
 
     @Override
-    public Object[] getArguments() {
-        return arguments;
+    void reset(FrameDescriptor newDescriptor, Object[] newArguments) {
+        assert !isEscaped();
+        this.descriptor = newDescriptor;
+        this.arguments = newArguments;
+        this.size = newDescriptor.getSize();
+        if (size > locals.length) {
+            locals = new Object[size];
+            tags = new byte[size];
+        } else {
+            Arrays.fill(tags, 0, size, (byte) 0);
+        }
+        Arrays.fill(locals, 0, size, newDescriptor.getDefaultValue());
+    }
+
+    @Override
+    void clear() {
+        if (!isEscaped()) {
+            arguments = null;
+            Arrays.fill(locals, 0, size, null);
+        }
     }
 
     @Override
-    public MaterializedFrame materialize() {
-        return new DefaultMaterializedFrame(this);
+    public Object[] getArguments() {
+        return arguments;
     }
 
     @Override
@@ -160,7 +179,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
 
     private int getSlotIndexChecked(FrameSlot slot) {
         int slotIndex = slot.getIndex();
-        if (slotIndex >= tags.length) {
+        if (slotIndex >= size) {
             if (!resize()) {
                 throw new IllegalArgumentException(String.format("The frame slot '%s' is not known by the frame descriptor.", slot));
             }
@@ -182,12 +201,17 @@ final class DefaultVirtualFrame implements VirtualFrame {
     }
 
     private boolean resize() {
-        int oldSize = tags.length;
+        int oldSize = size;
         int newSize = descriptor.getSize();
         if (newSize > oldSize) {
-            locals = Arrays.copyOf(locals, newSize);
+            if (newSize > locals.length) {
+                locals = Arrays.copyOf(locals, newSize);
+                tags = Arrays.copyOf(tags, newSize);
+            } else {
+                Arrays.fill(tags, oldSize, newSize, (byte) 0);
+            }
             Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
-            tags = Arrays.copyOf(tags, newSize);
+            size = newSize;
             return true;
         }
         return false;
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.RootCallTarget;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An {@link AcceleratorBackend} that runs kernels on the CPU. The work items of a kernel are split
+ * recursively and executed by calling the unmodified AST of the call target on a
+ * {@link ForkJoinPool}. It stands in for a real device when testing kernel dispatch and caching.
+ * <p>
+ * Installed call targets are only weakly referenced, so a kernel does not keep its AST alive once
+ * the language drops the call target. By default the work items run on the
+ * {@link ForkJoinPool#commonPool() common pool}; a pool passed to the constructor is owned by the
+ * caller, who is responsible for shutting it down.
+ */
+public final class ForkJoinAcceleratorBackend implements AcceleratorBackend {
+
+    /**
+     * Number of work items below which a task is no longer split.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 16;
+
+    private final ForkJoinPool pool;
+    private final ConcurrentMap<Long, WeakReference<RootCallTarget>> kernels = new ConcurrentHashMap<>();
+
+    public ForkJoinAcceleratorBackend() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ForkJoinAcceleratorBackend(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void install(long kernelID, RootCallTarget target) {
+        kernels.put(kernelID, new WeakReference<>(target));
+    }
+
+    public void invalidate(long kernelID) {
+        kernels.remove(kernelID);
+    }
+
+    /**
+     * Returns whether a kernel is currently installed for an ID and its call target has not been
+     * collected.
+     */
+    public boolean isInstalled(long kernelID) {
+        return lookup(kernelID) != null;
+    }
+
+    public Object[] execute(long kernelID, Object[][] workItems) {
+        RootCallTarget target = lookup(kernelID);
+        if (target == null) {
+            throw new IllegalStateException("No kernel installed for ID " + kernelID);
+        }
+        Object[] results = new Object[workItems.length];
+        pool.invoke(new WorkItems(target, workItems, results, 0, workItems.length));
+        return results;
+    }
+
+    private RootCallTarget lookup(long kernelID) {
+        WeakReference<RootCallTarget> reference = kernels.get(kernelID);
+        if (reference == null) {
+            return null;
+        }
+        RootCallTarget target = reference.get();
+        if (target == null) {
+            kernels.remove(kernelID, reference);
+        }
+        return target;
+    }
+
+    private static final class WorkItems extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RootCallTarget target;
+        private final Object[][] workItems;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        WorkItems(RootCallTarget target, Object[][] workItems, Object[] results, int from, int to) {
+            this.target = target;
+            this.workItems = workItems;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = target.call(workItems[i]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new WorkItems(target, workItems, results, from, middle), new WorkItems(target, workItems, results, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.impl;
+
+import com.oracle.truffle.api.RootCallTarget;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps the OpenCL kernel IDs of {@link DefaultCallTarget}s back to their call targets and remembers
+ * in which {@link AcceleratorBackend} a kernel was installed. Call targets are only weakly
+ * referenced; the entries of collected targets are purged through a reference queue.
+ * <p>
+ * Lookups do not lock. Assigning, releasing and installing kernels synchronize on the registry, so
+ * that a kernel cannot be installed after its ID was released and an ID has at most one owner.
+ */
+final class OpenCLKernelRegistry {
+
+    private long nextID;
+    private final ConcurrentMap<Long, Kernel> kernels = new ConcurrentHashMap<>();
+    private final ReferenceQueue<DefaultCallTarget> queue = new ReferenceQueue<>();
+
+    /**
+     * Assigns a new ID to a call target, skipping IDs that were {@link #reassign set explicitly}.
+     */
+    synchronized long register(DefaultCallTarget target) {
+        expungeStaleEntries();
+        long id;
+        do {
+            id = nextID++;
+        } while (id == RootCallTarget.OCL_INIT || kernels.containsKey(id));
+        kernels.put(id, new Kernel(id, target, queue));
+        return id;
+    }
+
+    /**
+     * Moves a call target from its current ID, if any, to another one, or releases its ID if the
+     * new ID is {@link RootCallTarget#OCL_INIT}.
+     *
+     * @throws IllegalStateException if the new ID is owned by another call target
+     */
+    synchronized void reassign(DefaultCallTarget target, long oldID, long newID) {
+        expungeStaleEntries();
+        if (newID != RootCallTarget.OCL_INIT) {
+            Kernel owner = kernels.get(newID);
+            if (owner != null && owner.get() != target) {
+                throw new IllegalStateException("Kernel ID " + newID + " is already assigned to " + owner.get());
+            }
+        }
+        if (oldID != RootCallTarget.OCL_INIT) {
+            release(oldID);
+        }
+        if (newID != RootCallTarget.OCL_INIT) {
+            kernels.put(newID, new Kernel(newID, target, queue));
+        }
+    }
+
+    synchronized void unregister(long id) {
+        release(id);
+    }
+
+    private void release(long id) {
+        Kernel kernel = kernels.remove(id);
+        if (kernel != null) {
+            kernel.invalidate();
+        }
+    }
+
+    DefaultCallTarget lookup(long id) {
+        Kernel kernel = kernels.get(id);
+        return kernel == null ? null : kernel.get();
+    }
+
+    /**
+     * Installs the kernel for an ID in a backend unless it is already installed there.
+     *
+     * @throws IllegalStateException if the ID is no longer owned by the call target
+     */
+    synchronized void install(long id, RootCallTarget target, AcceleratorBackend backend) {
+        Kernel kernel = kernels.get(id);
+        if (kernel == null || kernel.get() != target) {
+            throw new IllegalStateException("Kernel ID " + id + " is not registered");
+        }
+        if (kernel.backend != backend) {
+            kernel.invalidate();
+            backend.install(id, target);
+            kernel.backend = backend;
+        }
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends DefaultCallTarget> reference;
+        while ((reference = queue.poll()) != null) {
+            Kernel kernel = (Kernel) reference;
+            if (kernels.remove(kernel.id, kernel)) {
+                kernel.invalidate();
+            }
+        }
+    }
+
+    /**
+     * The entry of a kernel ID. Only accessed while holding the lock of the registry.
+     */
+    private static final class Kernel extends WeakReference<DefaultCallTarget> {
+
+        final long id;
+        AcceleratorBackend backend;
+
+        Kernel(long id, DefaultCallTarget target, ReferenceQueue<DefaultCallTarget> queue) {
+            super(target, queue);
+            this.id = id;
+        }
+
+        void invalidate() {
+            if (backend != null) {
+                backend.invalidate(id);
+                backend = null;
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@
  */
 package com.oracle.truffle.api.nodes;
 
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.LoopCountReceiver;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
 /**
@@ -35,4 +37,27 @@ public abstract class LoopNode extends Node {
 
     public abstract RepeatingNode getRepeatingNode();
 
+    /**
+     * Reports the execution count of a loop to every {@link LoopCountReceiver} on the path from
+     * {@code source} up to its {@link RootNode}, and to the root node itself. Loop implementations
+     * should report counts in batches rather than for every iteration.
+     *
+     * @param source the loop node or a node below it
+     * @param iterations the number of iterations executed since the last report
+     */
+    public static void reportLoopCount(Node source, int iterations) {
+        CompilerAsserts.neverPartOfCompilation();
+        Node node = source;
+        Node parent = source;
+        while (node != null) {
+            if (node instanceof LoopCountReceiver) {
+                ((LoopCountReceiver) node).reportLoopCount(iterations);
+            }
+            parent = node;
+            node = node.getParent();
+        }
+        if (parent instanceof RootNode) {
+            ((RootNode) parent).reportLoopCount(iterations);
+        }
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.source;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.utilities.StripedCounter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded cache keyed by the contents of {@link Source sources} rather than by their
+ * identity or name: sources with the same MIME type and the same text share an entry, whatever they
+ * are called. Entries are evicted least recently used first once the cache is full. A language can
+ * keep one instance in a static field to reuse parse results across all engines of a VM.
+ * <p>
+ * Lookups hash the whole text (SHA-1), which is much cheaper than parsing it but not free; the cache
+ * is meant for parse results, not for per-execution lookups.
+ *
+ * @param <V> the type of the cached values
+ */
+public final class ContentHashCache<V> {
+
+    private static final int HASH_CHUNK_SIZE = 4096;
+
+    private final int maximumSize;
+    private final Map<Key, V> entries;
+    private final StripedCounter hits = new StripedCounter();
+    private final StripedCounter misses = new StripedCounter();
+
+    /**
+     * @param maximumSize the number of entries above which the least recently used one is evicted
+     */
+    public ContentHashCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<Key, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for a source with the same MIME type and text, or {@code null}.
+     */
+    public V get(Source source) {
+        CompilerAsserts.neverPartOfCompilation();
+        Key key = Key.of(source);
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value for the MIME type and text of the source, replacing any previous one.
+     */
+    public void put(Source source, V value) {
+        CompilerAsserts.neverPartOfCompilation();
+        Key key = Key.of(source);
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * The number of {@link #get(Source) lookups} that found a value.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of {@link #get(Source) lookups} that found nothing.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ContentHashCache[size=" + size() + "/" + maximumSize + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private static final class Key {
+        private final byte[] digest;
+        private final int hash;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        static Key of(Source source) {
+            final MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            String mimeType = source.getMimeType();
+            if (mimeType != null) {
+                md.update(mimeType.getBytes(StandardCharsets.UTF_8));
+            }
+            md.update((byte) 0);
+            final CharSequence text = source.getCharacters();
+            final byte[] chunk = new byte[HASH_CHUNK_SIZE];
+            int length = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                chunk[length++] = (byte) (c >> 8);
+                chunk[length++] = (byte) c;
+                if (length == chunk.length) {
+                    md.update(chunk, 0, length);
+                    length = 0;
+                }
+            }
+            md.update(chunk, 0, length);
+            return new Key(md.digest());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(digest, ((Key) obj).digest);
+        }
+    }
+}
@@ -40,12 +40,18 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.spi.FileTypeDetector;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -173,6 +179,39 @@ public abstract class Source {
         return fromFileName(fileName, false);
     }
 
+    /**
+     * Gets the canonical representation of a source file whose contents are memory-mapped rather
+     * than read through a {@link Reader}. A pure ASCII file is served from the mapping without
+     * copying its text to the heap; any other file is decoded from the mapping as UTF-8 once. Either
+     * way the characters are available without a copy via {@link #getCharacters()}; a
+     * {@link String} of the whole file is only created if {@link #getCode()} is called. Meant for
+     * large, e.g. generated, source files. If the file is already indexed, the existing canonical
+     * representation is returned.
+     *
+     * @param fileName name
+     * @return canonical representation of the file's contents.
+     * @throws IOException if the file can not be read
+     */
+    public static Source fromMappedFile(String fileName) throws IOException {
+        CompilerAsserts.neverPartOfCompilation();
+        final WeakReference<Source> nameRef = nameToSource.get(fileName);
+        Source source = nameRef == null ? null : nameRef.get();
+        if (source == null) {
+            final File file = new File(fileName);
+            if (!file.canRead()) {
+                throw new IOException("Can't read file " + fileName);
+            }
+            final String path = file.getCanonicalPath();
+            final WeakReference<Source> pathRef = nameToSource.get(path);
+            source = pathRef == null ? null : pathRef.get();
+            if (source == null) {
+                source = new MappedFileSource(file, fileName, path);
+                nameToSource.put(path, new WeakReference<>(source));
+            }
+        }
+        return source;
+    }
+
     /**
      * Gets the canonical representation of a source file whose contents are the responsibility of
      * the client:
@@ -454,11 +493,19 @@ public abstract class Source {
      */
     public abstract String getCode();
 
+    /**
+     * Returns the complete text of the code as a character sequence, which sources that do not hold
+     * their contents as a {@link String} can provide without copying.
+     */
+    public CharSequence getCharacters() {
+        return getCode();
+    }
+
     /**
      * Returns a subsection of the code test.
      */
     public String getCode(int charIndex, int charLength) {
-        return getCode().substring(charIndex, charIndex + charLength);
+        return getCharacters().subSequence(charIndex, charIndex + charLength).toString();
     }
 
     /**
@@ -467,7 +514,7 @@ public abstract class Source {
     public final String getCode(int lineNumber) {
         final int offset = getTextMap().lineStartOffset(lineNumber);
         final int length = getTextMap().lineLength(lineNumber);
-        return getCode().substring(offset, offset + length);
+        return getCode(offset, length);
     }
 
     /**
@@ -599,7 +646,7 @@ public abstract class Source {
     }
 
     void checkRange(int charIndex, int length) {
-        if (!(charIndex >= 0 && length >= 0 && charIndex + length <= getCode().length())) {
+        if (!(charIndex >= 0 && length >= 0 && charIndex + length <= getCharacters().length())) {
             throw new IllegalArgumentException("text positions out of range");
         }
     }
@@ -651,7 +698,7 @@ public abstract class Source {
     }
 
     TextMap createTextMap() {
-        final String code = getCode();
+        final CharSequence code = getCharacters();
         if (code == null) {
             throw new RuntimeException("can't read file " + getName());
         }
@@ -1019,6 +1066,258 @@ public abstract class Source {
         }
     }
 
+    private static final class MappedFileSource extends Source implements Cloneable {
+
+        private final File file;
+        private final String name; // Name used originally to describe the source
+        private final String path;  // Normalized path description of an actual file
+
+        private CharSequence view;   // Read-only view of the mapping or of the decoded contents
+        private String code;         // A copy of view, only made if a String is requested
+        private long timeStamp;      // timestamp of view in the file system
+
+        public MappedFileSource(File file, String name, String path) {
+            this.file = file.getAbsoluteFile();
+            this.name = name;
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getShortName() {
+            return file.getName();
+        }
+
+        @Override
+        Object getHashKey() {
+            return path;
+        }
+
+        @Override
+        public CharSequence getCharacters() {
+            if (view == null || timeStamp != file.lastModified()) {
+                try {
+                    timeStamp = file.lastModified();
+                    view = map();
+                    code = null;
+                    clearTextMap();
+                } catch (IOException e) {
+                    throw new RuntimeException("Can't read file " + path, e);
+                }
+            }
+            return view;
+        }
+
+        /**
+         * Maps the file. A file that is pure ASCII is served straight from the mapping, one byte per
+         * character, so its text is never copied to the heap. Any other file is decoded as UTF-8
+         * from the mapping into a single character buffer; UTF-8 never yields more characters than
+         * bytes.
+         */
+        private CharSequence map() throws IOException {
+            final MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (isASCII(mapped)) {
+                return new ASCIIBufferView(mapped, 0, mapped.limit());
+            }
+            final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+            decoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            final CharBuffer chars = CharBuffer.allocate(mapped.limit());
+            decoder.decode(mapped, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            return new CharArrayView(chars.array(), chars.arrayOffset(), chars.remaining());
+        }
+
+        private static boolean isASCII(ByteBuffer buffer) {
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getCode() {
+            final CharSequence characters = getCharacters();
+            if (code == null) {
+                code = characters.toString();
+            }
+            return code;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public URL getURL() {
+            return null;
+        }
+
+        @Override
+        public Reader getReader() {
+            return new CharSequenceReader(getCharacters());
+        }
+
+        @Override
+        String findMimeType() {
+            try {
+                return Files.probeContentType(file.toPath());
+            } catch (IOException ex) {
+                LOG.log(Level.SEVERE, null, ex);
+            }
+            return null;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof MappedFileSource) {
+                MappedFileSource other = (MappedFileSource) obj;
+                return path.equals(other.path) && equalMime(other);
+            }
+            return false;
+        }
+
+        @Override
+        void reset() {
+            this.view = null;
+            this.code = null;
+        }
+    }
+
+    /**
+     * Immutable character sequence over a range of a character array, which unlike a read-only
+     * {@link CharBuffer} has no position that callers could change.
+     */
+    private static final class CharArrayView implements CharSequence {
+        private final char[] array;
+        private final int offset;
+        private final int length;
+
+        CharArrayView(char[] array, int offset, int length) {
+            this.array = array;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return array[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException(start + ", " + end);
+            }
+            return new CharArrayView(array, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(array, offset, length);
+        }
+    }
+
+    /**
+     * Immutable character sequence over a range of a byte buffer that holds ASCII text, for example
+     * a memory-mapped file. Reads use absolute indices, so the position of the buffer is never used.
+     */
+    private static final class ASCIIBufferView implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ASCIIBufferView(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return (char) buffer.get(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException(start + ", " + end);
+            }
+            return new ASCIIBufferView(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            final byte[] bytes = new byte[length];
+            final ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset);
+            duplicate.get(bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Reads a character sequence without copying it to a {@link String} first.
+     */
+    private static final class CharSequenceReader extends Reader {
+        private final CharSequence characters;
+        private int next;
+
+        CharSequenceReader(CharSequence characters) {
+            this.characters = characters;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (next >= characters.length()) {
+                return -1;
+            }
+            final int count = Math.min(length, characters.length() - next);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = characters.charAt(next++);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
     private static final class URLSource extends Source implements Cloneable {
 
         private static final Map<URL, WeakReference<URLSource>> urlToSource = new HashMap<>();
@@ -1144,6 +1443,7 @@ public abstract class Source {
         private final int byteIndex;
         private final int length;
         private final CharsetDecoder decoder;
+        private String code; // A cache of the decoded contents
 
         public BytesSource(String name, byte[] bytes, int byteIndex, int length, Charset decoder) {
             this.name = name;
@@ -1184,14 +1484,17 @@ public abstract class Source {
 
         @Override
         public String getCode() {
-            ByteBuffer bb = ByteBuffer.wrap(bytes, byteIndex, length);
-            CharBuffer chb;
-            try {
-                chb = decoder.decode(bb);
-            } catch (CharacterCodingException ex) {
-                return "";
+            if (code == null) {
+                ByteBuffer bb = ByteBuffer.wrap(bytes, byteIndex, length);
+                CharBuffer chb;
+                try {
+                    chb = decoder.decode(bb);
+                } catch (CharacterCodingException ex) {
+                    return "";
+                }
+                code = chb.toString();
             }
-            return chb.toString();
+            return code;
         }
 
         @Override
@@ -1268,27 +1571,20 @@ public abstract class Source {
          * Constructs map permitting translation between 0-based character offsets and 1-based
          * lines/columns.
          */
-        public static TextMap fromString(String text) {
+        public static TextMap fromString(CharSequence text) {
             final int textLength = text.length();
-            final ArrayList<Integer> lines = new ArrayList<>();
-            lines.add(0);
-            int offset = 0;
-
-            while (offset < text.length()) {
-                final int nlIndex = text.indexOf('\n', offset);
-                if (nlIndex >= 0) {
-                    offset = nlIndex + 1;
-                    lines.add(offset);
-                } else {
-                    break;
+            int[] nlOffsets = new int[Math.max(16, textLength / 32)];
+            int lines = 1;
+            for (int offset = 0; offset < textLength; offset++) {
+                if (text.charAt(offset) == '\n') {
+                    if (lines + 2 > nlOffsets.length) {
+                        nlOffsets = Arrays.copyOf(nlOffsets, nlOffsets.length * 2);
+                    }
+                    nlOffsets[lines++] = offset + 1;
                 }
             }
-            lines.add(Integer.MAX_VALUE);
-
-            final int[] nlOffsets = new int[lines.size()];
-            for (int line = 0; line < lines.size(); line++) {
-                nlOffsets[line] = lines.get(line);
-            }
+            nlOffsets[lines++] = Integer.MAX_VALUE;
+            nlOffsets = Arrays.copyOf(nlOffsets, lines);
 
             final boolean finalNL = textLength > 0 && (textLength == nlOffsets[nlOffsets.length - 2]);
 
@@ -1307,11 +1603,9 @@ public abstract class Source {
                 }
                 throw new IllegalArgumentException("offset out of bounds");
             }
-            int line = 1;
-            while (offset >= nlOffsets[line]) {
-                line++;
-            }
-            return line;
+            // line starts are strictly increasing; find the last one not after the offset
+            final int index = Arrays.binarySearch(nlOffsets, offset);
+            return index >= 0 ? index + 1 : -(index + 1);
         }
 
         /**
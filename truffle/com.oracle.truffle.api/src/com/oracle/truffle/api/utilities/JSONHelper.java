@@ -142,10 +142,15 @@ public class JSONHelper {
 
         protected abstract void appendTo(StringBuilder sb);
 
+        /**
+         * Appends a value. {@link Integer}, {@link Long} and {@link Boolean} values and
+         * <code>null</code> are written as JSON literals; any other value, including other
+         * {@link Number}s, as a quoted string.
+         */
         protected static void appendValue(StringBuilder sb, Object value) {
             if (value instanceof JSONStringBuilder) {
                 ((JSONStringBuilder) value).appendTo(sb);
-            } else if (value instanceof Integer || value instanceof Boolean || value == null) {
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Boolean || value == null) {
                 sb.append(value);
             } else {
                 sb.append(quote(String.valueOf(value)));
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.utilities;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A statistics counter that can be updated from many threads without contending on a single memory
+ * location. Updates go to a shared base value until two threads collide; from then on each thread
+ * adds to one of several cells that are spread over separate cache lines. {@link #get()} sums the
+ * base and all cells, so it is only weakly consistent with concurrent updates.
+ */
+public final class StripedCounter {
+
+    /**
+     * Number of {@code long}s per cell, so that two cells never share a cache line.
+     */
+    private static final int CELL_PADDING = 8;
+    private static final int STRIPES = stripes();
+
+    private static final AtomicLongFieldUpdater<StripedCounter> BASE_UPDATER = AtomicLongFieldUpdater.newUpdater(StripedCounter.class, "base");
+    private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> CELLS_UPDATER = AtomicReferenceFieldUpdater.newUpdater(StripedCounter.class,
+                    AtomicLongArray.class, "cells");
+
+    private volatile long base;
+    private volatile AtomicLongArray cells;
+
+    public StripedCounter() {
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    @TruffleBoundary
+    public void add(long delta) {
+        AtomicLongArray cs = cells;
+        if (cs == null) {
+            long b = base;
+            if (BASE_UPDATER.compareAndSet(this, b, b + delta)) {
+                return;
+            }
+            CELLS_UPDATER.compareAndSet(this, null, new AtomicLongArray(STRIPES * CELL_PADDING));
+            cs = cells;
+        }
+        cs.getAndAdd(cellIndex(), delta);
+    }
+
+    public long get() {
+        long sum = base;
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int i = 0; i < cs.length(); i += CELL_PADDING) {
+                sum += cs.get(i);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Resets the counter to zero. Updates that happen concurrently may or may not be lost.
+     */
+    public void reset() {
+        base = 0;
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int i = 0; i < cs.length(); i += CELL_PADDING) {
+                cs.set(i, 0);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+
+    private static int cellIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash >>> 16) & (STRIPES - 1)) * CELL_PADDING;
+    }
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors * 2 && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.AllocationSite;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+
+public class AllocationSiteTest {
+    /** Same as the sample interval of the allocation sites of the default layout. */
+    private static final int SAMPLE_INTERVAL = 64;
+    /** More properties than fit into the fields of the basic object. */
+    private static final int PROPERTIES = 10;
+
+    private final Layout layout = Layout.createLayout();
+    private final Shape rootShape = layout.createShape(new ObjectType());
+
+    private static void grow(DynamicObject object) {
+        for (int i = 0; i < PROPERTIES; i++) {
+            object.define("p" + i, "v" + i);
+        }
+    }
+
+    /**
+     * Allocates the objects up to, but excluding, the next sample.
+     */
+    private static void allocateUntilSample(AllocationSite site) {
+        for (int i = 1; i < SAMPLE_INTERVAL; i++) {
+            site.newInstance();
+        }
+    }
+
+    private static Object[] objectStore(DynamicObject object) throws Exception {
+        Field field = object.getClass().getDeclaredField("objext");
+        field.setAccessible(true);
+        return (Object[]) field.get(object);
+    }
+
+    @Test
+    public void testLearnsGrownShape() {
+        AllocationSite site = layout.createAllocationSite(rootShape);
+        assertSame(rootShape, site.getShape());
+        assertNull(site.getPredictedShape());
+
+        DynamicObject sample = site.newInstance();
+        grow(sample);
+        allocateUntilSample(site);
+        assertNull("Feedback is only recorded when the next sample is taken", site.getPredictedShape());
+
+        DynamicObject next = site.newInstance();
+        assertSame(sample.getShape(), site.getPredictedShape());
+        assertSame("Objects keep starting out in the initial shape", rootShape, next.getShape());
+    }
+
+    @Test
+    public void testPresizesObjects() throws Exception {
+        AllocationSite site = layout.createAllocationSite(rootShape);
+        DynamicObject sample = site.newInstance();
+        grow(sample);
+        allocateUntilSample(site);
+        site.newInstance();
+        ShapeImpl predicted = (ShapeImpl) site.getPredictedShape();
+        assertTrue(predicted.getObjectArrayCapacity() > 0);
+
+        DynamicObject presized = site.newInstance();
+        Object[] store = objectStore(presized);
+        assertNotNull(store);
+        assertTrue(store.length >= predicted.getObjectArrayCapacity());
+        grow(presized);
+        assertSame("Growing into the predicted shape does not reallocate", store, objectStore(presized));
+        for (int i = 0; i < PROPERTIES; i++) {
+            assertEquals("v" + i, presized.get("p" + i));
+        }
+
+        DynamicObject plain = layout.newInstance(rootShape);
+        assertNull(objectStore(plain));
+    }
+
+    @Test
+    public void testUnchangedSampleClearsPrediction() {
+        AllocationSite site = layout.createAllocationSite(rootShape);
+        DynamicObject sample = site.newInstance();
+        grow(sample);
+        allocateUntilSample(site);
+        DynamicObject unchanged = site.newInstance();
+        assertSame(sample.getShape(), site.getPredictedShape());
+
+        allocateUntilSample(site);
+        site.newInstance();
+        assertSame(rootShape, unchanged.getShape());
+        assertNull(site.getPredictedShape());
+    }
+
+    @Test
+    public void testNoFeedbackWhenDisabled() {
+        boolean saved = ObjectStorageOptions.AllocationSiteFeedback;
+        ObjectStorageOptions.AllocationSiteFeedback = false;
+        try {
+            AllocationSite site = layout.createAllocationSite(rootShape);
+            for (int i = 0; i < 2 * SAMPLE_INTERVAL + 1; i++) {
+                grow(site.newInstance());
+            }
+            assertNull(site.getPredictedShape());
+        } finally {
+            ObjectStorageOptions.AllocationSiteFeedback = saved;
+        }
+    }
+
+    @Test
+    public void testDefaultAllocationSite() {
+        Layout delegating = new DelegatingLayout(layout);
+        AllocationSite site = delegating.createAllocationSite(rootShape);
+        assertSame(rootShape, site.getShape());
+        for (int i = 0; i < 2 * SAMPLE_INTERVAL + 1; i++) {
+            DynamicObject object = site.newInstance();
+            assertSame(rootShape, object.getShape());
+            grow(object);
+        }
+        assertNull(site.getPredictedShape());
+    }
+
+    /**
+     * A layout that does not override {@link Layout#createAllocationSite(Shape)}.
+     */
+    private static final class DelegatingLayout extends Layout {
+        private final Layout delegate;
+
+        DelegatingLayout(Layout delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public DynamicObject newInstance(Shape shape) {
+            return delegate.newInstance(shape);
+        }
+
+        @Override
+        public Class<? extends DynamicObject> getType() {
+            return delegate.getType();
+        }
+
+        @Override
+        public Shape createShape(ObjectType operations) {
+            return delegate.createShape(operations);
+        }
+
+        @Override
+        public Shape createShape(ObjectType operations, Object sharedData) {
+            return delegate.createShape(operations, sharedData);
+        }
+
+        @Override
+        public Shape createShape(ObjectType operations, Object sharedData, int id) {
+            return delegate.createShape(operations, sharedData, id);
+        }
+
+        @Override
+        public Shape.Allocator createAllocator() {
+            return delegate.createAllocator();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+
+@RunWith(Parameterized.class)
+public class CopyOnWriteCloneTest {
+    /** Enough properties of each kind to spill into the extension arrays. */
+    private static final int PROPERTIES = 10;
+
+    @Parameters(name = "copyOnWrite={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[]{false}, new Object[]{true});
+    }
+
+    private final Layout layout;
+    private final Shape rootShape;
+
+    public CopyOnWriteCloneTest(boolean copyOnWrite) {
+        boolean saved = ObjectStorageOptions.CopyOnWriteClone;
+        ObjectStorageOptions.CopyOnWriteClone = copyOnWrite;
+        try {
+            this.layout = Layout.createLayout();
+        } finally {
+            ObjectStorageOptions.CopyOnWriteClone = saved;
+        }
+        this.rootShape = layout.createShape(new ObjectType());
+    }
+
+    private DynamicObject createObject() {
+        DynamicObject object = layout.newInstance(rootShape);
+        for (int i = 0; i < PROPERTIES; i++) {
+            object.define("o" + i, "value" + i);
+            object.define("l" + i, (long) i);
+        }
+        return object;
+    }
+
+    private static void assertValues(DynamicObject object, String objectSuffix, long primitiveOffset) {
+        for (int i = 0; i < PROPERTIES; i++) {
+            assertEquals("value" + i + objectSuffix, object.get("o" + i));
+            assertEquals(i + primitiveOffset, object.get("l" + i));
+        }
+    }
+
+    private static void update(DynamicObject object, String objectSuffix, long primitiveOffset) {
+        for (int i = 0; i < PROPERTIES; i++) {
+            object.set("o" + i, "value" + i + objectSuffix);
+            object.set("l" + i, i + primitiveOffset);
+        }
+    }
+
+    @Test
+    public void testWriteToCopy() {
+        DynamicObject original = createObject();
+        DynamicObject copy = original.copy(original.getShape());
+        assertEquals(original.getShape(), copy.getShape());
+        assertValues(copy, "", 0);
+
+        update(copy, "'", 100);
+        assertValues(copy, "'", 100);
+        assertValues(original, "", 0);
+    }
+
+    @Test
+    public void testWriteToOriginal() {
+        DynamicObject original = createObject();
+        DynamicObject copy = original.copy(original.getShape());
+
+        update(original, "'", 100);
+        assertValues(original, "'", 100);
+        assertValues(copy, "", 0);
+
+        update(copy, "''", 200);
+        assertValues(copy, "''", 200);
+        assertValues(original, "'", 100);
+    }
+
+    @Test
+    public void testRepeatedCopies() {
+        DynamicObject original = createObject();
+        DynamicObject[] copies = new DynamicObject[5];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = original.copy(original.getShape());
+        }
+        for (int i = 0; i < copies.length; i++) {
+            update(copies[i], "#" + i, i * 100);
+        }
+        assertValues(original, "", 0);
+        for (int i = 0; i < copies.length; i++) {
+            assertValues(copies[i], "#" + i, i * 100);
+        }
+    }
+
+    @Test
+    public void testGrowAndRemoveAfterCopy() {
+        DynamicObject original = createObject();
+        DynamicObject copy = original.copy(original.getShape());
+
+        for (int i = 0; i < PROPERTIES; i++) {
+            copy.define("extra" + i, "extra" + i);
+        }
+        copy.delete("o0");
+        copy.set("l1", "generalized");
+        copy.set("o2", "value2'");
+
+        assertValues(original, "", 0);
+        assertEquals(null, copy.get("o0"));
+        assertEquals("generalized", copy.get("l1"));
+        assertEquals("value2'", copy.get("o2"));
+        assertEquals("extra" + (PROPERTIES - 1), copy.get("extra" + (PROPERTIES - 1)));
+    }
+}
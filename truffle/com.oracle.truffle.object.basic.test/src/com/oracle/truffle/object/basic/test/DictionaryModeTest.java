@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.debug.ShapeTreeReport;
+
+public class DictionaryModeTest {
+    private static final int MANY = 2 * ObjectStorageOptions.DictionaryModeThreshold;
+
+    private final Layout layout = Layout.newLayout().setDictionaryMode(true).build();
+    private final Shape rootShape = layout.createShape(new ObjectType());
+
+    private DynamicObject createObject(String prefix, int count) {
+        return createObject(prefix, count, 0);
+    }
+
+    private DynamicObject createObject(String prefix, int count, int first) {
+        DynamicObject object = layout.newInstance(rootShape);
+        for (int i = first; i < count; i++) {
+            object.define(prefix + i, i % 2 == 0 ? (Object) (long) i : "v" + i);
+        }
+        return object;
+    }
+
+    private static void assertValues(DynamicObject object, String prefix, int count) {
+        assertEquals(count, object.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? (Object) (long) i : "v" + i, object.get(prefix + i));
+            assertTrue(object.containsKey(prefix + i));
+        }
+    }
+
+    @Test
+    public void testSwitchOnDepth() {
+        DynamicObject small = createObject("p", 10);
+        assertFalse(small.getShape().isDictionary());
+
+        DynamicObject object = createObject("p", MANY);
+        assertTrue(object.getShape().isDictionary());
+        assertValues(object, "p", MANY);
+        assertFalse(object.containsKey("p" + MANY));
+        assertNull(object.get("p" + MANY));
+    }
+
+    @Test
+    public void testSharedShape() {
+        DynamicObject first = createObject("a", MANY);
+        DynamicObject second = createObject("b", MANY);
+        assertSame(first.getShape(), second.getShape());
+        assertValues(first, "a", MANY);
+        assertValues(second, "b", MANY);
+
+        // the shape tree stops growing once objects switch to dictionary mode
+        long shapeCount = ShapeTreeReport.create(rootShape).getShapeCount();
+        createObject("c", MANY);
+        assertEquals(shapeCount + ObjectStorageOptions.DictionaryModeThreshold, ShapeTreeReport.create(rootShape).getShapeCount());
+    }
+
+    @Test
+    public void testSwitchOnDelete() {
+        DynamicObject object = createObject("p", 10);
+        assertTrue(object.delete("p9"));
+        assertFalse(object.getShape().isDictionary());
+
+        int threshold = ObjectStorageOptions.DictionaryModeDeleteThreshold;
+        for (int i = 0; i < threshold - 1; i++) {
+            assertTrue(object.delete("p" + i));
+            assertFalse(object.getShape().isDictionary());
+        }
+        assertTrue(object.delete("p" + (threshold - 1)));
+        assertTrue(object.getShape().isDictionary());
+        assertFalse(object.containsKey("p" + (threshold - 1)));
+        assertFalse(object.delete("p" + (threshold - 1)));
+        assertEquals(9 - threshold, object.size());
+        assertEquals("v7", object.get("p7"));
+        assertEquals(9 - threshold, object.getKeyList().size());
+    }
+
+    @Test
+    public void testDeleteKeepsNoCounterInTheObject() {
+        DynamicObject object = createObject("p", 10);
+        assertTrue(object.delete("p0"));
+        assertFalse(object.getShape().isDictionary());
+        assertEquals("No hidden property is added", object.size(), object.getShape().getPropertyListInternal(true).size());
+        assertSame("The object takes the shape of one that never had the property", createObject("p", 10, 1).getShape(), object.getShape());
+    }
+
+    @Test
+    public void testKeyOrder() {
+        DynamicObject object = createObject("p", MANY);
+        assertEquals(0, object.getShape().getKeyList().size());
+        List<Object> keys = object.getKeyList();
+        assertEquals(MANY, keys.size());
+        for (int i = 0; i < MANY; i++) {
+            assertEquals("p" + i, keys.get(i));
+        }
+
+        assertTrue(object.delete("p1"));
+        object.define("p2", "redefined");
+        object.define("p1", "appended");
+        keys = object.getKeyList();
+        assertEquals("p0", keys.get(0));
+        assertEquals("p2", keys.get(1));
+        assertEquals("p1", keys.get(MANY - 1));
+
+        List<Map.Entry<Object, Object>> entries = object.getEntryList();
+        assertEquals(MANY, entries.size());
+        assertEquals("p2", entries.get(1).getKey());
+        assertEquals("redefined", entries.get(1).getValue());
+        assertEquals("appended", entries.get(MANY - 1).getValue());
+    }
+
+    @Test
+    public void testFlags() {
+        DynamicObject object = layout.newInstance(rootShape);
+        object.define("flagged", 1L, 42);
+        for (int i = 0; i < MANY; i++) {
+            object.define("p" + i, (long) i);
+        }
+        assertTrue(object.getShape().isDictionary());
+        assertEquals(42, object.getFlags("flagged", -1));
+        assertEquals(0, object.getFlags("p0", -1));
+        assertEquals(-1, object.getFlags("missing", -1));
+
+        assertTrue(object.set("flagged", 2L));
+        assertEquals(42, object.getFlags("flagged", -1));
+        object.define("other", 3L, 7);
+        assertEquals(7, object.getFlags("other", -1));
+    }
+
+    @Test
+    public void testSetDefineDelete() {
+        DynamicObject object = createObject("p", MANY);
+        assertTrue(object.set("p1", "new"));
+        assertFalse(object.set("missing", "new"));
+        assertFalse(object.containsKey("missing"));
+        object.define("p2", "generalized");
+        assertEquals("new", object.get("p1"));
+        assertEquals("generalized", object.get("p2"));
+
+        for (int i = 0; i < MANY; i += 2) {
+            assertTrue(object.delete("p" + i));
+        }
+        assertEquals(MANY / 2, object.size());
+        for (int i = 0; i < MANY; i++) {
+            assertEquals(i % 2 != 0, object.containsKey("p" + i));
+        }
+        for (int i = 0; i < MANY; i += 2) {
+            object.define("p" + i, "again" + i);
+        }
+        assertEquals(MANY, object.size());
+        assertEquals("again0", object.get("p0"));
+    }
+
+    @Test
+    public void testHiddenKey() {
+        HiddenKey hidden = new HiddenKey("hidden");
+        DynamicObject object = layout.newInstance(rootShape);
+        object.define(hidden, "internal");
+        int threshold = ObjectStorageOptions.DictionaryModeDeleteThreshold;
+        for (int i = 0; i <= threshold; i++) {
+            object.define("p" + i, (long) i);
+        }
+        for (int i = 0; i < threshold; i++) {
+            assertTrue(object.delete("p" + i));
+        }
+        assertTrue(object.getShape().isDictionary());
+        assertEquals(1, object.size());
+        assertEquals(1, object.getKeyList().size());
+        assertEquals("internal", object.get(hidden));
+    }
+
+    @Test
+    public void testCopy() {
+        DynamicObject object = createObject("p", MANY);
+        DynamicObject copy = object.copy(object.getShape());
+        copy.set("p1", "changed");
+        copy.delete("p3");
+        assertValues(object, "p", MANY);
+        assertEquals("changed", copy.get("p1"));
+        assertFalse(copy.containsKey("p3"));
+    }
+
+    @Test
+    public void testDisabled() {
+        Layout plainLayout = Layout.createLayout();
+        DynamicObject object = plainLayout.newInstance(plainLayout.createShape(new ObjectType()));
+        for (int i = 0; i < MANY; i++) {
+            object.define("p" + i, (long) i);
+        }
+        assertTrue(object.delete("p0"));
+        assertFalse(object.getShape().isDictionary());
+        assertEquals(MANY - 1, object.size());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+
+public class PackedPrimitiveFieldsTest {
+
+    private static Layout createLayout(boolean packed) {
+        boolean saved = ObjectStorageOptions.PackedPrimitiveFields;
+        ObjectStorageOptions.PackedPrimitiveFields = packed;
+        try {
+            return Layout.createLayout();
+        } finally {
+            ObjectStorageOptions.PackedPrimitiveFields = saved;
+        }
+    }
+
+    private static DynamicObject createObject(Layout layout) {
+        Shape rootShape = layout.createShape(new ObjectType());
+        DynamicObject object = layout.newInstance(rootShape);
+        object.define("i0", Integer.MIN_VALUE);
+        object.define("b0", true);
+        object.define("i1", -1);
+        object.define("b1", false);
+        return object;
+    }
+
+    private static void assertValues(DynamicObject object) {
+        assertEquals(Integer.MIN_VALUE, object.get("i0"));
+        assertEquals(true, object.get("b0"));
+        assertEquals(-1, object.get("i1"));
+        assertEquals(false, object.get("b1"));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        DynamicObject object = createObject(createLayout(true));
+        assertValues(object);
+
+        object.set("i0", Integer.MAX_VALUE);
+        object.set("b0", false);
+        assertEquals(Integer.MAX_VALUE, object.get("i0"));
+        assertEquals(false, object.get("b0"));
+        assertEquals(-1, object.get("i1"));
+        assertEquals(false, object.get("b1"));
+
+        object.set("b1", true);
+        object.set("i1", 42);
+        assertEquals(Integer.MAX_VALUE, object.get("i0"));
+        assertEquals(false, object.get("b0"));
+        assertEquals(42, object.get("i1"));
+        assertEquals(true, object.get("b1"));
+    }
+
+    @Test
+    public void testFootprint() {
+        ShapeImpl unpacked = (ShapeImpl) createObject(createLayout(false)).getShape();
+        ShapeImpl packed = (ShapeImpl) createObject(createLayout(true)).getShape();
+        assertEquals(2, packed.getPrimitiveFieldSize());
+        assertTrue(packed.getPrimitiveFieldSize() + packed.getPrimitiveArraySize() < unpacked.getPrimitiveFieldSize() + unpacked.getPrimitiveArraySize());
+    }
+
+    @Test
+    public void testGeneralize() {
+        DynamicObject object = createObject(createLayout(true));
+        object.set("i0", "string");
+        object.set("b1", 3.5);
+        assertEquals("string", object.get("i0"));
+        assertEquals(true, object.get("b0"));
+        assertEquals(-1, object.get("i1"));
+        assertEquals(3.5, object.get("b1"));
+
+        object.define("i2", 7);
+        object.set("b0", false);
+        assertEquals(7, object.get("i2"));
+        assertEquals(false, object.get("b0"));
+        assertEquals(-1, object.get("i1"));
+    }
+
+    @Test
+    public void testDeleteAndCopy() {
+        DynamicObject object = createObject(createLayout(true));
+        object.delete("b0");
+        object.define("i2", 12345);
+        object.set("i0", 6);
+        assertEquals(6, object.get("i0"));
+        assertEquals(-1, object.get("i1"));
+        assertEquals(false, object.get("b1"));
+        assertEquals(12345, object.get("i2"));
+
+        DynamicObject copy = object.copy(object.getShape());
+        copy.set("i1", 99);
+        assertEquals(-1, object.get("i1"));
+        assertEquals(99, copy.get("i1"));
+        assertEquals(12345, copy.get("i2"));
+    }
+}
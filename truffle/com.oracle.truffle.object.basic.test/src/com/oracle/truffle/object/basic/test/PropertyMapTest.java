@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+
+/**
+ * Checks that property lookups through the hash index of large property maps agree with walking
+ * the property list, on both sides of {@link ObjectStorageOptions#PropertyMapIndexThreshold}.
+ */
+public class PropertyMapTest {
+    private static final int MANY = 3 * ObjectStorageOptions.PropertyMapIndexThreshold;
+
+    private final Layout layout = Layout.createLayout();
+    private final Shape rootShape = layout.createShape(new ObjectType());
+
+    /**
+     * A property key with a chosen hash code, to provoke collisions in the index.
+     */
+    private static final class Key {
+        private final String name;
+        private final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static Property findInList(Shape shape, Object key) {
+        for (Property property : shape.getPropertyListInternal(true)) {
+            if (property.getKey().equals(key)) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    private static void assertLookups(Shape shape, List<Object> present, List<Object> absent) {
+        for (Object key : present) {
+            Property property = shape.getProperty(key);
+            assertSame(key.toString(), findInList(shape, key), property);
+            assertTrue(key.toString(), shape.hasProperty(key));
+        }
+        for (Object key : absent) {
+            assertNull(key.toString(), shape.getProperty(key));
+            assertFalse(key.toString(), shape.hasProperty(key));
+        }
+        assertEquals(present.size(), shape.getPropertyCount());
+    }
+
+    @Test
+    public void testLookupAcrossThreshold() {
+        DynamicObject object = layout.newInstance(rootShape);
+        List<Object> keys = new ArrayList<>();
+        List<Object> absent = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            absent.add("absent" + i);
+        }
+        for (int i = 0; i < MANY; i++) {
+            String key = "p" + i;
+            object.define(key, i);
+            keys.add(key);
+            assertLookups(object.getShape(), keys, absent);
+        }
+    }
+
+    @Test
+    public void testHashCollisions() {
+        DynamicObject object = layout.newInstance(rootShape);
+        List<Object> keys = new ArrayList<>();
+        List<Object> absent = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            /* All keys share their hash with others, in the low bits, the high bits or entirely. */
+            int hash = i % 3 == 0 ? 42 : i % 3 == 1 ? (i << 27) | 42 : i & ~31;
+            absent.add(new Key("absent" + i, hash));
+            Key key = new Key("k" + i, hash);
+            object.define(key, "v" + i);
+            keys.add(key);
+            assertLookups(object.getShape(), keys, absent);
+        }
+        for (int i = 0; i < MANY; i++) {
+            assertEquals("v" + i, object.get(keys.get(i)));
+        }
+        assertEquals("Equal keys find the same property", "v3", object.get(new Key("k3", 42)));
+    }
+
+    @Test
+    public void testRemoval() {
+        DynamicObject object = layout.newInstance(rootShape);
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            Object key = i % 2 == 0 ? "p" + i : new Key("k" + i, 7);
+            object.define(key, i);
+            keys.add(key);
+        }
+        List<Object> removed = new ArrayList<>();
+        while (keys.size() > 1) {
+            /* Remove from the middle so that the later properties are re-added to the map. */
+            Object key = keys.remove(keys.size() / 2);
+            assertTrue(object.delete(key));
+            removed.add(key);
+            assertLookups(object.getShape(), keys, removed);
+        }
+        for (int i = 0; i < MANY; i++) {
+            Object key = "q" + i;
+            object.define(key, i);
+            keys.add(key);
+            removed.remove(key);
+            assertLookups(object.getShape(), keys, removed);
+        }
+    }
+
+    @Test
+    public void testReplacedProperty() {
+        DynamicObject object = layout.newInstance(rootShape);
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            object.define("p" + i, i);
+            keys.add("p" + i);
+        }
+        Property before = object.getShape().getProperty("p1");
+        object.set("p1", "changes the type");
+        Shape shape = object.getShape();
+        assertFalse(before == shape.getProperty("p1"));
+        assertLookups(shape, keys, new ArrayList<>());
+        assertEquals("changes the type", object.get("p1"));
+        assertEquals(keys, shape.getKeyList());
+    }
+}
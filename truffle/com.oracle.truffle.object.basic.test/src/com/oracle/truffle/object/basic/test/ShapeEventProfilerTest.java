@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.debug.ShapeEventProfiler;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Event;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Snapshot;
+
+public class ShapeEventProfilerTest {
+    private static final Layout LAYOUT = Layout.createLayout();
+
+    @Test
+    public void testCountsPerObjectType() {
+        ObjectType typeA = new ObjectType();
+        ObjectType typeB = new ObjectType();
+        Shape shapeA = LAYOUT.createShape(typeA);
+        Shape shapeB = LAYOUT.createShape(typeB);
+
+        ShapeEventProfiler profiler = new ShapeEventProfiler(1);
+        profiler.recordEvent(shapeA, Event.TRANSITION_HIT);
+        profiler.recordEvent(shapeA, Event.TRANSITION_HIT);
+        profiler.recordEvent(shapeA, Event.RESHAPE);
+        profiler.recordEvent(shapeB, Event.TRANSITION_HIT);
+
+        Snapshot snapshot = profiler.snapshot();
+        assertEquals(2, snapshot.getObjectTypes().size());
+        assertEquals(2, snapshot.get(typeA, Event.TRANSITION_HIT));
+        assertEquals(1, snapshot.get(typeA, Event.RESHAPE));
+        assertEquals(0, snapshot.get(typeA, Event.GENERALIZATION));
+        assertEquals(1, snapshot.get(typeB, Event.TRANSITION_HIT));
+        assertEquals(3, snapshot.getTotal(Event.TRANSITION_HIT));
+
+        profiler.reset();
+        assertEquals(0, profiler.snapshot().getTotal(Event.TRANSITION_HIT));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final Shape shape = LAYOUT.createShape(new ObjectType());
+        final ShapeEventProfiler profiler = new ShapeEventProfiler(1);
+        final int perThread = 10000;
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perThread; j++) {
+                        profiler.recordEvent(shape, Event.EXTENSION_ARRAY_GROWTH);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * perThread, profiler.snapshot().getTotal(Event.EXTENSION_ARRAY_GROWTH));
+    }
+
+    @Test
+    public void testSampling() {
+        Shape shape = LAYOUT.createShape(new ObjectType());
+        ShapeEventProfiler profiler = new ShapeEventProfiler(8);
+        int events = 80000;
+        for (int i = 0; i < events; i++) {
+            profiler.recordEvent(shape, Event.TRANSITION_HIT);
+        }
+        long estimate = profiler.snapshot().getTotal(Event.TRANSITION_HIT);
+        assertEquals(0, estimate % 8);
+        assertTrue(String.valueOf(estimate), Math.abs(estimate - events) < events / 10);
+    }
+
+    @Test
+    public void testJSONIncludesShapeTree() {
+        ObjectType type = new ObjectType();
+        Shape root = LAYOUT.createShape(type);
+        DynamicObject object = LAYOUT.newInstance(root);
+        object.define("x", 1);
+
+        ShapeEventProfiler profiler = new ShapeEventProfiler(1);
+        profiler.recordEvent(object.getShape(), Event.TRANSITION_MISS);
+        String json = profiler.snapshot().toString();
+        assertTrue(json, json.contains("\"transitionMisses\": 1"));
+        assertTrue(json, json.contains("\"shapes\": 2"));
+        assertTrue(json, json.contains("\"predecessor\""));
+    }
+
+    @Test
+    public void testSkippedEventsCreateNoProfile() {
+        Shape shape = LAYOUT.createShape(new ObjectType());
+        ShapeEventProfiler profiler = new ShapeEventProfiler(Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            profiler.recordEvent(shape, Event.TRANSITION_MISS);
+        }
+        assertTrue(profiler.snapshot().getObjectTypes().isEmpty());
+    }
+
+    @Test
+    public void testRootsRecordedOnce() {
+        ObjectType type = new ObjectType();
+        Shape first = LAYOUT.createShape(type);
+        Shape second = LAYOUT.createShape(type);
+
+        ShapeEventProfiler profiler = new ShapeEventProfiler(1);
+        for (int i = 0; i < 3; i++) {
+            profiler.recordEvent(first, Event.TRANSITION_MISS);
+            profiler.recordEvent(second, Event.TRANSITION_MISS);
+        }
+        String json = profiler.snapshot().toString();
+        assertEquals(json, 2, json.split("\"report\"", -1).length - 1);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.debug.ShapeTreeReport;
+
+public class ShapeTreeReportTest {
+
+    private final Layout layout = Layout.createLayout();
+    private final Shape rootShape = layout.createShape(new ObjectType());
+
+    private DynamicObject createObject(String... keys) {
+        DynamicObject object = layout.newInstance(rootShape);
+        for (String key : keys) {
+            object.define(key, key);
+        }
+        return object;
+    }
+
+    @Test
+    public void testEmptyTree() {
+        ShapeTreeReport report = ShapeTreeReport.create(rootShape);
+        assertEquals(1, report.getShapeCount());
+        assertEquals(1, report.getLeafCount());
+        assertEquals(0, report.getDirectTransitionCount());
+        assertEquals(0, report.getIndirectTransitionCount());
+        assertEquals(0, report.getInlineTransitionCount());
+        assertEquals(0, report.getTransitionMapCount());
+        assertEquals(0, report.getPropertyMapCount());
+        assertEquals(0, report.getMaxDepth());
+        assertEquals(0, report.getMaxPropertyCount());
+        assertTrue(report.getRetainedSize() > 0);
+    }
+
+    @Test
+    public void testChain() {
+        DynamicObject object = createObject("a", "b", "c");
+        ShapeTreeReport report = ShapeTreeReport.create(object.getShape());
+        assertEquals("The report starts at the root", 4, report.getShapeCount());
+        assertEquals(1, report.getLeafCount());
+        assertEquals(3, report.getDirectTransitionCount());
+        assertEquals(0, report.getIndirectTransitionCount());
+        assertEquals("Single transitions are stored inline", 3, report.getInlineTransitionCount());
+        assertEquals(0, report.getTransitionMapCount());
+        assertEquals(3, report.getPropertyMapCount());
+        assertEquals(3, report.getMaxDepth());
+        assertEquals(3, report.getMaxPropertyCount());
+        assertTrue(report.getRetainedSize() > ShapeTreeReport.create(layout.createShape(new ObjectType())).getRetainedSize());
+    }
+
+    @Test
+    public void testBranches() {
+        createObject("a", "b");
+        createObject("a", "c");
+        createObject("d");
+        ShapeTreeReport report = ShapeTreeReport.create(rootShape);
+        assertEquals(5, report.getShapeCount());
+        assertEquals(3, report.getLeafCount());
+        assertEquals(4, report.getDirectTransitionCount());
+        assertEquals("The root and shape {a} branch", 2, report.getTransitionMapCount());
+        assertEquals(0, report.getInlineTransitionCount());
+        assertEquals("Shapes share the property maps of their parents", 4, report.getPropertyMapCount());
+        assertEquals(2, report.getMaxDepth());
+    }
+
+    @Test
+    public void testRetainedSizeGrows() {
+        long before = ShapeTreeReport.create(rootShape).getRetainedSize();
+        createObject("a");
+        long oneShape = ShapeTreeReport.create(rootShape).getRetainedSize();
+        createObject("b");
+        long branched = ShapeTreeReport.create(rootShape).getRetainedSize();
+        assertTrue(before < oneShape);
+        assertTrue("A transition map costs more than an inline transition", branched - oneShape > oneShape - before);
+    }
+
+    @Test
+    public void testJSON() {
+        createObject("a", "b");
+        ShapeTreeReport report = ShapeTreeReport.create(rootShape);
+        String json = report.toString();
+        assertEquals(report.toJSON().toString(), json);
+        assertTrue(json, json.startsWith("{\"shapes\": 3, \"leaves\": 1, \"directTransitions\": 2, "));
+        assertTrue(json, json.endsWith(", \"retainedSize\": " + report.getRetainedSize() + "}"));
+    }
+}
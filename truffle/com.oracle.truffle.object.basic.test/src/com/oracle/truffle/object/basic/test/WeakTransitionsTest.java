@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.debug.ShapeTreeReport;
+
+public class WeakTransitionsTest {
+    private static final int OBJECTS_PER_ROUND = 1000;
+    private static final int ROUNDS = 10;
+
+    private static Layout createLayout(boolean weakTransitions) {
+        boolean saved = ObjectStorageOptions.WeakTransitions;
+        ObjectStorageOptions.WeakTransitions = weakTransitions;
+        try {
+            return Layout.createLayout();
+        } finally {
+            ObjectStorageOptions.WeakTransitions = saved;
+        }
+    }
+
+    /**
+     * Creates objects whose property names are unique to the round, so that every object adds a
+     * new path to the shape tree.
+     */
+    private static DynamicObject createObjects(Layout layout, Shape rootShape, int round) {
+        DynamicObject last = null;
+        for (int i = 0; i < OBJECTS_PER_ROUND; i++) {
+            DynamicObject object = layout.newInstance(rootShape);
+            object.define("a" + round + "_" + i, "a");
+            object.define("b" + round + "_" + i, "b");
+            object.define("c" + round + "_" + i, "c");
+            last = object;
+        }
+        return last;
+    }
+
+    private static ShapeTreeReport collect(Shape rootShape) {
+        ShapeTreeReport report = ShapeTreeReport.create(rootShape);
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            ShapeTreeReport next = ShapeTreeReport.create(rootShape);
+            if (next.getShapeCount() == report.getShapeCount() && i > 0) {
+                break;
+            }
+            report = next;
+        }
+        return report;
+    }
+
+    @Test
+    public void testStrongTransitionsRetainShapes() {
+        Layout layout = createLayout(false);
+        Shape rootShape = layout.createShape(new ObjectType());
+        createObjects(layout, rootShape, 0);
+        assertTrue(collect(rootShape).getShapeCount() > 3 * OBJECTS_PER_ROUND);
+    }
+
+    @Test
+    public void testWeakTransitionsSteadyState() {
+        Layout layout = createLayout(true);
+        Shape rootShape = layout.createShape(new ObjectType());
+        List<DynamicObject> survivors = new ArrayList<>();
+        long firstRetainedSize = 0;
+        ShapeTreeReport report = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            survivors.add(createObjects(layout, rootShape, round));
+            report = collect(rootShape);
+            if (round == 0) {
+                firstRetainedSize = report.getRetainedSize();
+            }
+        }
+
+        // the shape tree only keeps the paths of the surviving objects
+        assertTrue(report.toString(), report.getShapeCount() < OBJECTS_PER_ROUND);
+        assertTrue(report.toString(), report.getRetainedSize() <= 2 * firstRetainedSize + 1024 * ROUNDS);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            DynamicObject survivor = survivors.get(round);
+            assertTrue(survivor.getShape().isValid());
+            assertEquals("c", survivor.get("c" + round + "_" + (OBJECTS_PER_ROUND - 1)));
+        }
+    }
+
+    @Test
+    public void testTransitionReusedWhileReachable() {
+        Layout layout = createLayout(true);
+        Shape rootShape = layout.createShape(new ObjectType());
+        DynamicObject first = layout.newInstance(rootShape);
+        first.define("x", "x");
+        collect(rootShape);
+        DynamicObject second = layout.newInstance(rootShape);
+        second.define("x", "x");
+        assertTrue(first.getShape() == second.getShape());
+    }
+
+    @Test
+    public void testLeafAssumptionAfterCollection() {
+        Layout layout = createLayout(true);
+        Shape rootShape = layout.createShape(new ObjectType());
+        assertTrue(rootShape.getLeafAssumption().isValid());
+        createObjects(layout, rootShape, 0);
+        assertEquals(1, collect(rootShape).getShapeCount());
+        assertFalse(rootShape.getLeafAssumption().isValid());
+    }
+}
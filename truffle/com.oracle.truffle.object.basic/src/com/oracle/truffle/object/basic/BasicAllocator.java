@@ -44,6 +44,7 @@ import com.oracle.truffle.object.basic.BasicLocations.LongArrayLocation;
 import com.oracle.truffle.object.basic.BasicLocations.LongFieldLocation;
 import static com.oracle.truffle.object.basic.BasicLocations.OBJECT_SIZE;
 import com.oracle.truffle.object.basic.BasicLocations.ObjectArrayLocation;
+import com.oracle.truffle.object.basic.BasicLocations.PackedPrimitiveFieldLocation;
 
 public abstract class BasicAllocator extends ShapeImpl.BaseAllocator {
 
@@ -106,7 +107,10 @@ public abstract class BasicAllocator extends ShapeImpl.BaseAllocator {
     @Override
     public Location newIntLocation(boolean useFinal) {
         if (ObjectStorageOptions.PrimitiveLocations && ObjectStorageOptions.IntegerLocations) {
-            if (ObjectStorageOptions.InObjectFields && primitiveFieldSize + LONG_SIZE <= getLayout().getPrimitiveFieldCount()) {
+            InternalLongLocation packedLocation = newPackedPrimitiveFieldLocation();
+            if (packedLocation != null) {
+                return advance(new IntLocationDecorator(packedLocation));
+            } else if (ObjectStorageOptions.InObjectFields && primitiveFieldSize + LONG_SIZE <= getLayout().getPrimitiveFieldCount()) {
                 return advance(new IntLocationDecorator(getLayout().getPrimitiveFieldLocation(primitiveFieldSize)));
             } else if (getLayout().hasPrimitiveExtensionArray() && isPrimitiveExtensionArrayAvailable()) {
                 return advance(new IntLocationDecorator(new LongArrayLocation(primitiveArraySize, getLayout().getPrimitiveArrayLocation())));
@@ -142,7 +146,10 @@ public abstract class BasicAllocator extends ShapeImpl.BaseAllocator {
     @Override
     public Location newBooleanLocation(boolean useFinal) {
         if (ObjectStorageOptions.PrimitiveLocations && ObjectStorageOptions.BooleanLocations) {
-            if (primitiveFieldSize + LONG_SIZE <= getLayout().getPrimitiveFieldCount()) {
+            InternalLongLocation packedLocation = newPackedPrimitiveFieldLocation();
+            if (packedLocation != null) {
+                return advance(new BooleanLocationDecorator(packedLocation));
+            } else if (primitiveFieldSize + LONG_SIZE <= getLayout().getPrimitiveFieldCount()) {
                 return advance(new BooleanLocationDecorator(getLayout().getPrimitiveFieldLocation(primitiveFieldSize)));
             }
         }
@@ -153,6 +160,40 @@ public abstract class BasicAllocator extends ShapeImpl.BaseAllocator {
         return hasPrimitiveArray;
     }
 
+    /**
+     * Whether int and boolean locations may share an in-object primitive field.
+     */
+    protected boolean isPackedPrimitiveFields() {
+        return false;
+    }
+
+    /**
+     * Returns the free upper half of a previously packed field, or the lower half of the next
+     * in-object primitive field, or {@code null} if packing is disabled or no field is left.
+     */
+    private InternalLongLocation newPackedPrimitiveFieldLocation() {
+        if (!isPackedPrimitiveFields() || !ObjectStorageOptions.InObjectFields) {
+            return null;
+        }
+        if (freePrimitiveFieldHalf >= 0) {
+            return new PackedPrimitiveFieldLocation(freePrimitiveFieldHalf, getLayout().getPrimitiveFieldLocation(freePrimitiveFieldHalf), true);
+        } else if (primitiveFieldSize + LONG_SIZE <= getLayout().getPrimitiveFieldCount()) {
+            return new PackedPrimitiveFieldLocation(primitiveFieldSize, getLayout().getPrimitiveFieldLocation(primitiveFieldSize), false);
+        }
+        return null;
+    }
+
+    @Override
+    protected Location newDualLocation(Class<?> type) {
+        if (type == int.class || type == boolean.class) {
+            InternalLongLocation packedLocation = newPackedPrimitiveFieldLocation();
+            if (packedLocation != null) {
+                return new DualLocation((InternalLongLocation) advance((Location) packedLocation), (ObjectLocation) newObjectLocation(false, false), layout, type);
+            }
+        }
+        return super.newDualLocation(type);
+    }
+
     @Override
     protected Location locationForValueUpcast(Object value, Location oldLocation) {
         assert !(value instanceof Class);
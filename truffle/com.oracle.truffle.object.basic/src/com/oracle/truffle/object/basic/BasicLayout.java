@@ -44,8 +44,8 @@ public class BasicLayout extends LayoutImpl {
     private final Location objectArrayLocation;
     private final Location primitiveArrayLocation;
 
-    BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy) {
-        super(allowedImplicitCasts, DynamicObjectBasic.class, strategy);
+    BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy, boolean dictionaryMode) {
+        super(allowedImplicitCasts, DynamicObjectBasic.class, strategy, dictionaryMode);
         this.objectFields = DynamicObjectBasic.OBJECT_FIELD_LOCATIONS;
         this.primitiveFields = DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS;
         this.primitiveArrayLocation = DynamicObjectBasic.PRIMITIVE_ARRAY_LOCATION;
@@ -53,7 +53,7 @@ public class BasicLayout extends LayoutImpl {
     }
 
     static LayoutImpl createLayoutImpl(Layout.Builder builder, LayoutStrategy strategy) {
-        return new BasicLayout(getAllowedImplicitCasts(builder), strategy);
+        return new BasicLayout(getAllowedImplicitCasts(builder), strategy, getDictionaryMode(builder));
     }
 
     @Override
@@ -61,6 +61,11 @@ public class BasicLayout extends LayoutImpl {
         return new DynamicObjectBasic(shape);
     }
 
+    @Override
+    protected DynamicObject newInstance(Shape shape, Shape capacityShape) {
+        return new DynamicObjectBasic(shape, capacityShape);
+    }
+
     @Override
     public Shape createShape(ObjectType operations, Object sharedData, int id) {
         return new ShapeBasic(this, sharedData, operations, id);
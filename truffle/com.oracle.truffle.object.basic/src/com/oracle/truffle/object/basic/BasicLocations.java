@@ -153,7 +153,7 @@ public abstract class BasicLocations {
 
         @Override
         public final void setInternal(DynamicObject store, Object value) throws IncompatibleLocationException {
-            ((Object[]) getArray(store, false))[index] = value;
+            ((DynamicObjectBasic) store).getObjectStoreForWrite()[index] = value;
         }
 
         @Override
@@ -298,7 +298,7 @@ public abstract class BasicLocations {
         }
 
         public final void setLongInternal(DynamicObject store, long value) {
-            ((long[]) getArray(store, false))[index] = value;
+            ((DynamicObjectBasic) store).getPrimitiveStoreForWrite()[index] = value;
         }
 
         @Override
@@ -524,6 +524,116 @@ public abstract class BasicLocations {
         }
     }
 
+    /**
+     * One 32-bit half of an in-object primitive field, used to store two int or boolean properties
+     * in the space of one long. Values are sign-extended on read.
+     * <p>
+     * A write is a non-atomic read-modify-write of the whole field, so it is not safe for objects
+     * that are written concurrently, see
+     * {@link com.oracle.truffle.object.ObjectStorageOptions#PackedPrimitiveFields}.
+     */
+    public static class PackedPrimitiveFieldLocation extends FieldLocation implements InternalLongLocation {
+        private static final long LOWER_MASK = 0xFFFFFFFFL;
+
+        private final InternalLongLocation fieldLocation;
+        private final boolean upperHalf;
+
+        public PackedPrimitiveFieldLocation(int index, InternalLongLocation fieldLocation, boolean upperHalf) {
+            super(index);
+            this.fieldLocation = fieldLocation;
+            this.upperHalf = upperHalf;
+        }
+
+        @Override
+        public final Object get(DynamicObject store, boolean condition) {
+            return getLong(store, condition);
+        }
+
+        @Override
+        public final void setInternal(DynamicObject store, Object value) throws IncompatibleLocationException {
+            if (canStore(value)) {
+                setLongInternal(store, (int) value);
+            } else {
+                throw incompatibleLocation();
+            }
+        }
+
+        @Override
+        public final boolean canStore(Object value) {
+            return value instanceof Integer;
+        }
+
+        public final long getLong(DynamicObject store, boolean condition) {
+            long bits = fieldLocation.getLong(store, condition);
+            return upperHalf ? bits >> 32 : (int) bits;
+        }
+
+        public final long getLong(DynamicObject store, Shape shape) {
+            return getLong(store, checkShape(store, shape));
+        }
+
+        public final void setLongInternal(DynamicObject store, long value) {
+            assert (int) value == value : value;
+            long bits = fieldLocation.getLong(store, false);
+            if (upperHalf) {
+                bits = (bits & LOWER_MASK) | (value << 32);
+            } else {
+                bits = (bits & ~LOWER_MASK) | (value & LOWER_MASK);
+            }
+            fieldLocation.setLongInternal(store, bits);
+        }
+
+        public void setLong(DynamicObject store, long value, Shape shape) {
+            setLongInternal(store, value);
+        }
+
+        public final void setLong(DynamicObject store, long value) {
+            setLong(store, value, null);
+        }
+
+        @Override
+        public final void setLong(DynamicObject store, long value, Shape oldShape, Shape newShape) {
+            store.setShapeAndGrow(oldShape, newShape);
+            setLongInternal(store, value);
+        }
+
+        public final boolean isUpperHalf() {
+            return upperHalf;
+        }
+
+        /**
+         * The upper half lives in a field the lower half has already claimed.
+         */
+        @Override
+        public final int primitiveFieldCount() {
+            return upperHalf ? 0 : LONG_SIZE;
+        }
+
+        public final Class<Long> getType() {
+            return long.class;
+        }
+
+        @Override
+        public final void accept(LocationVisitor locationVisitor) {
+            locationVisitor.visitPackedPrimitiveField(getIndex(), upperHalf);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + (upperHalf ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return super.equals(obj) && upperHalf == ((PackedPrimitiveFieldLocation) obj).upperHalf;
+        }
+
+        @Override
+        protected String getWhereString() {
+            return super.getWhereString() + (upperHalf ? "[hi]" : "[lo]");
+        }
+    }
+
     public abstract static class PrimitiveLocationDecorator extends LocationImpl {
         private final InternalLongLocation longLocation;
 
@@ -31,10 +31,17 @@ import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.object.LayoutImpl;
 import com.oracle.truffle.object.LayoutStrategy;
 import com.oracle.truffle.object.LocationImpl;
+import com.oracle.truffle.object.ObjectStorageOptions;
 import com.oracle.truffle.object.ShapeImpl;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
 
 class DefaultStrategy extends LayoutStrategy {
+    private final boolean packedPrimitiveFields;
+
+    DefaultStrategy() {
+        this.packedPrimitiveFields = ObjectStorageOptions.PackedPrimitiveFields;
+    }
+
     @Override
     public boolean updateShape(DynamicObject object) {
         assert object.getShape().isValid();
@@ -103,5 +110,10 @@ class DefaultStrategy extends LayoutStrategy {
         public Location declaredLocation(Object value) {
             return super.newDeclaredDualLocation(value);
         }
+
+        @Override
+        protected boolean isPackedPrimitiveFields() {
+            return ((DefaultStrategy) layout.getStrategy()).packedPrimitiveFields;
+        }
     }
 }
@@ -29,6 +29,8 @@ import com.oracle.truffle.object.ObjectStorageOptions;
 import com.oracle.truffle.object.ShapeImpl;
 import com.oracle.truffle.object.basic.BasicLocations.SimpleLongFieldLocation;
 import com.oracle.truffle.object.basic.BasicLocations.SimpleObjectFieldLocation;
+import com.oracle.truffle.object.debug.ShapeEventProfiler;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Event;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
@@ -46,11 +48,19 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     @DynamicField private Object object4;
     private Object[] objext;
     private long[] primext;
+    /** Set while {@link #objext} may also be referenced by a copy-on-write clone. */
+    private boolean objextShared;
+    /** Set while {@link #primext} may also be referenced by a copy-on-write clone. */
+    private boolean primextShared;
 
     public DynamicObjectBasic(Shape shape) {
         super(shape);
     }
 
+    protected DynamicObjectBasic(Shape shape, Shape capacityShape) {
+        super(shape, capacityShape);
+    }
+
     @Override
     protected final void initialize(Shape shape) {
         assert getObjectStore(shape) == null;
@@ -70,12 +80,13 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     protected final void growObjectStore(Shape oldShape, Shape newShape) {
         int oldObjectArrayCapacity = ((ShapeImpl) oldShape).getObjectArrayCapacity();
         int newObjectArrayCapacity = ((ShapeImpl) newShape).getObjectArrayCapacity();
-        if (oldObjectArrayCapacity != newObjectArrayCapacity) {
+        if (oldObjectArrayCapacity != newObjectArrayCapacity && storeLength(getObjectStore(oldShape)) < newObjectArrayCapacity) {
             growObjectStoreIntl(oldObjectArrayCapacity, newObjectArrayCapacity, oldShape);
         }
     }
 
     private void growObjectStoreIntl(int oldObjectArrayCapacity, int newObjectArrayCapacity, Shape newShape) {
+        ShapeEventProfiler.record(getShape(), Event.EXTENSION_ARRAY_GROWTH);
         Object[] newObjectStore = new Object[newObjectArrayCapacity];
         if (oldObjectArrayCapacity != 0) {
             // monotonic growth assumption
@@ -99,12 +110,13 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         if (newPrimitiveCapacity == 0) {
             // due to obsolescence, we might have to reserve an empty primitive array slot
             this.setPrimitiveStore(null, newShape);
-        } else if (oldPrimitiveCapacity != newPrimitiveCapacity) {
+        } else if (oldPrimitiveCapacity != newPrimitiveCapacity && storeLength(getPrimitiveStore(oldShape)) < newPrimitiveCapacity) {
             growPrimitiveStoreIntl(oldPrimitiveCapacity, newPrimitiveCapacity, oldShape);
         }
     }
 
     private void growPrimitiveStoreIntl(int oldPrimitiveCapacity, int newPrimitiveCapacity, Shape newShape) {
+        ShapeEventProfiler.record(getShape(), Event.EXTENSION_ARRAY_GROWTH);
         long[] newPrimitiveArray = new long[newPrimitiveCapacity];
         if (oldPrimitiveCapacity != 0) {
             // primitive array can shrink due to type changes
@@ -133,12 +145,25 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         this.setObjectStore(newObjectStore, newShape);
     }
 
+    /**
+     * Length of an extension array, which may exceed the capacity required by the shape if the
+     * object was pre-sized by an allocation site.
+     */
+    private static int storeLength(Object[] store) {
+        return store == null ? 0 : store.length;
+    }
+
+    private static int storeLength(long[] store) {
+        return store == null ? 0 : store.length;
+    }
+
     private Object[] getObjectStore(@SuppressWarnings("unused") Shape currentShape) {
         return objext;
     }
 
     private void setObjectStore(Object[] newArray, @SuppressWarnings("unused") Shape currentShape) {
         objext = newArray;
+        objextShared = false;
     }
 
     private long[] getPrimitiveStore(@SuppressWarnings("unused") Shape currentShape) {
@@ -147,6 +172,31 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
 
     private void setPrimitiveStore(long[] newArray, @SuppressWarnings("unused") Shape currentShape) {
         primext = newArray;
+        primextShared = false;
+    }
+
+    /**
+     * Object extension array to store into. Copied first if it is still shared with a copy-on-write
+     * clone.
+     */
+    final Object[] getObjectStoreForWrite() {
+        if (objextShared) {
+            objext = objext.clone();
+            objextShared = false;
+        }
+        return objext;
+    }
+
+    /**
+     * Primitive extension array to store into. Copied first if it is still shared with a
+     * copy-on-write clone.
+     */
+    final long[] getPrimitiveStoreForWrite() {
+        if (primextShared) {
+            primext = primext.clone();
+            primextShared = false;
+        }
+        return primext;
     }
 
     @Override
@@ -187,11 +237,9 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     @Override
     protected final boolean checkExtensionArrayInvariants(Shape newShape) {
         assert getShape() == newShape;
-        assert (getObjectStore(newShape) == null && ((ShapeImpl) newShape).getObjectArrayCapacity() == 0) ||
-                        (getObjectStore(newShape) != null && getObjectStore(newShape).length == ((ShapeImpl) newShape).getObjectArrayCapacity());
+        assert storeLength(getObjectStore(newShape)) >= ((ShapeImpl) newShape).getObjectArrayCapacity();
         if (((ShapeImpl) newShape).hasPrimitiveArray()) {
-            assert (getPrimitiveStore(newShape) == null && ((ShapeImpl) newShape).getPrimitiveArrayCapacity() == 0) ||
-                            (getPrimitiveStore(newShape) != null && getPrimitiveStore(newShape).length == ((ShapeImpl) newShape).getPrimitiveArrayCapacity());
+            assert storeLength(getPrimitiveStore(newShape)) >= ((ShapeImpl) newShape).getPrimitiveArrayCapacity();
         }
         return true;
     }
@@ -199,6 +247,9 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     @Override
     protected final DynamicObject cloneWithShape(Shape currentShape) {
         assert this.getShape() == currentShape;
+        if (((ShapeImpl) currentShape).getLayout().isCopyOnWriteClone()) {
+            return cloneSharingStores(currentShape);
+        }
         final DynamicObjectBasic clone = (DynamicObjectBasic) super.clone();
         if (this.getObjectStore(currentShape) != null) {
             clone.setObjectStore(this.getObjectStore(currentShape).clone(), currentShape);
@@ -209,8 +260,21 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         return clone;
     }
 
+    /**
+     * Bulk clone that copies the in-object fields but shares the extension arrays with this object.
+     * Whichever of the two objects is written to first copies the array.
+     */
+    private DynamicObjectBasic cloneSharingStores(Shape currentShape) {
+        assert this.getShape() == currentShape;
+        final DynamicObjectBasic clone = (DynamicObjectBasic) super.clone();
+        this.objextShared = clone.objextShared = this.objext != null;
+        this.primextShared = clone.primextShared = this.primext != null;
+        return clone;
+    }
+
     protected final void reshape(ShapeImpl newShape) {
         reshapeCount.inc();
+        ShapeEventProfiler.record(newShape, Event.RESHAPE);
 
         ShapeImpl oldShape = getShape();
         ShapeImpl commonAncestor = ShapeImpl.findCommonAncestor(oldShape, newShape);
@@ -220,7 +284,8 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
                             ShapeImpl.diff(oldShape, newShape));
         }
 
-        DynamicObject original = this.cloneWithShape(oldShape);
+        // the original is only read from, so it can share the extension arrays
+        DynamicObject original = this.cloneSharingStores(oldShape);
         setShapeAndGrow(oldShape, newShape);
         assert !((newShape.hasPrimitiveArray() && newShape.getPrimitiveArrayCapacity() == 0)) || getPrimitiveStore(newShape) == null;
         copyProperties(original, commonAncestor);
@@ -321,6 +386,7 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
             @Override
             public void setInternal(DynamicObject store, Object value) {
                 ((DynamicObjectBasic) store).objext = (Object[]) value;
+                ((DynamicObjectBasic) store).objextShared = false;
             }
         };
 
@@ -333,6 +399,7 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
             @Override
             public void setInternal(DynamicObject store, Object value) {
                 ((DynamicObjectBasic) store).primext = (long[]) value;
+                ((DynamicObjectBasic) store).primextShared = false;
             }
         };
     }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.AllocationSite;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import java.lang.ref.WeakReference;
+
+/**
+ * Allocation site that periodically samples one of its objects and, when the next sample is taken,
+ * records the shape the previous sample has grown into. Later objects are allocated with extension
+ * arrays sized for that shape, so they do not have to reallocate them while properties are added.
+ */
+final class AllocationSiteImpl implements AllocationSite {
+    /** Sample one object out of this many allocations; must be a power of two. */
+    private static final int SAMPLE_INTERVAL = 64;
+
+    private final LayoutImpl layout;
+    private final ShapeImpl shape;
+    private volatile ShapeImpl predictedShape;
+    private volatile WeakReference<DynamicObject> sample;
+    /** Racy counter; a lost update only shifts the next sample. */
+    private int allocationCount;
+
+    AllocationSiteImpl(LayoutImpl layout, ShapeImpl shape) {
+        this.layout = layout;
+        this.shape = shape;
+    }
+
+    public DynamicObject newInstance() {
+        ShapeImpl predicted = predictedShape;
+        DynamicObject object = predicted == null ? layout.newInstance(shape) : layout.newInstance(shape, predicted);
+        if (ObjectStorageOptions.AllocationSiteFeedback && (allocationCount++ & (SAMPLE_INTERVAL - 1)) == 0) {
+            recordSample(object);
+        }
+        return object;
+    }
+
+    @TruffleBoundary
+    private void recordSample(DynamicObject object) {
+        WeakReference<DynamicObject> previous = sample;
+        DynamicObject sampled = previous == null ? null : previous.get();
+        if (sampled != null) {
+            ShapeImpl reached = (ShapeImpl) sampled.getShape();
+            if (reached == shape) {
+                predictedShape = null;
+            } else if (reached.getObjectArrayCapacity() >= shape.getObjectArrayCapacity() && reached.getPrimitiveArrayCapacity() >= shape.getPrimitiveArrayCapacity()) {
+                predictedShape = reached;
+            }
+        }
+        sample = new WeakReference<>(object);
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public Shape getPredictedShape() {
+        return predictedShape;
+    }
+
+    @Override
+    public String toString() {
+        return "AllocationSite[shape=" + shape + ", predicted=" + predictedShape + "]";
+    }
+}
@@ -36,11 +36,16 @@ import java.util.Set;
 
 /**
  * Implementation of {@link PropertyMap} as a reverse-order cons (snoc) list.
+ *
+ * Maps with at least {@link ObjectStorageOptions#PropertyMapIndexThreshold} properties additionally
+ * carry a {@link PropertyTrie} index that is shared with their parent map, so that lookups do not
+ * have to walk the list.
  */
 final class ConsListPropertyMap extends PropertyMap {
     private final ConsListPropertyMap car;
     private final Property cdr;
     private final int size;
+    private final PropertyTrie index;
 
     private static final ConsListPropertyMap EMPTY = new ConsListPropertyMap();
 
@@ -48,12 +53,25 @@ final class ConsListPropertyMap extends PropertyMap {
         this.car = null;
         this.cdr = null;
         this.size = 0;
+        this.index = null;
     }
 
     private ConsListPropertyMap(ConsListPropertyMap parent, Property added) {
         this.car = Objects.requireNonNull(parent);
         this.cdr = added;
         this.size = parent.size + 1;
+        this.index = size >= ObjectStorageOptions.PropertyMapIndexThreshold ? parent.getOrCreateIndex().put(added) : null;
+    }
+
+    private PropertyTrie getOrCreateIndex() {
+        if (index != null) {
+            return index;
+        }
+        PropertyTrie trie = PropertyTrie.EMPTY;
+        for (Iterator<Property> iterator = orderedValueIterator(); iterator.hasNext();) {
+            trie = trie.put(iterator.next());
+        }
+        return trie;
     }
 
     public static ConsListPropertyMap empty() {
@@ -69,17 +87,12 @@ final class ConsListPropertyMap extends PropertyMap {
     }
 
     public boolean containsKey(Object key) {
-        for (Map.Entry<Object, Property> entry : reverseOrderEntrySet()) {
-            if (entry.getKey().equals(key)) {
-                return true;
-            }
-        }
-        return false;
+        return get(key) != null;
     }
 
     public boolean containsValue(Object value) {
-        for (Map.Entry<Object, Property> entry : reverseOrderEntrySet()) {
-            if (entry.getValue().equals(value)) {
+        for (ConsListPropertyMap current = this; current != empty(); current = current.car) {
+            if (current.cdr.equals(value)) {
                 return true;
             }
         }
@@ -87,9 +100,12 @@ final class ConsListPropertyMap extends PropertyMap {
     }
 
     public Property get(Object key) {
-        for (Map.Entry<Object, Property> entry : reverseOrderEntrySet()) {
-            if (entry.getKey().equals(key)) {
-                return entry.getValue();
+        if (index != null) {
+            return index.get(key);
+        }
+        for (ConsListPropertyMap current = this; current != empty(); current = current.car) {
+            if (current.cdr.getKey().equals(key)) {
+                return current.cdr;
             }
         }
         return null;
@@ -182,9 +198,10 @@ final class ConsListPropertyMap extends PropertyMap {
     @Override
     public Iterator<Object> orderedKeyIterator() {
         Object[] keys = new Object[size()];
-        Iterator<Map.Entry<Object, Property>> iterator = reverseOrderEntrySet().iterator();
+        ConsListPropertyMap current = this;
         for (int pos = size() - 1; pos >= 0; pos--) {
-            keys[pos] = iterator.next().getKey();
+            keys[pos] = current.cdr.getKey();
+            current = current.car;
         }
         return Arrays.asList(keys).iterator();
     }
@@ -233,9 +250,10 @@ final class ConsListPropertyMap extends PropertyMap {
     @Override
     public Iterator<Property> orderedValueIterator() {
         Property[] values = new Property[size()];
-        Iterator<Map.Entry<Object, Property>> iterator = reverseOrderEntrySet().iterator();
+        ConsListPropertyMap current = this;
         for (int pos = size() - 1; pos >= 0; pos--) {
-            values[pos] = iterator.next().getValue();
+            values[pos] = current.cdr;
+            current = current.car;
         }
         return Arrays.asList(values).iterator();
     }
@@ -22,9 +22,10 @@
  */
 package com.oracle.truffle.object;
 
+import com.oracle.truffle.api.utilities.StripedCounter;
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class DebugCounter {
     private DebugCounter() {
@@ -45,14 +46,14 @@ public abstract class DebugCounter {
     }
 
     private static final class DebugCounterImpl extends DebugCounter {
-        private static final ArrayList<DebugCounter> allCounters = new ArrayList<>();
+        private static final List<DebugCounter> allCounters = new CopyOnWriteArrayList<>();
 
         private final String name;
-        private final AtomicLong value;
+        private final StripedCounter value;
 
         private DebugCounterImpl(String name) {
             this.name = name;
-            this.value = new AtomicLong();
+            this.value = new StripedCounter();
             allCounters.add(this);
         }
 
@@ -67,7 +68,7 @@ public abstract class DebugCounter {
 
         @Override
         public void inc() {
-            value.incrementAndGet();
+            value.increment();
         }
 
         @Override
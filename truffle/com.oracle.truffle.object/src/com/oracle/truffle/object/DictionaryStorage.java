@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.object.HiddenKey;
+
+/**
+ * Insertion-ordered hash table that holds the properties of an object in dictionary mode. Entries
+ * are appended to parallel key, value and flags arrays; an open-addressing index with linear
+ * probing maps keys to entries. Removed entries leave a gap that is compacted away on the next
+ * resize. Primitive values are stored boxed.
+ *
+ * @see ShapeImpl#isDictionary()
+ */
+final class DictionaryStorage {
+    /** Index slot that has never been used. */
+    private static final int EMPTY = 0;
+    /** Index slot of a removed entry, so that probing continues past it. */
+    private static final int DELETED = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] flags;
+    /** Number of used entry slots, including removed ones. */
+    private int count;
+    /** Maps hash slots to entry index + 1, or {@link #EMPTY} or {@link #DELETED}. */
+    private int[] index;
+    /** Number of entries, including hidden ones. */
+    private int size;
+    /** Number of entries whose key is a {@link HiddenKey}. */
+    private int hiddenSize;
+
+    DictionaryStorage(int expectedSize) {
+        int capacity = Math.max(expectedSize, MIN_CAPACITY);
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.flags = new int[capacity];
+        this.index = new int[indexCapacityFor(capacity)];
+    }
+
+    private DictionaryStorage(DictionaryStorage from) {
+        this.keys = from.keys.clone();
+        this.values = from.values.clone();
+        this.flags = from.flags.clone();
+        this.count = from.count;
+        this.index = from.index.clone();
+        this.size = from.size;
+        this.hiddenSize = from.hiddenSize;
+    }
+
+    /**
+     * Smallest power of two that keeps the load factor of the index at or below 3/4.
+     */
+    private static int indexCapacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < entries * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the entry index of the key, or -1 if there is no entry for it
+     */
+    private int entryOf(Object key) {
+        int[] idx = index;
+        int mask = idx.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int slot = idx[i];
+            if (slot == EMPTY) {
+                return -1;
+            } else if (slot != DELETED) {
+                Object current = keys[slot - 1];
+                if (current == key || current.equals(key)) {
+                    return slot - 1;
+                }
+            }
+        }
+    }
+
+    Object get(Object key, Object defaultValue) {
+        int entry = entryOf(key);
+        return entry >= 0 ? values[entry] : defaultValue;
+    }
+
+    int getFlags(Object key, int defaultFlags) {
+        int entry = entryOf(key);
+        return entry >= 0 ? flags[entry] : defaultFlags;
+    }
+
+    /**
+     * Set the value of an existing entry, keeping its flags and position.
+     *
+     * @return {@code false} if there is no entry for the key
+     */
+    boolean set(Object key, Object value) {
+        int entry = entryOf(key);
+        if (entry >= 0) {
+            values[entry] = value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Change the flags of an existing entry.
+     *
+     * @return {@code false} if there is no entry for the key
+     */
+    boolean setFlags(Object key, int newFlags) {
+        int entry = entryOf(key);
+        if (entry >= 0) {
+            flags[entry] = newFlags;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add an entry or redefine an existing one in place.
+     */
+    void put(Object key, Object value, int entryFlags) {
+        int entry = entryOf(key);
+        if (entry >= 0) {
+            values[entry] = value;
+            flags[entry] = entryFlags;
+            return;
+        }
+        if (count == keys.length) {
+            resize(size + (size >> 1) + 1);
+        }
+        entry = count++;
+        keys[entry] = key;
+        values[entry] = value;
+        flags[entry] = entryFlags;
+        insertIndex(key, entry);
+        size++;
+        if (key instanceof HiddenKey) {
+            hiddenSize++;
+        }
+    }
+
+    private void insertIndex(Object key, int entry) {
+        int[] idx = index;
+        int mask = idx.length - 1;
+        int i = hash(key) & mask;
+        while (idx[i] != EMPTY && idx[i] != DELETED) {
+            i = (i + 1) & mask;
+        }
+        idx[i] = entry + 1;
+    }
+
+    boolean remove(Object key) {
+        int[] idx = index;
+        int mask = idx.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int slot = idx[i];
+            if (slot == EMPTY) {
+                return false;
+            } else if (slot != DELETED) {
+                int entry = slot - 1;
+                Object current = keys[entry];
+                if (current == key || current.equals(key)) {
+                    idx[i] = DELETED;
+                    keys[entry] = null;
+                    values[entry] = null;
+                    flags[entry] = 0;
+                    size--;
+                    if (key instanceof HiddenKey) {
+                        hiddenSize--;
+                    }
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compact the entries, preserving their order, and rebuild the index.
+     */
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldFlags = flags;
+        int oldCount = count;
+        keys = new Object[Math.max(capacity, MIN_CAPACITY)];
+        values = new Object[keys.length];
+        flags = new int[keys.length];
+        index = new int[indexCapacityFor(keys.length)];
+        count = 0;
+        for (int i = 0; i < oldCount; i++) {
+            if (oldKeys[i] != null) {
+                keys[count] = oldKeys[i];
+                values[count] = oldValues[i];
+                flags[count] = oldFlags[i];
+                insertIndex(oldKeys[i], count);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Number of entries that are not hidden, consistent with {@link ShapeImpl#getPropertyCount()}.
+     */
+    int size() {
+        return size - hiddenSize;
+    }
+
+    /**
+     * Keys of all entries that are not hidden, in insertion order.
+     */
+    List<Object> getKeyList() {
+        List<Object> keyList = new ArrayList<>(size());
+        for (int i = 0; i < count; i++) {
+            if (keys[i] != null && !(keys[i] instanceof HiddenKey)) {
+                keyList.add(keys[i]);
+            }
+        }
+        return keyList;
+    }
+
+    /**
+     * Key-value pairs of all entries that are not hidden, in insertion order.
+     */
+    List<Map.Entry<Object, Object>> getEntryList() {
+        List<Map.Entry<Object, Object>> entryList = new ArrayList<>(size());
+        for (int i = 0; i < count; i++) {
+            if (keys[i] != null && !(keys[i] instanceof HiddenKey)) {
+                entryList.add(new SimpleImmutableEntry<>(keys[i], values[i]));
+            }
+        }
+        return entryList;
+    }
+
+    DictionaryStorage copy() {
+        return new DictionaryStorage(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < count; i++) {
+            if (keys[i] != null) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(keys[i]).append('=').append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -22,6 +22,9 @@
  */
 package com.oracle.truffle.object;
 
+import java.util.List;
+import java.util.Map;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -29,15 +32,27 @@ import com.oracle.truffle.api.object.LocationFactory;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.object.Locations.ValueLocation;
+import com.oracle.truffle.object.debug.ShapeEventProfiler;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Event;
 
 public abstract class DynamicObjectImpl extends DynamicObject implements Cloneable {
     private ShapeImpl shape;
 
     public static final DebugCounter reshapeCount = DebugCounter.create("Reshape count");
+    public static final DebugCounter dictionaryModeCount = DebugCounter.create("Dictionary mode switches");
 
     public DynamicObjectImpl(Shape shape) {
+        this(shape, shape);
+    }
+
+    /**
+     * Create an object in the given shape with extension arrays that are large enough for
+     * {@code capacityShape}, a shape the object is expected to grow into.
+     */
+    protected DynamicObjectImpl(Shape shape, Shape capacityShape) {
         assert shape instanceof ShapeImpl;
-        initialize(shape);
+        assert capacityShape.getLayout() == shape.getLayout();
+        initialize(capacityShape);
         setShape(shape);
 
         if (ObjectStorageOptions.Profile) {
@@ -59,6 +74,9 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
         this.shape = (ShapeImpl) shape;
     }
 
+    /**
+     * Allocate the extension arrays for the given shape.
+     */
     protected abstract void initialize(Shape initialShape);
 
     public final void setShapeAndResize(Shape newShape) {
@@ -186,7 +204,11 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
 
     @TruffleBoundary
     public boolean changeFlags(Object id, int newFlags) {
-        Shape oldShape = getShape();
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).setFlags(id, newFlags);
+        }
+        Shape oldShape = currentShape;
         Property existing = oldShape.getProperty(id);
         if (existing != null) {
             if (existing.getFlags() != newFlags) {
@@ -226,7 +248,11 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
     @Override
     @TruffleBoundary
     public Object get(Object id, Object defaultValue) {
-        Property existing = getShape().getProperty(id);
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).get(id, defaultValue);
+        }
+        Property existing = currentShape.getProperty(id);
         if (existing != null) {
             return existing.get(this, false);
         } else {
@@ -234,10 +260,44 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
         }
     }
 
+    @Override
+    @TruffleBoundary
+    public int getFlags(Object id, int defaultFlags) {
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).getFlags(id, defaultFlags);
+        }
+        return super.getFlags(id, defaultFlags);
+    }
+
+    @Override
+    @TruffleBoundary
+    public List<Object> getKeyList() {
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).getKeyList();
+        }
+        return currentShape.getKeyList();
+    }
+
+    @Override
+    @TruffleBoundary
+    public List<Map.Entry<Object, Object>> getEntryList() {
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).getEntryList();
+        }
+        return super.getEntryList();
+    }
+
     @Override
     @TruffleBoundary
     public boolean set(Object id, Object value) {
-        Property existing = getShape().getProperty(id);
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).set(id, value);
+        }
+        Property existing = currentShape.getProperty(id);
         if (existing != null) {
             existing.setGeneric(this, value, null);
             return true;
@@ -256,6 +316,13 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
     @TruffleBoundary
     public void define(Object id, Object value, int flags, LocationFactory locationFactory) {
         ShapeImpl oldShape = getShape();
+        if (oldShape.isDictionary()) {
+            getDictionary(oldShape).put(id, value, flags);
+            return;
+        } else if (oldShape.isDictionaryModeDue()) {
+            toDictionary().put(id, value, flags);
+            return;
+        }
         ShapeImpl newShape = oldShape.defineProperty(id, value, flags, locationFactory);
         if (updateShape()) {
             oldShape = getShape();
@@ -273,8 +340,22 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
     @TruffleBoundary
     public boolean delete(Object id) {
         ShapeImpl oldShape = getShape();
+        if (oldShape.isDictionary()) {
+            return getDictionary(oldShape).remove(id);
+        }
         Property existing = oldShape.getProperty(id);
         if (existing != null) {
+            if (oldShape.getLayout().isDictionaryMode() && existing != oldShape.getLastProperty()) {
+                // removing any other than the last property rebuilds the shape chain
+                int deleteCount = oldShape.getDeleteCount() + 1;
+                if (deleteCount >= ObjectStorageOptions.DictionaryModeDeleteThreshold) {
+                    return toDictionary().remove(id);
+                }
+                ShapeImpl newShape = oldShape.removeProperty(existing);
+                newShape.recordDelete(deleteCount);
+                this.reshapeAfterDelete(newShape, ShapeImpl.findCommonAncestor(oldShape, newShape));
+                return true;
+            }
             ShapeImpl newShape = oldShape.removeProperty(existing);
             this.reshapeAfterDelete(newShape, ShapeImpl.findCommonAncestor(oldShape, newShape));
             // TODO ancestor should be the parent of found property's shape
@@ -286,7 +367,34 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
 
     @Override
     public int size() {
-        return getShape().getPropertyCount();
+        ShapeImpl currentShape = getShape();
+        if (currentShape.isDictionary()) {
+            return getDictionary(currentShape).size();
+        }
+        return currentShape.getPropertyCount();
+    }
+
+    private DictionaryStorage getDictionary(ShapeImpl currentShape) {
+        return (DictionaryStorage) currentShape.getDictionaryProperty().get(this, currentShape);
+    }
+
+    /**
+     * Move all properties into a hash table and switch to the shared dictionary shape.
+     */
+    private DictionaryStorage toDictionary() {
+        updateShape();
+        ShapeImpl oldShape = getShape();
+        ShapeImpl dictionaryShape = oldShape.getDictionaryShape();
+        dictionaryModeCount.inc();
+        ShapeEventProfiler.record(oldShape, Event.DICTIONARY_MODE);
+
+        DictionaryStorage dictionary = new DictionaryStorage(oldShape.getPropertyMap().size());
+        for (Property property : oldShape.getPropertyListInternal(true)) {
+            dictionary.put(property.getKey(), property.get(this, oldShape), property.getFlags());
+        }
+        setShapeAndResize(oldShape, dictionaryShape);
+        dictionaryShape.getDictionaryProperty().setInternal(this, dictionary);
+        return dictionary;
     }
 
     @Override
@@ -301,7 +409,13 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
 
     @Override
     public final DynamicObject copy(Shape currentShape) {
-        return cloneWithShape(currentShape);
+        DynamicObject copy = cloneWithShape(currentShape);
+        if (((ShapeImpl) currentShape).isDictionary()) {
+            // the hash table is mutable and must not be shared
+            Property dictionaryProperty = ((ShapeImpl) currentShape).getDictionaryProperty();
+            dictionaryProperty.setInternal(copy, getDictionary((ShapeImpl) currentShape).copy());
+        }
+        return copy;
     }
 
     @Override
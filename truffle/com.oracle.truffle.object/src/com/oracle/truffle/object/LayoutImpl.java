@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.object;
 
+import com.oracle.truffle.api.object.AllocationSite;
 import com.oracle.truffle.api.object.BooleanLocation;
 import com.oracle.truffle.api.object.DoubleLocation;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -42,6 +43,7 @@ import com.oracle.truffle.object.Locations.DeclaredLocation;
 import com.oracle.truffle.object.Locations.DualLocation;
 import com.oracle.truffle.object.Locations.ValueLocation;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
+import java.lang.ref.ReferenceQueue;
 import java.util.EnumSet;
 
 public abstract class LayoutImpl extends Layout {
@@ -51,17 +53,43 @@ public abstract class LayoutImpl extends Layout {
     protected final LayoutStrategy strategy;
     protected final Class<? extends DynamicObject> clazz;
     private final int allowedImplicitCasts;
+    private final boolean weakTransitions;
+    private final ReferenceQueue<ShapeImpl> transitionQueue;
+    private final boolean copyOnWriteClone;
+    private final boolean dictionaryMode;
 
     protected LayoutImpl(EnumSet<ImplicitCast> allowedImplicitCasts, Class<? extends DynamicObjectImpl> clazz, LayoutStrategy strategy) {
+        this(allowedImplicitCasts, clazz, strategy, false);
+    }
+
+    protected LayoutImpl(EnumSet<ImplicitCast> allowedImplicitCasts, Class<? extends DynamicObjectImpl> clazz, LayoutStrategy strategy, boolean dictionaryMode) {
         this.strategy = strategy;
         this.clazz = clazz;
 
         this.allowedImplicitCasts = (allowedImplicitCasts.contains(ImplicitCast.IntToDouble) ? INT_TO_DOUBLE_FLAG : 0) | (allowedImplicitCasts.contains(ImplicitCast.IntToLong) ? INT_TO_LONG_FLAG : 0);
+        this.weakTransitions = ObjectStorageOptions.WeakTransitions;
+        this.transitionQueue = weakTransitions ? new ReferenceQueue<ShapeImpl>() : null;
+        this.copyOnWriteClone = ObjectStorageOptions.CopyOnWriteClone;
+        this.dictionaryMode = dictionaryMode;
     }
 
     @Override
     public abstract DynamicObject newInstance(Shape shape);
 
+    /**
+     * Create a new instance in the given shape whose extension arrays are already large enough for
+     * {@code capacityShape}. The default implementation ignores the capacity hint.
+     */
+    protected DynamicObject newInstance(Shape shape, Shape capacityShape) {
+        return newInstance(shape);
+    }
+
+    @Override
+    public AllocationSite createAllocationSite(Shape initialShape) {
+        assert initialShape.getLayout() == this;
+        return new AllocationSiteImpl(this, (ShapeImpl) initialShape);
+    }
+
     @Override
     public Class<? extends DynamicObject> getType() {
         return clazz;
@@ -77,6 +105,34 @@ public abstract class LayoutImpl extends Layout {
         return createShape(operations, null);
     }
 
+    /**
+     * If {@code true}, shapes of this layout only hold weak references to their successors, so
+     * that subtrees of the shape tree that are no longer used by any object can be collected.
+     */
+    public boolean isWeakTransitions() {
+        return weakTransitions;
+    }
+
+    ReferenceQueue<ShapeImpl> getTransitionQueue() {
+        return transitionQueue;
+    }
+
+    /**
+     * If {@code true}, {@link DynamicObjectImpl#copy(Shape) copies} of objects of this layout share
+     * the extension arrays of the original until the first write to either of them.
+     */
+    public boolean isCopyOnWriteClone() {
+        return copyOnWriteClone;
+    }
+
+    /**
+     * If {@code true}, objects of this layout switch to a {@link ShapeImpl#isDictionary()
+     * dictionary shape} when their shape gets too deep or a property is deleted out of order.
+     */
+    public boolean isDictionaryMode() {
+        return dictionaryMode;
+    }
+
     public boolean isAllowedIntToDouble() {
         return (allowedImplicitCasts & INT_TO_DOUBLE_FLAG) != 0;
     }
@@ -53,6 +53,11 @@ public abstract class LocationImpl extends Location {
         void visitPrimitiveField(int index, int count);
 
         void visitPrimitiveArray(int index, int count);
+
+        /**
+         * Visit one half of an in-object primitive field that is shared by two packed locations.
+         */
+        void visitPackedPrimitiveField(int index, boolean upperHalf);
     }
 
     @Override
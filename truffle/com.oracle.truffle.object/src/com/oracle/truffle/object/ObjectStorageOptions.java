@@ -37,6 +37,34 @@ public class ObjectStorageOptions {
     /** Allocation of in-object fields. */
     public static boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
+    /** Successor shapes are only weakly referenced by their parent shape. */
+    public static boolean WeakTransitions = booleanOption(OPTION_PREFIX + "WeakTransitions", false);
+
+    /** Clones share their extension arrays with the original until either of them is written. */
+    public static boolean CopyOnWriteClone = booleanOption(OPTION_PREFIX + "CopyOnWriteClone", false);
+
+    /**
+     * Pack int and boolean properties two to an in-object primitive field. A write reads the
+     * shared field and writes it back merged, so concurrent writes to the two halves of one field
+     * can lose an update. Only enable it if objects are not written from several threads at once.
+     */
+    public static boolean PackedPrimitiveFields = booleanOption(OPTION_PREFIX + "PackedPrimitiveFields", false);
+
+    /** Pre-size objects created through an allocation site for the shape its objects grow into. */
+    public static boolean AllocationSiteFeedback = booleanOption(OPTION_PREFIX + "AllocationSiteFeedback", true);
+
+    /** Property maps with at least this many properties maintain a hash index for lookups. */
+    public static final int PropertyMapIndexThreshold = Integer.getInteger(OPTION_PREFIX + "PropertyMapIndexThreshold", 8);
+
+    /** Objects of layouts with dictionary mode switch to it once their shape reaches this depth. */
+    public static final int DictionaryModeThreshold = Integer.getInteger(OPTION_PREFIX + "DictionaryModeThreshold", 64);
+
+    /**
+     * Objects of layouts with dictionary mode switch to it after this many out-of-order deletes, as
+     * counted along the shapes they went through.
+     */
+    public static final int DictionaryModeDeleteThreshold = Integer.getInteger(OPTION_PREFIX + "DictionaryModeDeleteThreshold", 4);
+
     // Debug options (should be final)
     public static final boolean DebugCounters = booleanOption(OPTION_PREFIX + "DebugCounters", true);
     public static final boolean TraceReshape = booleanOption(OPTION_PREFIX + "TraceReshape", false);
@@ -49,6 +77,13 @@ public class ObjectStorageOptions {
     public static final boolean Profile = booleanOption(OPTION_PREFIX + "Profile", false);
     public static final int ProfileTopResults = Integer.getInteger(OPTION_PREFIX + "ProfileTopResults", -1);
 
+    /** Count shape events per object type, see {@code ShapeEventProfiler}. */
+    public static final boolean ProfileShapeEvents = booleanOption(OPTION_PREFIX + "ProfileShapeEvents", false);
+    /** Record only one out of this many shape events; counts are scaled accordingly. */
+    public static final int ProfileSampleInterval = Integer.getInteger(OPTION_PREFIX + "ProfileSampleInterval", 1);
+    /** Period in milliseconds for dumping shape events to JSON; 0 dumps only at exit. */
+    public static final int ProfileDumpInterval = Integer.getInteger(OPTION_PREFIX + "ProfileDumpInterval", 0);
+
     public static boolean booleanOption(String name, boolean defaultValue) {
         String value = System.getProperty(name);
         return value == null ? defaultValue : value.equalsIgnoreCase("true");
@@ -32,6 +32,8 @@ import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.object.Locations.DeclaredLocation;
+import com.oracle.truffle.object.debug.ShapeEventProfiler;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Event;
 
 /**
  * Property objects represent the mapping between property identifiers (keys) and storage locations.
@@ -228,6 +230,7 @@ public class PropertyImpl extends Property {
             oldShape = store.getShape();
         }
         LayoutStrategy strategy = ((LayoutImpl) currentShape.getLayout()).getStrategy();
+        ShapeEventProfiler.record(oldShape, Event.GENERALIZATION);
         LayoutStrategy.ShapeAndProperty newShapeAndProperty = strategy.generalizeProperty(this, value, (ShapeImpl) oldShape, (ShapeImpl) nextShape);
         if (store.updateShape()) {
             oldShape = store.getShape();
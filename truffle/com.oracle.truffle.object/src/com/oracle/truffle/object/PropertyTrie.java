@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object;
+
+import com.oracle.truffle.api.object.Property;
+import java.util.Arrays;
+
+/**
+ * Persistent hash array mapped trie from property keys to properties, used by
+ * {@link ConsListPropertyMap} to index large maps. Updates copy only the path to the changed leaf,
+ * so a map and its parent share most of their index.
+ */
+abstract class PropertyTrie {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    static final PropertyTrie EMPTY = new BitmapNode(0, new Object[0]);
+
+    abstract Property get(Object key, int hash, int shift);
+
+    abstract PropertyTrie put(Property property, int hash, int shift);
+
+    final Property get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        return get(key, key.hashCode(), 0);
+    }
+
+    /**
+     * Returns a trie that maps the key of the given property to the property, replacing any
+     * previous mapping of an equal key.
+     */
+    final PropertyTrie put(Property property) {
+        return put(property, property.getKey().hashCode(), 0);
+    }
+
+    static PropertyTrie create(Property first, int firstHash, Property second, int secondHash, int shift) {
+        if (firstHash == secondHash) {
+            return new CollisionNode(firstHash, new Property[]{first, second});
+        }
+        return EMPTY.put(first, firstHash, shift).put(second, secondHash, shift);
+    }
+
+    /**
+     * Interior node; each slot holds either a {@link Property} or a child {@link PropertyTrie}.
+     */
+    private static final class BitmapNode extends PropertyTrie {
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        Property get(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[Integer.bitCount(bitmap & (bit - 1))];
+            if (slot instanceof PropertyTrie) {
+                return ((PropertyTrie) slot).get(key, hash, shift + BITS);
+            }
+            Property property = (Property) slot;
+            return property.getKey().equals(key) ? property : null;
+        }
+
+        @Override
+        PropertyTrie put(Property property, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = property;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+            Object slot = slots[index];
+            Object newSlot;
+            if (slot instanceof PropertyTrie) {
+                newSlot = ((PropertyTrie) slot).put(property, hash, shift + BITS);
+            } else {
+                Property existing = (Property) slot;
+                if (existing.getKey().equals(property.getKey())) {
+                    newSlot = property;
+                } else {
+                    newSlot = create(existing, existing.getKey().hashCode(), property, hash, shift + BITS);
+                }
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[index] = newSlot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+    }
+
+    /**
+     * Leaf for keys whose hash codes are identical.
+     */
+    private static final class CollisionNode extends PropertyTrie {
+        private final int hash;
+        private final Property[] properties;
+
+        CollisionNode(int hash, Property[] properties) {
+            this.hash = hash;
+            this.properties = properties;
+        }
+
+        @Override
+        Property get(Object key, int keyHash, int shift) {
+            if (keyHash == hash) {
+                for (Property property : properties) {
+                    if (property.getKey().equals(key)) {
+                        return property;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        PropertyTrie put(Property property, int keyHash, int shift) {
+            if (keyHash != hash) {
+                return new BitmapNode(1 << ((hash >>> shift) & MASK), new Object[]{this}).put(property, keyHash, shift);
+            }
+            for (int i = 0; i < properties.length; i++) {
+                if (properties[i].getKey().equals(property.getKey())) {
+                    Property[] newProperties = properties.clone();
+                    newProperties[i] = property;
+                    return new CollisionNode(hash, newProperties);
+                }
+            }
+            Property[] newProperties = Arrays.copyOf(properties, properties.length + 1);
+            newProperties[properties.length] = property;
+            return new CollisionNode(hash, newProperties);
+        }
+    }
+}
@@ -22,9 +22,12 @@
  */
 package com.oracle.truffle.object;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -42,6 +45,7 @@ import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectFactory;
+import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.object.Layout;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.LocationFactory;
@@ -58,7 +62,10 @@ import com.oracle.truffle.object.Locations.DeclaredDualLocation;
 import com.oracle.truffle.object.Locations.DeclaredLocation;
 import com.oracle.truffle.object.Locations.DualLocation;
 import com.oracle.truffle.object.Locations.ValueLocation;
+import com.oracle.truffle.object.debug.ShapeEventProfiler;
+import com.oracle.truffle.object.debug.ShapeEventProfiler.Event;
 import com.oracle.truffle.object.Transition.AddPropertyTransition;
+import com.oracle.truffle.object.Transition.DictionaryTransition;
 import com.oracle.truffle.object.Transition.DirectReplacePropertyTransition;
 import com.oracle.truffle.object.Transition.ObjectTypeTransition;
 import com.oracle.truffle.object.Transition.PropertyTransition;
@@ -96,20 +103,33 @@ public abstract class ShapeImpl extends Shape {
     protected final int primitiveArraySize;
     protected final int primitiveArrayCapacity;
     protected final boolean hasPrimitiveArray;
+    /** Index of an in-object primitive field whose upper half is still free, or -1. */
+    protected final int freePrimitiveFieldHalf;
 
     protected final int depth;
     protected final int propertyCount;
+    protected final boolean dictionary;
+    /**
+     * Number of out-of-order property removals that led to this shape, used by layouts with
+     * dictionary mode to detect objects that are used as hash maps. Shapes are shared, so the count
+     * is approximate: it is recorded on the shape a removal results in and inherited by successor
+     * shapes created afterwards, whichever object takes them.
+     */
+    private volatile int deleteCount;
 
     protected final Assumption validAssumption;
     @CompilationFinal protected volatile Assumption leafAssumption;
 
     /**
-     * Shape transition map; lazily initialized.
+     * Shape transitions; lazily initialized. Either {@code null}, a single successor reached through
+     * a direct transition (whose key is the successor's {@link #transitionFromParent}), or a
+     * {@code Map<Transition, Object>} once there is more than one transition. Successors are
+     * {@link ShapeImpl}s, or {@link WeakTransition}s if the layout uses weak transitions.
      *
      * @see #getTransitionMapForRead()
-     * @see #getTransitionMapForWrite()
+     * @see #addTransitionInternal(Transition, ShapeImpl)
      */
-    private volatile Map<Transition, ShapeImpl> transitionMap;
+    private volatile Object transitionMap;
 
     private final Transition transitionFromParent;
 
@@ -123,7 +143,7 @@ public abstract class ShapeImpl extends Shape {
      *      BaseAllocator, int)
      */
     private ShapeImpl(Layout layout, ShapeImpl parent, ObjectType objectType, Object sharedData, PropertyMap propertyMap, Transition transitionFromParent, int objectArraySize, int objectFieldSize,
-                    int primitiveFieldSize, int primitiveArraySize, boolean hasPrimitiveArray, int id) {
+                    int primitiveFieldSize, int primitiveArraySize, boolean hasPrimitiveArray, int freePrimitiveFieldHalf, int id) {
         this.layout = (LayoutImpl) layout;
         this.objectType = Objects.requireNonNull(objectType);
         this.propertyMap = Objects.requireNonNull(propertyMap);
@@ -137,13 +157,17 @@ public abstract class ShapeImpl extends Shape {
         this.primitiveArraySize = primitiveArraySize;
         this.primitiveArrayCapacity = capacityFromSize(primitiveArraySize);
         this.hasPrimitiveArray = hasPrimitiveArray;
+        this.freePrimitiveFieldHalf = freePrimitiveFieldHalf;
 
         if (parent != null) {
             this.propertyCount = makePropertyCount(parent, propertyMap);
             this.depth = parent.depth + 1;
+            this.dictionary = parent.dictionary || transitionFromParent instanceof DictionaryTransition;
+            this.deleteCount = parent.deleteCount;
         } else {
             this.propertyCount = 0;
             this.depth = 0;
+            this.dictionary = false;
         }
 
         this.validAssumption = createValidAssumption();
@@ -161,7 +185,8 @@ public abstract class ShapeImpl extends Shape {
 
     protected ShapeImpl(Layout layout, ShapeImpl parent, ObjectType operations, Object sharedData, PropertyMap propertyMap, Transition transition, Allocator allocator, int id) {
         this(layout, parent, operations, sharedData, propertyMap, transition, ((BaseAllocator) allocator).objectArraySize, ((BaseAllocator) allocator).objectFieldSize,
-                        ((BaseAllocator) allocator).primitiveFieldSize, ((BaseAllocator) allocator).primitiveArraySize, ((BaseAllocator) allocator).hasPrimitiveArray, id);
+                        ((BaseAllocator) allocator).primitiveFieldSize, ((BaseAllocator) allocator).primitiveArraySize, ((BaseAllocator) allocator).hasPrimitiveArray,
+                        ((BaseAllocator) allocator).freePrimitiveFieldHalf, id);
     }
 
     @SuppressWarnings("hiding")
@@ -286,28 +311,154 @@ public abstract class ShapeImpl extends Shape {
         addTransitionInternal(transition, next);
     }
 
+    /**
+     * Weakly referenced successor shape, used if {@link LayoutImpl#isWeakTransitions()}. Cleared
+     * references are removed from the owner's transitions by {@link #expungeStaleTransitions}.
+     */
+    static final class WeakTransition extends WeakReference<ShapeImpl> {
+        final ShapeImpl owner;
+        final Transition transition;
+
+        WeakTransition(ShapeImpl owner, Transition transition, ShapeImpl next) {
+            super(next, owner.layout.getTransitionQueue());
+            this.owner = owner;
+            this.transition = transition;
+        }
+    }
+
+    private Object newSuccessor(Transition transition, ShapeImpl next) {
+        return layout.isWeakTransitions() ? new WeakTransition(this, transition, next) : next;
+    }
+
+    private static ShapeImpl getSuccessor(Object successor) {
+        return successor instanceof WeakTransition ? ((WeakTransition) successor).get() : (ShapeImpl) successor;
+    }
+
+    @SuppressWarnings("unchecked")
     private void addTransitionInternal(Transition transition, ShapeImpl next) {
-        getTransitionMapForWrite().put(transition, next);
+        if (layout.isWeakTransitions()) {
+            expungeStaleTransitions(layout);
+        }
+        Object transitions = transitionMap;
+        if (transitions instanceof Map) {
+            ((Map<Transition, Object>) transitions).put(transition, newSuccessor(transition, next));
+            return;
+        }
+        synchronized (getMutex()) {
+            transitions = transitionMap;
+            if (transitions == null) {
+                invalidateLeafAssumption();
+                if (isInlineTransition(transition, next)) {
+                    transitionMap = newSuccessor(transition, next);
+                } else {
+                    transitionMap = newTransitionMap(null, null, transition, next);
+                }
+            } else if (transitions instanceof Map) {
+                ((Map<Transition, Object>) transitions).put(transition, newSuccessor(transition, next));
+            } else {
+                ShapeImpl single = getSuccessor(transitions);
+                if (single == null || (isInlineTransition(transition, next) && single.transitionFromParent.equals(transition))) {
+                    transitionMap = isInlineTransition(transition, next) ? newSuccessor(transition, next) : newTransitionMap(null, null, transition, next);
+                } else {
+                    transitionMap = newTransitionMap(single, transitions, transition, next);
+                }
+            }
+        }
     }
 
-    public final Map<Transition, ShapeImpl> getTransitionMapForRead() {
-        return transitionMap != null ? transitionMap : Collections.<Transition, ShapeImpl> emptyMap();
+    private boolean isInlineTransition(Transition transition, ShapeImpl next) {
+        return next.parent == this && next.transitionFromParent == transition;
     }
 
-    private Map<Transition, ShapeImpl> getTransitionMapForWrite() {
-        if (transitionMap != null) {
-            return transitionMap;
-        } else {
-            synchronized (getMutex()) {
-                if (transitionMap != null) {
-                    return transitionMap;
+    private Map<Transition, Object> newTransitionMap(ShapeImpl single, Object singleSuccessor, Transition transition, ShapeImpl next) {
+        Map<Transition, Object> map = new ConcurrentHashMap<>(4);
+        if (single != null) {
+            map.put(single.transitionFromParent, singleSuccessor);
+        }
+        map.put(transition, newSuccessor(transition, next));
+        return map;
+    }
+
+    /**
+     * Remove the transitions to shapes that have been garbage collected.
+     */
+    @SuppressWarnings("unchecked")
+    private static void expungeStaleTransitions(LayoutImpl layout) {
+        Reference<? extends ShapeImpl> reference;
+        while ((reference = layout.getTransitionQueue().poll()) != null) {
+            WeakTransition stale = (WeakTransition) reference;
+            ShapeImpl owner = stale.owner;
+            synchronized (owner.getMutex()) {
+                Object transitions = owner.transitionMap;
+                if (transitions == stale) {
+                    owner.transitionMap = null;
+                } else if (transitions instanceof Map) {
+                    ((Map<Transition, Object>) transitions).remove(stale.transition, stale);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public final Map<Transition, ShapeImpl> getTransitionMapForRead() {
+        Object transitions = transitionMap;
+        if (transitions == null) {
+            return Collections.<Transition, ShapeImpl> emptyMap();
+        } else if (transitions instanceof Map) {
+            if (!layout.isWeakTransitions()) {
+                return (Map<Transition, ShapeImpl>) transitions;
+            }
+            Map<Transition, ShapeImpl> live = new LinkedHashMap<>();
+            for (Map.Entry<Transition, Object> entry : ((Map<Transition, Object>) transitions).entrySet()) {
+                ShapeImpl successor = getSuccessor(entry.getValue());
+                if (successor != null) {
+                    live.put(entry.getKey(), successor);
                 }
-                invalidateLeafAssumption();
-                return transitionMap = new ConcurrentHashMap<>();
             }
+            return live;
+        } else {
+            ShapeImpl single = getSuccessor(transitions);
+            return single == null ? Collections.<Transition, ShapeImpl> emptyMap() : Collections.singletonMap(single.transitionFromParent, single);
+        }
+    }
+
+    /**
+     * Look up a transition without materializing a map for the inline representation.
+     */
+    @SuppressWarnings("unchecked")
+    private ShapeImpl getTransition(Transition transition) {
+        Object transitions = transitionMap;
+        if (transitions == null) {
+            return null;
+        } else if (transitions instanceof Map) {
+            return getSuccessor(((Map<Transition, Object>) transitions).get(transition));
+        } else {
+            ShapeImpl single = getSuccessor(transitions);
+            return single != null && single.transitionFromParent.equals(transition) ? single : null;
         }
     }
 
+    /**
+     * @return the number of transitions to live shapes from this shape.
+     */
+    public final int getTransitionCount() {
+        Object transitions = transitionMap;
+        if (transitions == null) {
+            return 0;
+        } else if (transitions instanceof Map) {
+            return getTransitionMapForRead().size();
+        } else {
+            return getSuccessor(transitions) == null ? 0 : 1;
+        }
+    }
+
+    /**
+     * @return {@code true} if the transitions of this shape are stored in a map rather than inline.
+     */
+    public final boolean hasTransitionMap() {
+        return transitionMap instanceof Map;
+    }
+
     public final PropertyMap getPropertyMap() {
         return propertyMap;
     }
@@ -317,12 +468,14 @@ public abstract class ShapeImpl extends Shape {
     }
 
     protected final ShapeImpl queryTransition(Transition transition, boolean ensureValid) {
-        ShapeImpl cachedShape = this.getTransitionMapForRead().get(transition);
+        ShapeImpl cachedShape = this.getTransition(transition);
         if (cachedShape != null) { // Shape already exists?
             shapeCacheHitCount.inc();
+            ShapeEventProfiler.record(this, Event.TRANSITION_HIT);
             return ensureValid ? layout.getStrategy().ensureValid(cachedShape) : cachedShape;
         }
         shapeCacheMissCount.inc();
+        ShapeEventProfiler.record(this, Event.TRANSITION_MISS);
 
         return null;
     }
@@ -371,6 +524,7 @@ public abstract class ShapeImpl extends Shape {
                     if (existing.getLocation() instanceof DeclaredLocation) {
                         return oldShape.addProperty(existing.relocateShadow(locationFactory.createLocation(oldShape, value)));
                     } else {
+                        ShapeEventProfiler.record(oldShape, Event.GENERALIZATION);
                         return (ShapeImpl) layout.getStrategy().generalizeProperty(existing, value, oldShape, oldShape).getShape();
                     }
                 }
@@ -445,6 +599,20 @@ public abstract class ShapeImpl extends Shape {
         return newShape;
     }
 
+    /**
+     * Create the dictionary shape of a root shape, which only has a hidden property for the hash
+     * table.
+     */
+    private static ShapeImpl makeDictionaryShape(ShapeImpl parent, DictionaryTransition transition) {
+        BaseAllocator allocator = parent.allocator();
+        Property dictionaryProperty = Property.create(DICTIONARY_KEY, allocator.newObjectLocation(false, true), 0);
+        PropertyMap newPropertyMap = parent.propertyMap.putCopy(dictionaryProperty);
+        ShapeImpl newShape = parent.createShape(parent.layout, parent.sharedData, parent, parent.objectType, newPropertyMap, transition, allocator, parent.id);
+        assert newShape.isDictionary();
+        assert newShape.depth == allocator.depth;
+        return newShape;
+    }
+
     /**
      * Create a new shape that reserves the primitive extension array field.
      */
@@ -608,7 +776,7 @@ public abstract class ShapeImpl extends Shape {
     }
 
     private boolean isLeafHelper() {
-        return getTransitionMapForRead().isEmpty();
+        return transitionMap == null;
     }
 
     private static Assumption createLeafAssumption() {
@@ -705,6 +873,61 @@ public abstract class ShapeImpl extends Shape {
         }
     }
 
+    /**
+     * Get the dictionary shape objects of this shape switch to. There is one such shape per root
+     * shape and object type, shared by all objects in dictionary mode.
+     */
+    @TruffleBoundary
+    public final ShapeImpl getDictionaryShape() {
+        if (dictionary) {
+            return this;
+        }
+        DictionaryTransition transition = new DictionaryTransition();
+        ShapeImpl dictionaryShape = root.queryTransition(transition);
+        if (dictionaryShape == null) {
+            dictionaryShape = makeDictionaryShape(root, transition);
+            root.addDirectTransition(transition, dictionaryShape);
+        }
+        if (dictionaryShape.getObjectType() != objectType) {
+            dictionaryShape = dictionaryShape.changeType(objectType);
+        }
+        return dictionaryShape;
+    }
+
+    /**
+     * The hidden property of a dictionary shape that holds the hash table of the object.
+     */
+    final Property getDictionaryProperty() {
+        assert dictionary;
+        return propertyMap.get(DICTIONARY_KEY);
+    }
+
+    @Override
+    public final boolean isDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @see #deleteCount
+     */
+    final int getDeleteCount() {
+        return deleteCount;
+    }
+
+    /**
+     * Record that an out-of-order removal, the {@code count}th one, resulted in this shape.
+     */
+    final void recordDelete(int count) {
+        if (count > deleteCount) {
+            deleteCount = count;
+        }
+    }
+
+    @Override
+    public final boolean isDictionaryModeDue() {
+        return !dictionary && layout.isDictionaryMode() && depth >= ObjectStorageOptions.DictionaryModeThreshold;
+    }
+
     @TruffleBoundary
     @Override
     public final ShapeImpl append(Property oldProperty) {
@@ -951,6 +1174,7 @@ public abstract class ShapeImpl extends Shape {
         protected int primitiveFieldSize;
         protected int primitiveArraySize;
         protected boolean hasPrimitiveArray;
+        protected int freePrimitiveFieldHalf = -1;
         protected int depth;
 
         protected BaseAllocator(LayoutImpl layout) {
@@ -964,6 +1188,7 @@ public abstract class ShapeImpl extends Shape {
             this.primitiveFieldSize = shape.primitiveFieldSize;
             this.primitiveArraySize = shape.primitiveArraySize;
             this.hasPrimitiveArray = shape.hasPrimitiveArray;
+            this.freePrimitiveFieldHalf = shape.freePrimitiveFieldHalf;
             this.depth = shape.depth;
         }
 
@@ -1038,7 +1263,7 @@ public abstract class ShapeImpl extends Shape {
             } else {
                 initialType = Object.class;
             }
-            return new DualLocation((InternalLongLocation) newLongLocation(false), (ObjectLocation) newObjectLocation(false, false), layout, initialType);
+            return (DualLocation) newDualLocation(initialType);
         }
 
         protected Location newDeclaredDualLocation(Object value) {
@@ -1083,6 +1308,18 @@ public abstract class ShapeImpl extends Shape {
             primitiveFieldSize = Math.max(primitiveFieldSize, index + count);
         }
 
+        public void visitPackedPrimitiveField(int index, boolean upperHalf) {
+            boolean fresh = index >= primitiveFieldSize;
+            visitPrimitiveField(index, 1);
+            if (!upperHalf) {
+                if (fresh) {
+                    freePrimitiveFieldHalf = index;
+                }
+            } else if (freePrimitiveFieldHalf == index) {
+                freePrimitiveFieldHalf = -1;
+            }
+        }
+
         @Override
         public final BaseAllocator copy() {
             return clone();
@@ -1107,6 +1344,8 @@ public abstract class ShapeImpl extends Shape {
         }
     };
 
+    static final HiddenKey DICTIONARY_KEY = new HiddenKey("dictionary");
+
     static final LocationFactory DEFAULT_LAYOUT_FACTORY = new LocationFactory() {
         public Location createLocation(Shape shape, Object value) {
             return ((ShapeImpl) shape).allocator().locationForValue(value, true, value != null);
@@ -216,6 +216,16 @@ public abstract class Transition {
         }
     }
 
+    public static final class DictionaryTransition extends Transition {
+        public DictionaryTransition() {
+        }
+
+        @Override
+        public boolean isDirect() {
+            return true;
+        }
+    }
+
     public String getShortName() {
         return this.getClass().getSimpleName().replaceFirst("Transition$", "").toLowerCase();
     }
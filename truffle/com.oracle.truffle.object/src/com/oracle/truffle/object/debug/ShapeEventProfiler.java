@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.debug;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.utilities.JSONHelper;
+import com.oracle.truffle.api.utilities.JSONHelper.JSONArrayBuilder;
+import com.oracle.truffle.api.utilities.JSONHelper.JSONObjectBuilder;
+import com.oracle.truffle.api.utilities.StripedCounter;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts shape events per {@link ObjectType}. Counters are striped, so that threads recording
+ * events do not contend on a single cache line, and can optionally be sampled.
+ *
+ * The global profiler is enabled with {@code -Dtruffle.object.ProfileShapeEvents=true}; it is
+ * dumped as JSON to {@code shape-events.json} in {@link ObjectStorageOptions#DumpShapesPath} at exit
+ * and, if {@link ObjectStorageOptions#ProfileDumpInterval} is set, periodically.
+ */
+public final class ShapeEventProfiler {
+    public enum Event {
+        /** A transition to an existing shape was taken. */
+        TRANSITION_HIT("transitionHits"),
+        /** A transition was not cached and a new shape was created. */
+        TRANSITION_MISS("transitionMisses"),
+        /** An object was migrated to an unrelated shape. */
+        RESHAPE("reshapes"),
+        /** An object extension array was reallocated to grow. */
+        EXTENSION_ARRAY_GROWTH("extensionArrayGrowths"),
+        /** A property location was generalized to accommodate a new value. */
+        GENERALIZATION("generalizations"),
+        /** An object switched to dictionary mode. */
+        DICTIONARY_MODE("dictionaryModeSwitches");
+
+        private final String jsonName;
+
+        Event(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    private static final Logger LOG = Logger.getLogger(ShapeEventProfiler.class.getName());
+    private static final Event[] EVENTS = Event.values();
+    private static final ShapeEventProfiler INSTANCE = ObjectStorageOptions.ProfileShapeEvents ? createGlobalProfiler() : null;
+
+    private final int sampleInterval;
+    private final ConcurrentMap<ObjectType, TypeProfile> profiles = new ConcurrentHashMap<>();
+
+    public ShapeEventProfiler(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("sample interval must be positive: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * @return the global profiler, or {@code null} if shape events are not profiled.
+     */
+    public static ShapeEventProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record an event in the global profiler, if enabled.
+     */
+    public static void record(Shape shape, Event event) {
+        if (ObjectStorageOptions.ProfileShapeEvents) {
+            INSTANCE.recordEvent(shape, event);
+        }
+    }
+
+    @TruffleBoundary
+    public void recordEvent(Shape shape, Event event) {
+        if (sampleInterval != 1 && ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+            return;
+        }
+        TypeProfile profile = getProfile(shape.getObjectType());
+        profile.counters[event.ordinal()].increment();
+        if (event == Event.TRANSITION_MISS) {
+            profile.addRoot(shape.getRoot());
+        }
+    }
+
+    private TypeProfile getProfile(ObjectType objectType) {
+        TypeProfile profile = profiles.get(objectType);
+        if (profile == null) {
+            profile = new TypeProfile(objectType);
+            TypeProfile existing = profiles.putIfAbsent(objectType, profile);
+            if (existing != null) {
+                profile = existing;
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Take a snapshot of the current counts; sampled counts are extrapolated.
+     */
+    public Snapshot snapshot() {
+        Map<ObjectType, long[]> counts = new LinkedHashMap<>();
+        Map<ObjectType, List<Shape>> roots = new LinkedHashMap<>();
+        for (TypeProfile profile : profiles.values()) {
+            long[] values = new long[EVENTS.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = profile.counters[i].get() * sampleInterval;
+            }
+            counts.put(profile.objectType, values);
+            roots.put(profile.objectType, profile.getRoots());
+        }
+        return new Snapshot(counts, roots);
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+
+    private static final class TypeProfile {
+        final ObjectType objectType;
+        final StripedCounter[] counters;
+        /**
+         * Root shapes of the trees this object type has shapes in; weakly referenced. There are
+         * only a few per type, so the array is replaced as a whole when a root is added.
+         */
+        private final AtomicReference<WeakReference<?>[]> roots = new AtomicReference<WeakReference<?>[]>(new WeakReference<?>[0]);
+
+        TypeProfile(ObjectType objectType) {
+            this.objectType = objectType;
+            this.counters = new StripedCounter[EVENTS.length];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new StripedCounter();
+            }
+        }
+
+        void addRoot(Shape root) {
+            for (;;) {
+                WeakReference<?>[] current = roots.get();
+                int live = 0;
+                for (WeakReference<?> ref : current) {
+                    Object referent = ref.get();
+                    if (referent == root) {
+                        return;
+                    } else if (referent != null) {
+                        live++;
+                    }
+                }
+                WeakReference<?>[] updated = new WeakReference<?>[live + 1];
+                int i = 0;
+                for (WeakReference<?> ref : current) {
+                    if (ref.get() != null && i < live) {
+                        updated[i++] = ref;
+                    }
+                }
+                updated[i] = new WeakReference<>(root);
+                if (roots.compareAndSet(current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        List<Shape> getRoots() {
+            List<Shape> result = new ArrayList<>();
+            for (WeakReference<?> ref : roots.get()) {
+                Object root = ref.get();
+                if (root != null) {
+                    result.add((Shape) root);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Immutable view of the counts of a profiler at one point in time.
+     */
+    public static final class Snapshot {
+        private final Map<ObjectType, long[]> counts;
+        private final Map<ObjectType, List<Shape>> roots;
+
+        Snapshot(Map<ObjectType, long[]> counts, Map<ObjectType, List<Shape>> roots) {
+            this.counts = counts;
+            this.roots = roots;
+        }
+
+        public Set<ObjectType> getObjectTypes() {
+            return Collections.unmodifiableSet(counts.keySet());
+        }
+
+        public long get(ObjectType objectType, Event event) {
+            long[] values = counts.get(objectType);
+            return values == null ? 0 : values[event.ordinal()];
+        }
+
+        public long getTotal(Event event) {
+            long total = 0;
+            for (long[] values : counts.values()) {
+                total += values[event.ordinal()];
+            }
+            return total;
+        }
+
+        /**
+         * Render the counts as JSON, together with the shape trees of each object type as dumped by
+         * {@link JSONShapeVisitor}.
+         */
+        public JSONObjectBuilder toJSON() {
+            JSONArrayBuilder types = JSONHelper.array();
+            for (Map.Entry<ObjectType, long[]> entry : counts.entrySet()) {
+                JSONObjectBuilder type = JSONHelper.object().add("objectType", String.valueOf(entry.getKey()));
+                for (Event event : EVENTS) {
+                    type.add(event.jsonName, entry.getValue()[event.ordinal()]);
+                }
+                JSONArrayBuilder trees = JSONHelper.array();
+                for (Shape root : roots.get(entry.getKey())) {
+                    trees.add(JSONHelper.object().add("report", ShapeTreeReport.create(root).toJSON()).add("shapes", dumpShapes(root)));
+                }
+                type.add("shapeTrees", trees);
+                types.add(type);
+            }
+            JSONObjectBuilder totals = JSONHelper.object();
+            for (Event event : EVENTS) {
+                totals.add(event.jsonName, getTotal(event));
+            }
+            return JSONHelper.object().add("totals", totals).add("objectTypes", types);
+        }
+
+        private static JSONArrayBuilder dumpShapes(Shape root) {
+            JSONShapeVisitor visitor = new JSONShapeVisitor();
+            JSONArrayBuilder shapes = JSONHelper.array();
+            Set<Shape> visited = Collections.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+            Deque<ShapeImpl> worklist = new ArrayDeque<>();
+            visited.add(root);
+            worklist.add((ShapeImpl) root);
+            while (!worklist.isEmpty()) {
+                ShapeImpl shape = worklist.poll();
+                shapes.add(visitor.visitShape(shape));
+                for (ShapeImpl successor : shape.getTransitionMapForRead().values()) {
+                    if (visited.add(successor)) {
+                        worklist.add(successor);
+                    }
+                }
+            }
+            return shapes;
+        }
+
+        @Override
+        public String toString() {
+            return toJSON().toString();
+        }
+    }
+
+    /**
+     * Write the profile to the dump file. Called from the dump timer and the shutdown hook, so a
+     * failure is only logged.
+     */
+    private void dump() {
+        File file = Paths.get(ObjectStorageOptions.DumpShapesPath, "shape-events.json").toFile();
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println(snapshot().toJSON());
+            if (out.checkError()) {
+                LOG.log(Level.WARNING, "Error writing shape event profile to {0}", file);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot write shape event profile to " + file, e);
+        }
+    }
+
+    private static ShapeEventProfiler createGlobalProfiler() {
+        final ShapeEventProfiler profiler = new ShapeEventProfiler(ObjectStorageOptions.ProfileSampleInterval);
+        if (ObjectStorageOptions.ProfileDumpInterval > 0) {
+            Timer timer = new Timer("Shape event profile dump", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    profiler.dump();
+                }
+            }, ObjectStorageOptions.ProfileDumpInterval, ObjectStorageOptions.ProfileDumpInterval);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                profiler.dump();
+            }
+        });
+        return profiler;
+    }
+}
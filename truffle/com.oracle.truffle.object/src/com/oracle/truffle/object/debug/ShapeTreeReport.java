@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.debug;
+
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.utilities.JSONHelper;
+import com.oracle.truffle.api.utilities.JSONHelper.JSONObjectBuilder;
+import com.oracle.truffle.object.PropertyMap;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.Transition;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Summary of a shape tree: number of shapes and transitions, maximum depth, and an estimate of the
+ * memory retained by the shapes, their property maps and transition maps.
+ *
+ * Sizes are estimated from the declared instance fields, assuming a 12 byte object header, 4 byte
+ * (compressed) references and 8 byte alignment; objects shared with other trees, such as properties
+ * and locations, are not included.
+ */
+public final class ShapeTreeReport {
+    private static final int HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int CONCURRENT_MAP_NODE_SIZE = 32;
+    private static final Map<Class<?>, Long> SHALLOW_SIZES = new ConcurrentHashMap<>();
+
+    private long shapeCount;
+    private long leafCount;
+    private long directTransitionCount;
+    private long indirectTransitionCount;
+    private long inlineTransitionCount;
+    private long transitionMapCount;
+    private long propertyMapCount;
+    private int maxDepth;
+    private int maxPropertyCount;
+    private long retainedSize;
+
+    private ShapeTreeReport() {
+    }
+
+    /**
+     * Create a report for the shape tree that contains the given shape, starting at its root.
+     */
+    public static ShapeTreeReport create(Shape shape) {
+        ShapeTreeReport report = new ShapeTreeReport();
+        report.visitTree((ShapeImpl) shape.getRoot());
+        return report;
+    }
+
+    private void visitTree(ShapeImpl root) {
+        Set<ShapeImpl> visited = Collections.newSetFromMap(new IdentityHashMap<ShapeImpl, Boolean>());
+        Set<PropertyMap> propertyMaps = Collections.newSetFromMap(new IdentityHashMap<PropertyMap, Boolean>());
+        Deque<ShapeImpl> worklist = new ArrayDeque<>();
+        visited.add(root);
+        worklist.add(root);
+        while (!worklist.isEmpty()) {
+            ShapeImpl shape = worklist.poll();
+            visitShape(shape);
+            for (PropertyMap map = shape.getPropertyMap(); !map.isEmpty() && propertyMaps.add(map); map = map.getParentMap()) {
+                propertyMapCount++;
+                retainedSize += shallowSize(map.getClass());
+            }
+            for (Map.Entry<Transition, ShapeImpl> entry : shape.getTransitionMapForRead().entrySet()) {
+                ShapeImpl successor = entry.getValue();
+                if (entry.getKey().isDirect()) {
+                    directTransitionCount++;
+                } else {
+                    indirectTransitionCount++;
+                }
+                if (visited.add(successor)) {
+                    worklist.add(successor);
+                }
+            }
+        }
+    }
+
+    private void visitShape(ShapeImpl shape) {
+        shapeCount++;
+        maxDepth = Math.max(maxDepth, shape.getDepth());
+        maxPropertyCount = Math.max(maxPropertyCount, shape.getPropertyCount());
+        retainedSize += shallowSize(shape.getClass());
+
+        int transitions = shape.getTransitionCount();
+        if (transitions == 0) {
+            leafCount++;
+        } else if (shape.hasTransitionMap()) {
+            transitionMapCount++;
+            int tableLength = Integer.highestOneBit(Math.max(transitions * 2 - 1, 1)) * 2;
+            retainedSize += shallowSize(ConcurrentHashMap.class) + align(ARRAY_HEADER_SIZE + tableLength * REFERENCE_SIZE) + transitions * CONCURRENT_MAP_NODE_SIZE;
+        } else {
+            inlineTransitionCount++;
+        }
+    }
+
+    private static long shallowSize(Class<?> clazz) {
+        Long size = SHALLOW_SIZES.get(clazz);
+        if (size == null) {
+            long fieldSize = 0;
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        fieldSize += fieldSize(field.getType());
+                    }
+                }
+            }
+            size = align(HEADER_SIZE + fieldSize);
+            SHALLOW_SIZES.put(clazz, size);
+        }
+        return size;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        } else {
+            return REFERENCE_SIZE;
+        }
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /** Number of distinct shapes reachable from the root. */
+    public long getShapeCount() {
+        return shapeCount;
+    }
+
+    /** Number of shapes without outgoing transitions. */
+    public long getLeafCount() {
+        return leafCount;
+    }
+
+    public long getDirectTransitionCount() {
+        return directTransitionCount;
+    }
+
+    public long getIndirectTransitionCount() {
+        return indirectTransitionCount;
+    }
+
+    /** Number of shapes whose only transition is stored inline. */
+    public long getInlineTransitionCount() {
+        return inlineTransitionCount;
+    }
+
+    /** Number of shapes that need a transition map. */
+    public long getTransitionMapCount() {
+        return transitionMapCount;
+    }
+
+    /** Number of distinct property map nodes referenced by the shapes. */
+    public long getPropertyMapCount() {
+        return propertyMapCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxPropertyCount() {
+        return maxPropertyCount;
+    }
+
+    /** Estimated number of bytes retained by the shape tree. */
+    public long getRetainedSize() {
+        return retainedSize;
+    }
+
+    public JSONObjectBuilder toJSON() {
+        JSONObjectBuilder json = JSONHelper.object();
+        json.add("shapes", shapeCount);
+        json.add("leaves", leafCount);
+        json.add("directTransitions", directTransitionCount);
+        json.add("indirectTransitions", indirectTransitionCount);
+        json.add("inlineTransitions", inlineTransitionCount);
+        json.add("transitionMaps", transitionMapCount);
+        json.add("propertyMaps", propertyMapCount);
+        json.add("maxDepth", maxDepth);
+        json.add("maxPropertyCount", maxPropertyCount);
+        json.add("retainedSize", retainedSize);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return toJSON().toString();
+    }
+}
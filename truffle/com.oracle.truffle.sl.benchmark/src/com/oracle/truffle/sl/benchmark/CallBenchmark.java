@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the call path of the default runtime with and without reusable frames (
+ * {@code -Dtruffle.DefaultRuntime.ReuseFrames}) on call-heavy SimpleLanguage programs.
+ */
+@State(Scope.Thread)
+public class CallBenchmark extends SLBenchmark {
+
+    private static final String PROGRAM = "" +
+                    "function add(a, b) { return a + b; }\n" +
+                    "function fib(n) {\n" +
+                    "  if (n < 2) { return 1; }\n" +
+                    "  return fib(n - 1) + fib(n - 2);\n" +
+                    "}\n" +
+                    "function calls() {\n" +
+                    "  i = 0; sum = 0;\n" +
+                    "  while (i < 10000) { sum = add(sum, i); i = i + 1; }\n" +
+                    "  return sum;\n" +
+                    "}\n" +
+                    "function recursion() { return fib(15); }\n";
+
+    private PolyglotEngine.Value calls;
+    private PolyglotEngine.Value recursion;
+
+    @Setup
+    public void setup() throws IOException {
+        PolyglotEngine engine = createEngine(PROGRAM);
+        calls = engine.findGlobalSymbol("calls");
+        recursion = engine.findGlobalSymbol("recursion");
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ReuseFrames=false")
+    public Object callsAllocatingFrames() throws IOException {
+        return calls.invoke(null).get();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ReuseFrames=true")
+    public Object callsReusingFrames() throws IOException {
+        return calls.invoke(null).get();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ReuseFrames=false")
+    public Object recursionAllocatingFrames() throws IOException {
+        return recursion.invoke(null).get();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ReuseFrames=true")
+    public Object recursionReusingFrames() throws IOException {
+        return recursion.invoke(null).get();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.utilities.StripedCounter;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the cost of call profiling in the default runtime (
+ * {@code -Dtruffle.DefaultRuntime.ProfileCalls}) and compares the striped call counters against a
+ * single atomic counter that is updated from several threads.
+ */
+@State(Scope.Thread)
+public class CallProfileBenchmark extends SLBenchmark {
+
+    private static final String PROGRAM = "" +
+                    "function add(a, b) { return a + b; }\n" +
+                    "function calls() {\n" +
+                    "  i = 0; sum = 0;\n" +
+                    "  while (i < 10000) { sum = add(sum, i); i = i + 1; }\n" +
+                    "  return sum;\n" +
+                    "}\n";
+
+    private PolyglotEngine.Value calls;
+
+    @Setup
+    public void setup() throws IOException {
+        calls = createEngine(PROGRAM).findGlobalSymbol("calls");
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ProfileCalls=false")
+    public Object callsUnprofiled() throws IOException {
+        return calls.invoke(null).get();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.DefaultRuntime.ProfileCalls=true")
+    public Object callsProfiled() throws IOException {
+        return calls.invoke(null).get();
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedCounters {
+        final AtomicLong atomic = new AtomicLong();
+        final StripedCounter striped = new StripedCounter();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long atomicCounter(SharedCounters counters) {
+        return counters.atomic.incrementAndGet();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void stripedCounter(SharedCounters counters) {
+        counters.striped.increment();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.sl.SLLanguage;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A loop adding numbers by calling a foreign function, in the manner of the arithmetic tests of the
+ * TCK. The loop count is {@value #COUNT}. The <code>sl</code> variants run the loop in
+ * SimpleLanguage, the <code>java</code> ones send {@link Message#createExecute(int) boxed} and
+ * {@link Message#createExecute(int, Class) typed} execute messages from a Java node.
+ */
+@State(Scope.Thread)
+public class CrossLanguageArithmeticBenchmark extends SLBenchmark {
+    private static final long COUNT = 1000;
+
+    public interface LongBinaryFunction {
+        long apply(long a, long b);
+    }
+
+    private static final String PROGRAM = "" +
+                    "function sum(plus, n) {\n" +
+                    "  s = 0;\n" +
+                    "  i = 0;\n" +
+                    "  while (i < n) {\n" +
+                    "    s = plus(s, i);\n" +
+                    "    i = i + 1;\n" +
+                    "  }\n" +
+                    "  return s;\n" +
+                    "}\n" +
+                    "function plus(a, b) { return a + b; }\n";
+
+    private PolyglotEngine.Value sum;
+    private TruffleObject javaPlus;
+    private TruffleObject slPlus;
+    private CallTarget boxedLoop;
+    private CallTarget typedLoop;
+
+    @Setup
+    public void setup() throws IOException {
+        PolyglotEngine engine = createEngine(PROGRAM);
+        sum = engine.findGlobalSymbol("sum");
+        slPlus = engine.findGlobalSymbol("plus").as(TruffleObject.class);
+        javaPlus = JavaInterop.asTruffleFunction(LongBinaryFunction.class, new LongBinaryFunction() {
+            public long apply(long a, long b) {
+                return a + b;
+            }
+        });
+        boxedLoop = Truffle.getRuntime().createCallTarget(new LoopRootNode(false));
+        typedLoop = Truffle.getRuntime().createCallTarget(new LoopRootNode(true));
+    }
+
+    @Benchmark
+    public Object slToJava() throws IOException {
+        return sum.invoke(null, javaPlus, COUNT).get();
+    }
+
+    @Benchmark
+    public Object slToSl() throws IOException {
+        return sum.invoke(null, slPlus, COUNT).get();
+    }
+
+    @Benchmark
+    public Object javaBoxed() {
+        return boxedLoop.call(javaPlus);
+    }
+
+    @Benchmark
+    public Object javaTyped() {
+        return typedLoop.call(javaPlus);
+    }
+
+    static final class LoopRootNode extends RootNode {
+        private final boolean typed;
+        @Child private Node message;
+
+        LoopRootNode(boolean typed) {
+            super(SLLanguage.class, null, null);
+            this.typed = typed;
+            this.message = typed ? Message.createExecute(2, long.class).createNode() : Message.createExecute(2).createNode();
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            TruffleObject plus = (TruffleObject) frame.getArguments()[0];
+            long s = 0;
+            for (long i = 0; i < COUNT; i++) {
+                if (typed) {
+                    try {
+                        s = ForeignAccess.executeLong(message, frame, plus, s, i);
+                    } catch (UnexpectedResultException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                } else {
+                    s = ((Number) ForeignAccess.execute(message, frame, plus, s, i)).longValue();
+                }
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.sl.benchmark.JavaInteropBenchmark.SendRootNode;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The basic interop messages sent from a foreign call site to SimpleLanguage and to Java objects.
+ * SimpleLanguage objects do not understand {@link Message#createInvoke(int) INVOKE}. The
+ * <code>Uncached</code> variants send each message through a new message node, like one-off
+ * accesses from Java do.
+ */
+@State(Scope.Thread)
+public class InteropBenchmark extends SLBenchmark {
+
+    public interface IntBinaryFunction {
+        int apply(int a, int b);
+    }
+
+    public static final class Counter {
+        public int value;
+
+        public int add(int a, int b) {
+            return value + a + b;
+        }
+    }
+
+    private static final String PROGRAM = "" +
+                    "function obj() { o = new(); o.value = 1; return o; }\n" +
+                    "function add(a, b) { return a + b; }\n";
+
+    private CallTarget read;
+    private CallTarget write;
+    private CallTarget execute;
+    private CallTarget invoke;
+
+    private TruffleObject slObject;
+    private TruffleObject slFunction;
+    private TruffleObject javaObject;
+    private TruffleObject javaFunction;
+
+    @Setup
+    public void setup() throws IOException {
+        read = createSendTarget(Message.READ);
+        write = createSendTarget(Message.WRITE);
+        execute = createSendTarget(Message.createExecute(2));
+        invoke = createSendTarget(Message.createInvoke(3));
+
+        PolyglotEngine engine = createEngine(PROGRAM);
+        slObject = engine.findGlobalSymbol("obj").invoke(null).as(TruffleObject.class);
+        slFunction = engine.findGlobalSymbol("add").as(TruffleObject.class);
+        javaObject = JavaInterop.asTruffleObject(new Counter());
+        javaFunction = JavaInterop.asTruffleFunction(IntBinaryFunction.class, new IntBinaryFunction() {
+            public int apply(int a, int b) {
+                return a + b;
+            }
+        });
+    }
+
+    private static CallTarget createSendTarget(Message message) {
+        return Truffle.getRuntime().createCallTarget(new SendRootNode(message.createNode()));
+    }
+
+    @Benchmark
+    public Object slRead() {
+        return read.call(slObject, "value");
+    }
+
+    @Benchmark
+    public Object slWrite() {
+        return write.call(slObject, "value", 2L);
+    }
+
+    @Benchmark
+    public Object slExecute() {
+        return execute.call(slFunction, 1L, 2L);
+    }
+
+    @Benchmark
+    public Object slReadUncached() {
+        return ForeignAccess.execute(Message.READ.createNode(), null, slObject, "value");
+    }
+
+    @Benchmark
+    public Object javaRead() {
+        return read.call(javaObject, "value");
+    }
+
+    @Benchmark
+    public Object javaReadUncached() {
+        return ForeignAccess.execute(Message.READ.createNode(), null, javaObject, "value");
+    }
+
+    @Benchmark
+    public Object javaWrite() {
+        return write.call(javaObject, "value", 2);
+    }
+
+    @Benchmark
+    public Object javaExecute() {
+        return execute.call(javaFunction, 1, 2);
+    }
+
+    @Benchmark
+    public Object javaInvoke() {
+        return invoke.call(javaObject, "add", 1, 2);
+    }
+}
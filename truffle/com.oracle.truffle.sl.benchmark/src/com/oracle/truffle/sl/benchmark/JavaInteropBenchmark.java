@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.sl.SLLanguage;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Field reads and method invocations on a Java object through the interop messages, with members
+ * bound by core reflection or by method handles ({@code -Dtruffle.interop.java.MethodHandles}),
+ * and element access of a foreign array seen from Java as a {@link List}.
+ */
+@State(Scope.Thread)
+public class JavaInteropBenchmark extends SLBenchmark {
+
+    public static final class Point {
+        public int x = 3;
+        public int y = 4;
+
+        public int add(int dx, int dy) {
+            return x + dx + y + dy;
+        }
+    }
+
+    private static final int LIST_SIZE = 10000;
+
+    private TruffleObject point;
+    private CallTarget read;
+    private CallTarget invoke;
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        point = JavaInterop.asTruffleObject(new Point());
+        read = Truffle.getRuntime().createCallTarget(new SendRootNode(Message.READ.createNode()));
+        invoke = Truffle.getRuntime().createCallTarget(new SendRootNode(Message.createInvoke(3).createNode()));
+        list = asIntegerList(JavaInterop.asTruffleObject(new int[LIST_SIZE]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> asIntegerList(TruffleObject array) {
+        return JavaInterop.asJavaObject(List.class, array);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.interop.java.MethodHandles=false")
+    public Object readReflection() {
+        return read.call(point, "x");
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.interop.java.MethodHandles=true")
+    public Object readMethodHandles() {
+        return read.call(point, "x");
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.interop.java.MethodHandles=false")
+    public Object invokeReflection() {
+        return invoke.call(point, "add", 1, 2);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.interop.java.MethodHandles=true")
+    public Object invokeMethodHandles() {
+        return invoke.call(point, "add", 1, 2);
+    }
+
+    @Benchmark
+    public int listGet() {
+        int sum = 0;
+        for (int i = 0; i < LIST_SIZE; i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int listIterate() {
+        int sum = 0;
+        for (int element : list) {
+            sum += element;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object[] listToArray() {
+        return list.toArray();
+    }
+
+    /**
+     * Sends its message to the first argument, passing the remaining ones as message arguments.
+     */
+    static final class SendRootNode extends RootNode {
+        @Child private Node message;
+
+        SendRootNode(Node message) {
+            super(SLLanguage.class, null, null);
+            this.message = message;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            Object[] messageArgs = new Object[args.length - 1];
+            System.arraycopy(args, 1, messageArgs, 0, messageArgs.length);
+            return ForeignAccess.execute(message, frame, (TruffleObject) args[0], messageArgs);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.sl.SLLanguage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sends a message from one call site to each element of a heterogeneous collection, whose elements
+ * all have a {@link ForeignAccess} of their own. Beyond the size of the inline cache the call site
+ * goes megamorphic.
+ */
+@State(Scope.Thread)
+public class MegamorphicInteropBenchmark extends SLBenchmark {
+    @Param({"4", "8", "16", "64"}) private int kinds;
+
+    private CallTarget loop;
+    private TruffleObject[] receivers;
+
+    @Setup
+    public void setup() {
+        receivers = new TruffleObject[kinds];
+        for (int i = 0; i < kinds; i++) {
+            receivers[i] = new Receiver(i);
+        }
+        loop = Truffle.getRuntime().createCallTarget(new LoopRootNode());
+    }
+
+    @Benchmark
+    public Object sendToAll() {
+        return loop.call((Object) receivers);
+    }
+
+    static final class LoopRootNode extends RootNode {
+        @Child private Node message = Message.IS_NULL.createNode();
+
+        LoopRootNode() {
+            super(SLLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            TruffleObject[] all = (TruffleObject[]) frame.getArguments()[0];
+            int sum = 0;
+            for (TruffleObject receiver : all) {
+                sum += (Integer) ForeignAccess.execute(message, frame, receiver);
+            }
+            return sum;
+        }
+    }
+
+    static final class Receiver implements TruffleObject, ForeignAccess.Factory {
+        private final int id;
+        private final ForeignAccess access = ForeignAccess.create(this);
+
+        Receiver(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public ForeignAccess getForeignAccess() {
+            return access;
+        }
+
+        @Override
+        public boolean canHandle(TruffleObject obj) {
+            return obj == this;
+        }
+
+        @Override
+        public CallTarget accessMessage(Message tree) {
+            return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(id));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses a large generated SimpleLanguage program. Every node gets a source section, so this
+ * measures how the line/column mapping of {@link Source} scales with the number of lines. Each
+ * iteration appends a distinct comment so that the engine does not reuse the previous parse.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark extends SLBenchmark {
+
+    @Param({"10000", "100000"}) private int lineCount;
+
+    private String program;
+    private PolyglotEngine engine;
+    private int iteration;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i * 4 < lineCount; i++) {
+            sb.append("function f").append(i).append("(a) {\n");
+            sb.append("  b = a + ").append(i).append(";\n");
+            sb.append("  return b * 2;\n");
+            sb.append("}\n");
+        }
+        program = sb.toString();
+        engine = PolyglotEngine.newBuilder().setOut(new ByteArrayOutputStream()).build();
+    }
+
+    @Benchmark
+    public Object parse() throws IOException {
+        return engine.eval(Source.fromText(program + "// " + iteration++ + "\n", "generated.sl").withMimeType(SL_MIME_TYPE));
+    }
+
+    /**
+     * A fresh engine per tenant loading the same library under its own name, which the parse cache
+     * of SL recognizes by content.
+     */
+    @Benchmark
+    public Object evalInNewEngine() throws IOException {
+        PolyglotEngine tenant = PolyglotEngine.newBuilder().setOut(new ByteArrayOutputStream()).build();
+        return tenant.eval(Source.fromText(program, "tenant" + iteration++ + ".sl").withMimeType(SL_MIME_TYPE));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.benchmark;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Uncached property lookups on objects with many properties, with and without the hash index of
+ * large property maps.
+ */
+@State(Scope.Thread)
+public class PropertyMapBenchmark extends SLBenchmark {
+
+    @Param({"10", "100", "1000"}) private int propertyCount;
+
+    private Shape shape;
+    private DynamicObject object;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Layout layout = Layout.createLayout();
+        object = layout.newInstance(layout.createShape(new ObjectType()));
+        keys = new String[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            keys[i] = "p" + i;
+            object.define(keys[i], i);
+        }
+        shape = object.getShape();
+    }
+
+    private String nextKey() {
+        String key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.object.PropertyMapIndexThreshold=2147483647")
+    public Object lookupLinear() {
+        return object.get(nextKey(), null);
+    }
+
+    @Benchmark
+    public Object lookupIndexed() {
+        return object.get(nextKey(), null);
+    }
+
+    @Benchmark
+    public Object hasProperty() {
+        return shape.hasProperty(nextKey());
+    }
+}
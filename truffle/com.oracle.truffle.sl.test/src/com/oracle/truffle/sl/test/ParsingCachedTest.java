@@ -43,8 +43,10 @@ package com.oracle.truffle.sl.test;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.runtime.SLFunction;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 
 public class ParsingCachedTest {
@@ -64,4 +66,47 @@ public class ParsingCachedTest {
         assertEquals("No more parsing happened", cnt + 1, SLLanguage.parsingCount());
     }
 
+    @Test
+    public void sameSourceInAnotherEngine() throws Throwable {
+        Source source = Source.fromText("function main() { return 42; }", "shared.sl").withMimeType("application/x-sl");
+
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        int cnt = SLLanguage.parsingCount();
+        long hits = SLLanguage.parseCache().getHits();
+        engine.eval(source);
+        assertEquals("One parsing happened", cnt + 1, SLLanguage.parsingCount());
+
+        PolyglotEngine another = PolyglotEngine.newBuilder().build();
+        another.eval(source);
+        assertEquals("Same source is not parsed again", cnt + 1, SLLanguage.parsingCount());
+        assertEquals(hits + 1, SLLanguage.parseCache().getHits());
+        assertEquals(42L, another.findGlobalSymbol("main").invoke(null).get());
+    }
+
+    @Test
+    public void sameTextWithAnotherName() throws Throwable {
+        String text = "function main() { return 43; }";
+        Source first = Source.fromText(text, "tenant1.sl").withMimeType("application/x-sl");
+        Source second = Source.fromText(text, "tenant2.sl").withMimeType("application/x-sl");
+
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        int cnt = SLLanguage.parsingCount();
+        engine.eval(first);
+        assertEquals("One parsing happened", cnt + 1, SLLanguage.parsingCount());
+
+        PolyglotEngine another = PolyglotEngine.newBuilder().build();
+        another.eval(second);
+        assertEquals("Same text under another name is not parsed again", cnt + 1, SLLanguage.parsingCount());
+        assertEquals(43L, another.findGlobalSymbol("main").invoke(null).get());
+
+        SLFunction main = another.findGlobalSymbol("main").as(SLFunction.class);
+        SLFunction firstMain = engine.findGlobalSymbol("main").as(SLFunction.class);
+        assertSame("Both engines share the parsed function", firstMain.getCallTarget().getRootNode(), main.getCallTarget().getRootNode());
+
+        // the first source is cached, the second one evicts nothing
+        engine.eval(first);
+        assertEquals(cnt + 1, SLLanguage.parsingCount());
+    }
+
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+
+public class SLDictionaryModeTest {
+    private static final int PROPERTIES = 100;
+
+    private static PolyglotEngine evalGrow() throws Exception {
+        StringBuilder code = new StringBuilder("function grow() {\n  obj = new();\n");
+        for (int i = 0; i < PROPERTIES; i++) {
+            code.append("  obj.p").append(i).append(" = ").append(i).append(";\n");
+        }
+        code.append("  return obj;\n}\n");
+        code.append("function small() {\n  obj = new();\n  obj.a = 1;\n  obj.b = 2;\n  return obj;\n}\n");
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        engine.eval(Source.fromText(code, "grow.sl").withMimeType("application/x-sl"));
+        return engine;
+    }
+
+    @Test
+    public void cachedWritesSwitchToDictionary() throws Exception {
+        PolyglotEngine engine = evalGrow();
+        PolyglotEngine.Value grow = engine.findGlobalSymbol("grow");
+        // the second call runs through the write property caches set up by the first one
+        for (int run = 0; run < 2; run++) {
+            DynamicObject obj = grow.invoke(null).as(DynamicObject.class);
+            assertTrue(obj.getShape().isDictionary());
+            assertEquals(PROPERTIES, obj.size());
+            List<Object> keys = obj.getKeyList();
+            assertEquals(PROPERTIES, keys.size());
+            for (int i = 0; i < PROPERTIES; i++) {
+                assertEquals("p" + i, keys.get(i));
+                assertEquals((long) i, obj.get("p" + i));
+            }
+        }
+    }
+
+    @Test
+    public void smallObjectsKeepShape() throws Exception {
+        PolyglotEngine engine = evalGrow();
+        DynamicObject obj = engine.findGlobalSymbol("small").invoke(null).as(DynamicObject.class);
+        assertFalse(obj.getShape().isDictionary());
+        assertEquals(2, obj.getKeyList().size());
+    }
+}
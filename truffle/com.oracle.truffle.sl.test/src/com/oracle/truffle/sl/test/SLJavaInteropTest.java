@@ -42,14 +42,20 @@ package com.oracle.truffle.sl.test;
 
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.sl.nodes.call.SLInvokeNode;
+import com.oracle.truffle.sl.runtime.SLArray;
 import com.oracle.truffle.sl.runtime.SLFunction;
 import com.oracle.truffle.sl.test.instrument.InstrumentationTestMode;
 
 import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import org.junit.After;
 import static org.junit.Assert.assertNotNull;
@@ -86,4 +92,87 @@ public class SLJavaInteropTest {
 
         assertEquals("Called!\n", os.toString("UTF-8"));
     }
+
+    @Test
+    public void arrayAsList() throws Exception {
+        String scriptText = "function squares(n) {\n" + //
+                        "  a = newArray(n);\n" + //
+                        "  i = 0;\n" + //
+                        "  while (i < n) { arraySet(a, i, i * i); i = i + 1; }\n" + //
+                        "  return a;\n" + //
+                        "}\n";
+        Source script = Source.fromText(scriptText, "Test").withMimeType("application/x-sl");
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        engine.eval(script);
+        PolyglotEngine.Value result = engine.findGlobalSymbol("squares").invoke(null, 4);
+        SLArray array = result.as(SLArray.class);
+        assertNotNull("Arrays are SL arrays", array);
+        @SuppressWarnings("unchecked")
+        List<Number> list = result.as(List.class);
+        assertEquals(4, list.size());
+        assertEquals(9L, list.get(3).longValue());
+
+        list.set(1, 2.5);
+        assertTrue("Writing a double widens the storage", array.isDoubleStore());
+        assertEquals(2.5, list.get(1).doubleValue(), 0);
+        assertEquals(9.0, list.get(3).doubleValue(), 0);
+
+        list.set(2, 1L << 60);
+        assertTrue("A long that is not exact as double widens to objects", array.isObjectStore());
+        assertEquals(1L << 60, list.get(2));
+    }
+
+    public interface ObjectBinaryFunction {
+        long apply(Object a, Object b);
+    }
+
+    public interface LongToStringFunction {
+        String apply(long a, long b);
+    }
+
+    @Test
+    public void typedCallFallsBackOnArgument() throws Exception {
+        final int[] calls = new int[1];
+        TruffleObject length = JavaInterop.asTruffleFunction(ObjectBinaryFunction.class, new ObjectBinaryFunction() {
+            public long apply(Object a, Object b) {
+                calls[0]++;
+                return (a + "" + b).length();
+            }
+        });
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        engine.eval(Source.fromText("function callWithArgument(f, a, b) {\n  return f(a, b);\n}\n", "Test").withMimeType("application/x-sl"));
+        PolyglotEngine.Value callWithArgument = engine.findGlobalSymbol("callWithArgument");
+
+        assertEquals(2L, callWithArgument.invoke(null, length, 1, 2).get());
+        assertTrue(isTypedCall(callWithArgument));
+        assertEquals(5L, callWithArgument.invoke(null, length, 1, "abcd").get());
+        assertEquals("The function is called once per invocation", 2, calls[0]);
+        assertFalse(isTypedCall(callWithArgument));
+        assertEquals(3L, callWithArgument.invoke(null, length, 10, 4).get());
+    }
+
+    @Test
+    public void typedCallFallsBackOnResult() throws Exception {
+        TruffleObject format = JavaInterop.asTruffleFunction(LongToStringFunction.class, new LongToStringFunction() {
+            public String apply(long a, long b) {
+                return a + ":" + b;
+            }
+        });
+        PolyglotEngine engine = PolyglotEngine.newBuilder().build();
+        engine.eval(Source.fromText("function callWithResult(f, a, b) {\n  return f(a, b);\n}\n", "Test").withMimeType("application/x-sl"));
+        PolyglotEngine.Value callWithResult = engine.findGlobalSymbol("callWithResult");
+
+        assertTrue(isTypedCall(callWithResult));
+        assertEquals("1:2", callWithResult.invoke(null, format, 1, 2).get());
+        assertFalse(isTypedCall(callWithResult));
+        assertEquals("3:4", callWithResult.invoke(null, format, 3, 4).get());
+    }
+
+    private static boolean isTypedCall(PolyglotEngine.Value function) throws Exception {
+        Field typedCall = SLInvokeNode.class.getDeclaredField("typedCall");
+        typedCall.setAccessible(true);
+        List<SLInvokeNode> invokes = NodeUtil.findAllNodeInstances(function.as(SLFunction.class).getCallTarget().getRootNode(), SLInvokeNode.class);
+        assertEquals(1, invokes.size());
+        return typedCall.getBoolean(invokes.get(0));
+    }
 }
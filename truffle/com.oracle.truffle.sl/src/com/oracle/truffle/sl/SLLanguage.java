@@ -46,6 +46,7 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.math.BigInteger;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -67,6 +68,7 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.ContentHashCache;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.api.vm.PolyglotEngine;
@@ -114,8 +116,6 @@ import com.oracle.truffle.sl.runtime.SLContext;
 import com.oracle.truffle.sl.runtime.SLFunction;
 import com.oracle.truffle.sl.runtime.SLFunctionRegistry;
 import com.oracle.truffle.sl.runtime.SLNull;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  * SL is a simple language to demonstrate and showcase features of Truffle. The implementation is as
@@ -207,11 +207,17 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
     private static List<NodeFactory<? extends SLBuiltinNode>> builtins = Collections.emptyList();
     private static Visualizer visualizer = new SLDefaultVisualizer();
     private static int parsingCount;
+    private static final int PARSE_CACHE_SIZE = 256;
 
-    private final Map<Source, CallTarget> compiled;
+    /**
+     * Parse results keyed by MIME type and source text, so a script is parsed only once however many
+     * engines load it and whatever it is called. The functions of a shared parse result refer to the
+     * source that was parsed first for their locations, stack traces and instrumentation.
+     */
+    private final ContentHashCache<Parsed> compiled;
 
     private SLLanguage() {
-        compiled = Collections.synchronizedMap(new WeakHashMap<Source, CallTarget>());
+        compiled = new ContentHashCache<>(PARSE_CACHE_SIZE);
     }
 
     public static final SLLanguage INSTANCE = new SLLanguage();
@@ -228,6 +234,11 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
         return context;
     }
 
+    @Override
+    protected void disposeContext(SLContext context) {
+        context.dispose();
+    }
+
     /* Small tools that can be installed for demonstration */
     // private static NodeExecCounter nodeExecCounter = null;
     // private static NodeExecCounter statementExecCounter = null;
@@ -268,6 +279,13 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
         return parsingCount;
     }
 
+    /**
+     * The cache of parsed sources shared by all engines, e.g. to report its hit rate.
+     */
+    public static ContentHashCache<?> parseCache() {
+        return INSTANCE.compiled;
+    }
+
     /**
      * Parse and run the specified SL source. Factored out in a separate method so that it can also
      * be used by the unit test harness.
@@ -425,9 +443,9 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
 
     @Override
     protected CallTarget parse(Source code, final Node node, String... argumentNames) throws IOException {
-        CallTarget cached = compiled.get(code);
-        if (cached != null) {
-            return cached;
+        Parsed parsed = compiled.get(code);
+        if (parsed != null && parsed.isFor(node, argumentNames)) {
+            return parsed.target;
         }
         parsingCount++;
         final SLContext c = new SLContext(this);
@@ -470,9 +488,28 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
                 return null;
             }
         };
-        cached = Truffle.getRuntime().createCallTarget(rootNode);
-        compiled.put(code, cached);
-        return cached;
+        CallTarget target = Truffle.getRuntime().createCallTarget(rootNode);
+        compiled.put(code, new Parsed(node != null, argumentNames, target));
+        return target;
+    }
+
+    /**
+     * A parse result together with the kind of request it was parsed for.
+     */
+    private static final class Parsed {
+        final boolean withNode;
+        final String[] argumentNames;
+        final CallTarget target;
+
+        Parsed(boolean withNode, String[] argumentNames, CallTarget target) {
+            this.withNode = withNode;
+            this.argumentNames = argumentNames;
+            this.target = target;
+        }
+
+        boolean isFor(Node node, String[] names) {
+            return withNode == (node != null) && Arrays.equals(argumentNames, names);
+        }
     }
 
     @Override
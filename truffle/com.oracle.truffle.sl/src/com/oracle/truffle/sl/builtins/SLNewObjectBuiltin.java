@@ -40,13 +40,17 @@
  */
 package com.oracle.truffle.sl.builtins;
 
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.object.AllocationSite;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.sl.SLLanguage;
 
 /**
  * Built-in function to create a new object. Objects in SL are simply made up of name/value pairs.
+ * Objects are allocated through an {@link AllocationSite}, so that they start out with enough
+ * storage for the properties that previously created objects ended up with.
  */
 @NodeInfo(shortName = "new")
 public abstract class SLNewObjectBuiltin extends SLBuiltinNode {
@@ -56,7 +60,11 @@ public abstract class SLNewObjectBuiltin extends SLBuiltinNode {
     }
 
     @Specialization
-    public Object newObject() {
-        return getContext().createObject();
+    public Object newObject(@Cached("createAllocationSite()") AllocationSite site) {
+        return site.newInstance();
+    }
+
+    protected AllocationSite createAllocationSite() {
+        return getContext().createAllocationSite();
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.builtins;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.runtime.SLArray;
+import com.oracle.truffle.sl.runtime.SLFunction;
+
+/**
+ * Built-in function that calls a function for every index of a range in parallel. For example,
+ * {@code parallelMap(f, 0, n)} calls {@code f(0)}, ..., {@code f(n - 1)} on the workers of a
+ * fork-join pool. The result is a new {@link SLArray} of length {@code n} that holds the value
+ * that the function returned for every index.
+ * <p>
+ * The functions run concurrently and must not depend on each other's side effects. Like
+ * {@link com.oracle.truffle.sl.nodes.call.SLDispatchNode}, the builtin caches the workers of the
+ * last few functions it was called with. Beyond that, it reuses the workers that the context keeps
+ * per function.
+ */
+@NodeInfo(shortName = "parallelMap")
+public abstract class SLParallelMapBuiltin extends SLBuiltinNode {
+
+    protected static final int INLINE_CACHE_SIZE = 2;
+
+    public SLParallelMapBuiltin() {
+        super(SourceSection.createUnavailable(SLLanguage.builtinKind, "parallelMap"));
+    }
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = "function == cachedFunction", assumptions = "cachedFunction.getCallTargetStable()")
+    public Object doCached(@SuppressWarnings("unused") SLFunction function, long from, long to,   //
+                    @Cached("function") @SuppressWarnings("unused") SLFunction cachedFunction,   //
+                    @Cached("createWorkers(cachedFunction)") SLParallelWorkers workers) {
+        return SLArray.create(workers.map(getContext().getForkJoinPool(), from, to));
+    }
+
+    @Specialization(contains = "doCached")
+    public Object doUncached(SLFunction function, long from, long to) {
+        return doCached(function, from, to, function, SLParallelWorkers.lookup(getContext(), function, null));
+    }
+
+    protected static SLParallelWorkers createWorkers(SLFunction function) {
+        return new SLParallelWorkers(function, null);
+    }
+}
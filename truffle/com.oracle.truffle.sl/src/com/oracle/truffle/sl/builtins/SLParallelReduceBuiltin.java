@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.builtins;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.runtime.SLFunction;
+import com.oracle.truffle.sl.runtime.SLNull;
+
+/**
+ * Built-in function that maps every index of a range and combines the results in parallel. For
+ * example, {@code parallelReduce(f, add, 0, n)} computes {@code add(...add(f(0), f(1))..., f(n - 1))}
+ * on the workers of a fork-join pool. The combining function must be associative, since partial
+ * results of different workers are combined in an unspecified grouping; they are always combined
+ * in the order of the indices, though. Returns {@code null} for an empty range.
+ * <p>
+ * The functions run concurrently and must not depend on each other's side effects.
+ */
+@NodeInfo(shortName = "parallelReduce")
+public abstract class SLParallelReduceBuiltin extends SLBuiltinNode {
+
+    protected static final int INLINE_CACHE_SIZE = 2;
+
+    public SLParallelReduceBuiltin() {
+        super(SourceSection.createUnavailable(SLLanguage.builtinKind, "parallelReduce"));
+    }
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = {"mapper == cachedMapper", "reducer == cachedReducer"}, assumptions = {"cachedMapper.getCallTargetStable()",
+                    "cachedReducer.getCallTargetStable()"})
+    public Object doCached(@SuppressWarnings("unused") SLFunction mapper, @SuppressWarnings("unused") SLFunction reducer, long from, long to,   //
+                    @Cached("mapper") @SuppressWarnings("unused") SLFunction cachedMapper,   //
+                    @Cached("reducer") @SuppressWarnings("unused") SLFunction cachedReducer,   //
+                    @Cached("createWorkers(cachedMapper, cachedReducer)") SLParallelWorkers workers) {
+        Object result = workers.reduce(getContext().getForkJoinPool(), from, to);
+        return result == null ? SLNull.SINGLETON : result;
+    }
+
+    @Specialization(contains = "doCached")
+    public Object doUncached(SLFunction mapper, SLFunction reducer, long from, long to) {
+        return doCached(mapper, reducer, from, to, mapper, reducer, SLParallelWorkers.lookup(getContext(), mapper, reducer));
+    }
+
+    protected static SLParallelWorkers createWorkers(SLFunction mapper, SLFunction reducer) {
+        return new SLParallelWorkers(mapper, reducer);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.builtins;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.sl.SLException;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.nodes.call.SLUndefinedFunctionException;
+import com.oracle.truffle.sl.runtime.SLContext;
+import com.oracle.truffle.sl.runtime.SLFunction;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Executes the SL functions of a {@link SLParallelMapBuiltin parallelMap} or
+ * {@link SLParallelReduceBuiltin parallelReduce} over an index range on a {@link ForkJoinPool}.
+ * <p>
+ * The range is split into chunks that are executed by the workers of the pool. Every worker thread
+ * gets its own {@link Worker} root node with its own {@link DirectCallNode}s for the SL functions,
+ * so the call nodes and, if the runtime supports it, cloned call targets specialize per thread
+ * instead of being shared between all workers. The SL functions run concurrently and must
+ * therefore not depend on each other's side effects.
+ */
+public final class SLParallelWorkers {
+
+    /**
+     * Number of chunks per worker of the pool, so that work can still be balanced between the
+     * workers if the chunks take different times.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final RootCallTarget mapper;
+    private final RootCallTarget reducer;
+    private final ThreadLocal<RootCallTarget> workers = new ThreadLocal<RootCallTarget>() {
+        @Override
+        protected RootCallTarget initialValue() {
+            return Truffle.getRuntime().createCallTarget(new Worker(mapper, reducer));
+        }
+    };
+
+    SLParallelWorkers(SLFunction mapper, SLFunction reducer) {
+        this.mapper = callTarget(mapper);
+        this.reducer = reducer == null ? null : callTarget(reducer);
+    }
+
+    /**
+     * Returns the workers for the given functions from the cache of the context, creating them if
+     * the cached workers of the mapper were created for another reducer or another version of the
+     * functions. Used by the uncached specializations of the builtins, so that their workers and
+     * worker call targets are not created anew on every call.
+     */
+    @TruffleBoundary
+    static SLParallelWorkers lookup(SLContext context, SLFunction mapper, SLFunction reducer) {
+        Map<SLFunction, SLParallelWorkers> cache = context.getParallelWorkers();
+        synchronized (cache) {
+            SLParallelWorkers workers = cache.get(mapper);
+            if (workers == null || !workers.isFor(mapper, reducer)) {
+                workers = new SLParallelWorkers(mapper, reducer);
+                cache.put(mapper, workers);
+            }
+            return workers;
+        }
+    }
+
+    private boolean isFor(SLFunction mapperFunction, SLFunction reducerFunction) {
+        if (mapper != mapperFunction.getCallTarget()) {
+            return false;
+        }
+        return reducerFunction == null ? reducer == null : reducer == reducerFunction.getCallTarget();
+    }
+
+    private static RootCallTarget callTarget(SLFunction function) {
+        RootCallTarget target = function.getCallTarget();
+        if (target == null) {
+            throw new SLUndefinedFunctionException(function.getName());
+        }
+        return target;
+    }
+
+    /**
+     * Calls the mapper for every index in {@code [from, to)} and returns the results in the order
+     * of the indices.
+     */
+    @TruffleBoundary
+    Object[] map(ForkJoinPool pool, long from, long to) {
+        Object[] results = new Object[length(from, to)];
+        if (results.length > 0) {
+            pool.invoke(new Chunk(from, from + results.length, chunkSize(pool, results.length), results, from));
+        }
+        return results;
+    }
+
+    /**
+     * Calls the mapper for every index in {@code [from, to)} and combines the results with the
+     * reducer, which must be associative. Returns {@code null} for an empty range.
+     */
+    @TruffleBoundary
+    Object reduce(ForkJoinPool pool, long from, long to) {
+        int length = length(from, to);
+        if (length == 0) {
+            return null;
+        }
+        return pool.invoke(new Chunk(from, to, chunkSize(pool, length), null, from));
+    }
+
+    private static int length(long from, long to) {
+        if (to <= from) {
+            return 0;
+        }
+        long length = to - from;
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new SLException("Index range too large: " + from + " to " + to);
+        }
+        return (int) length;
+    }
+
+    private static long chunkSize(ForkJoinPool pool, int length) {
+        return Math.max(1, length / (pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    private Object callWorker(Object... arguments) {
+        return workers.get().call(arguments);
+    }
+
+    /**
+     * A part of the index range. Map chunks store the results of the mapper in {@code results} at
+     * the index relative to {@code base}; reduce chunks have no {@code results} and return the
+     * reduced value of their part instead.
+     */
+    private final class Chunk extends RecursiveTask<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final long chunkSize;
+        private final Object[] results;
+        private final long base;
+
+        Chunk(long from, long to, long chunkSize, Object[] results, long base) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.results = results;
+            this.base = base;
+        }
+
+        @Override
+        protected Object compute() {
+            if (to - from <= chunkSize) {
+                if (results != null) {
+                    return callWorker(Worker.MAP, from, to, results, base);
+                }
+                return callWorker(Worker.REDUCE, from, to);
+            }
+            long middle = from + (to - from) / 2;
+            Chunk left = new Chunk(from, middle, chunkSize, results, base);
+            Chunk right = new Chunk(middle, to, chunkSize, results, base);
+            right.fork();
+            Object leftResult = left.compute();
+            Object rightResult = right.join();
+            if (results != null) {
+                return null;
+            }
+            return callWorker(Worker.COMBINE, leftResult, rightResult);
+        }
+    }
+
+    /**
+     * The root node of a worker thread. Executes a chunk of the range, or combines two partial
+     * results of a reduction, depending on the operation passed as the first argument.
+     */
+    private static final class Worker extends RootNode {
+
+        static final int MAP = 0;
+        static final int REDUCE = 1;
+        static final int COMBINE = 2;
+
+        @Child private DirectCallNode mapperCall;
+        @Child private DirectCallNode reducerCall;
+
+        Worker(RootCallTarget mapper, RootCallTarget reducer) {
+            super(SLLanguage.class, SourceSection.createUnavailable(SLLanguage.builtinKind, "parallel worker"), new FrameDescriptor());
+            this.mapperCall = createCallNode(mapper);
+            this.reducerCall = reducer == null ? null : createCallNode(reducer);
+        }
+
+        private static DirectCallNode createCallNode(RootCallTarget target) {
+            DirectCallNode callNode = Truffle.getRuntime().createDirectCallNode(target);
+            if (callNode.isCallTargetCloningAllowed()) {
+                callNode.cloneCallTarget();
+            }
+            return callNode;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] arguments = frame.getArguments();
+            switch ((int) arguments[0]) {
+                case MAP:
+                    executeMap(frame, (long) arguments[1], (long) arguments[2], (Object[]) arguments[3], (long) arguments[4]);
+                    return null;
+                case REDUCE:
+                    return executeReduce(frame, (long) arguments[1], (long) arguments[2]);
+                case COMBINE:
+                    return reducerCall.call(frame, new Object[]{arguments[1], arguments[2]});
+                default:
+                    throw new IllegalArgumentException();
+            }
+        }
+
+        private void executeMap(VirtualFrame frame, long from, long to, Object[] results, long base) {
+            for (long i = from; i < to; i++) {
+                results[(int) (i - base)] = mapperCall.call(frame, new Object[]{i});
+            }
+        }
+
+        private Object executeReduce(VirtualFrame frame, long from, long to) {
+            Object result = mapperCall.call(frame, new Object[]{from});
+            for (long i = from + 1; i < to; i++) {
+                Object value = mapperCall.call(frame, new Object[]{i});
+                result = reducerCall.call(frame, new Object[]{result, value});
+            }
+            return result;
+        }
+    }
+}
@@ -51,6 +51,7 @@ import com.oracle.truffle.api.frame.FrameInstance;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.FrameInstanceVisitor;
 import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameStackDepth;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.SourceSection;
@@ -73,9 +74,15 @@ public abstract class SLStackTraceBuiltin extends SLBuiltinNode {
         return createStackTrace();
     }
 
+    /**
+     * Rough number of characters per frame of the stack trace, used to size the output buffer.
+     */
+    private static final int ESTIMATED_FRAME_LENGTH = 64;
+
     @TruffleBoundary
     private static String createStackTrace() {
-        final StringBuilder str = new StringBuilder();
+        FrameStackDepth stackDepth = Truffle.getRuntime().getCapability(FrameStackDepth.class);
+        final StringBuilder str = stackDepth == null ? new StringBuilder() : new StringBuilder(stackDepth.getStackDepth() * ESTIMATED_FRAME_LENGTH);
 
         Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Integer>() {
             @Override
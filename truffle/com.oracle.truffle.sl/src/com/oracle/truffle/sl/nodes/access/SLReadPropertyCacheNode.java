@@ -69,6 +69,20 @@ public abstract class SLReadPropertyCacheNode extends Node {
 
     public abstract long executeLong(DynamicObject receiver) throws UnexpectedResultException;
 
+    /*
+     * Objects in dictionary mode share a single shape that does not describe their properties, so
+     * their properties cannot be cached.
+     */
+    @Specialization(guards = "isDictionary(receiver)")
+    @TruffleBoundary
+    protected Object doDictionary(DynamicObject receiver) {
+        return receiver.get(propertyName, SLNull.SINGLETON);
+    }
+
+    protected static boolean isDictionary(DynamicObject receiver) {
+        return receiver.getShape().isDictionary();
+    }
+
     /*
      * We use a separate long specialization to avoid boxing for long.
      */
@@ -108,13 +122,7 @@ public abstract class SLReadPropertyCacheNode extends Node {
     @Specialization(contains = "doCachedObject")
     @TruffleBoundary
     protected Object doGeneric(DynamicObject receiver) {
-        Shape shape = receiver.getShape();
-        Property property = shape.getProperty(propertyName);
-        if (property != null) {
-            return property.get(receiver, shape);
-        } else {
-            return SLNull.SINGLETON;
-        }
+        return receiver.get(propertyName, SLNull.SINGLETON);
     }
 
 }
@@ -66,6 +66,16 @@ public abstract class SLWritePropertyCacheNode extends Node {
 
     public abstract void executeObject(DynamicObject receiver, Object value);
 
+    /*
+     * Objects in dictionary mode share a single shape that does not describe their properties, so
+     * their properties cannot be cached.
+     */
+    @Specialization(guards = "isDictionary(receiver)")
+    @TruffleBoundary
+    public void writeDictionary(DynamicObject receiver, Object value) {
+        receiver.define(propertyName, value);
+    }
+
     @Specialization(guards = {"location != null", "shape.check(receiver)", "canSet(location, receiver, value)"}, assumptions = {"shape.getValidAssumption()"}, limit = "CACHE_LIMIT")
     public void writeExistingPropertyCached(DynamicObject receiver, Object value, //
                     @Cached("lookupLocation(receiver, value)") Location location, //
@@ -84,6 +94,16 @@ public abstract class SLWritePropertyCacheNode extends Node {
         }
     }
 
+    /*
+     * Adding a property to an object whose shape has reached the dictionary mode threshold switches
+     * the object to dictionary mode, which a cached shape transition would bypass.
+     */
+    @Specialization(guards = "isDictionaryModeDue(receiver)")
+    @TruffleBoundary
+    public void writeToDictionary(DynamicObject receiver, Object value) {
+        receiver.define(propertyName, value);
+    }
+
     @Specialization(guards = {"existing == null", "shapeBefore.check(receiver)", "canSet(newLocation, receiver, value)"}, assumptions = {"shapeBefore.getValidAssumption()",
                     "shapeAfter.getValidAssumption()"}, limit = "CACHE_LIMIT")
     public void writeNewPropertyCached(DynamicObject receiver, Object value, //
@@ -136,6 +156,14 @@ public abstract class SLWritePropertyCacheNode extends Node {
         return receiver.updateShape() ? NeverValidAssumption.INSTANCE : AlwaysValidAssumption.INSTANCE;
     }
 
+    protected static boolean isDictionary(DynamicObject receiver) {
+        return receiver.getShape().isDictionary();
+    }
+
+    protected static boolean isDictionaryModeDue(DynamicObject receiver) {
+        return receiver.getShape().isDictionaryModeDue();
+    }
+
     protected static boolean canSet(Location location, DynamicObject receiver, Object value) {
         return location.canSet(receiver, value);
     }
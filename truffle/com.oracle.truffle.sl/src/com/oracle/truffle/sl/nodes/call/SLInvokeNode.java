@@ -41,6 +41,8 @@
 package com.oracle.truffle.sl.nodes.call;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeChildren;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -51,6 +53,7 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.sl.nodes.SLExpressionNode;
 import com.oracle.truffle.sl.runtime.SLContext;
@@ -66,6 +69,8 @@ import com.oracle.truffle.sl.runtime.SLFunction;
 @NodeInfo(shortName = "invoke")
 @NodeChildren({@NodeChild(value = "functionNode", type = SLExpressionNode.class)})
 public abstract class SLInvokeNode extends SLExpressionNode {
+    private static final int MAX_TYPED_ARGUMENTS = 4;
+
     @Children private final SLExpressionNode[] argumentNodes;
     @Child private SLDispatchNode dispatchNode;
 
@@ -94,6 +99,12 @@ public abstract class SLInvokeNode extends SLExpressionNode {
     }
 
     @Child private Node crossLanguageCall;
+    @Child private Node typedCrossLanguageCall;
+    /**
+     * Foreign functions are first called with the arguments as <code>long</code>s, without boxing,
+     * until an argument or the result turns out to be of another type.
+     */
+    @CompilationFinal private boolean typedCall = true;
 
     @Specialization
     @ExplodeLoop
@@ -106,11 +117,58 @@ public abstract class SLInvokeNode extends SLExpressionNode {
          */
         CompilerAsserts.compilationConstant(argumentNodes.length);
 
+        if (typedCall && argumentNodes.length <= MAX_TYPED_ARGUMENTS) {
+            return callTyped(frame, function);
+        }
         Object[] argumentValues = new Object[argumentNodes.length];
         for (int i = 0; i < argumentNodes.length; i++) {
             argumentValues[i] = argumentNodes[i].executeGeneric(frame);
         }
+        return callBoxed(frame, function, argumentValues);
+    }
+
+    @ExplodeLoop
+    private Object callTyped(VirtualFrame frame, TruffleObject function) {
+        long[] argumentValues = new long[argumentNodes.length];
+        for (int i = 0; i < argumentNodes.length; i++) {
+            try {
+                argumentValues[i] = argumentNodes[i].executeLong(frame);
+            } catch (UnexpectedResultException ex) {
+                /* Continue with the boxed protocol, without evaluating any argument twice. */
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                typedCall = false;
+                return callBoxed(frame, function, boxRemaining(frame, argumentValues, i, ex.getResult()));
+            }
+        }
+        if (typedCrossLanguageCall == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            typedCrossLanguageCall = insert(Message.createExecute(argumentValues.length, long.class).createNode());
+        }
+        try {
+            return ForeignAccess.executeLong(typedCrossLanguageCall, frame, function, argumentValues);
+        } catch (UnexpectedResultException ex) {
+            /* The function does not return a long, so later calls use the boxed protocol. */
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            typedCall = false;
+            return SLContext.fromForeignValue(ex.getResult());
+        }
+    }
+
+    private Object[] boxRemaining(VirtualFrame frame, long[] evaluated, int failedIndex, Object failedValue) {
+        Object[] argumentValues = new Object[argumentNodes.length];
+        for (int i = 0; i < failedIndex; i++) {
+            argumentValues[i] = evaluated[i];
+        }
+        argumentValues[failedIndex] = failedValue;
+        for (int i = failedIndex + 1; i < argumentNodes.length; i++) {
+            argumentValues[i] = argumentNodes[i].executeGeneric(frame);
+        }
+        return argumentValues;
+    }
+
+    private Object callBoxed(VirtualFrame frame, TruffleObject function, Object[] argumentValues) {
         if (crossLanguageCall == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
             crossLanguageCall = insert(Message.createExecute(argumentValues.length).createNode());
         }
         Object res = ForeignAccess.execute(crossLanguageCall, frame, function, argumentValues);
@@ -73,7 +73,7 @@ public class Parser {
     private final SLNodeFactory factory;
 
     public Parser(SLContext context, Source source) {
-        this.scanner = new Scanner(source.getInputStream());
+        this.scanner = new Scanner(source.getCharacters());
         this.factory = new SLNodeFactory(context, source);
         errors = new Errors();
     }
@@ -72,6 +72,7 @@ class Buffer {
     // a) whole stream in buffer
     // b) part of stream in buffer
     // 2) non seekable stream (network, console)
+    // 3) already decoded characters (source text), read without copying
 
     public static final int EOF = Character.MAX_VALUE + 1;
     private static final int MIN_BUFFER_LENGTH = 1024; // 1KB
@@ -83,6 +84,7 @@ class Buffer {
     private int bufPos; // current position in buffer
     private RandomAccessFile file; // input stream (seekable)
     private InputStream stream; // growing input stream (e.g.: console, network)
+    private CharSequence chars; // decoded input, positions are in characters
 
     public Buffer(InputStream s) {
         stream = s;
@@ -90,6 +92,12 @@ class Buffer {
         buf = new byte[MIN_BUFFER_LENGTH];
     }
 
+    public Buffer(CharSequence chars) {
+        this.chars = chars;
+        fileLen = bufLen = chars.length();
+        bufStart = bufPos = 0;
+    }
+
     public Buffer(String fileName) {
         try {
             file = new RandomAccessFile(fileName, "r");
@@ -118,6 +126,7 @@ class Buffer {
         bufPos = b.bufPos;
         file = b.file;
         stream = b.stream;
+        chars = b.chars;
         // keep finalize from closing the file
         b.file = null;
     }
@@ -140,7 +149,9 @@ class Buffer {
     }
 
     public int Read() {
-        if (bufPos < bufLen) {
+        if (chars != null) {
+            return bufPos < bufLen ? chars.charAt(bufPos++) : EOF;
+        } else if (bufPos < bufLen) {
             return buf[bufPos++] & 0xff; // mask out sign bits
         } else if (getPos() < fileLen) {
             setPos(getPos()); // shift buffer start to pos
@@ -162,6 +173,9 @@ class Buffer {
     // beg .. begin, zero-based, inclusive, in byte
     // end .. end, zero-based, exclusive, in byte
     public String GetString(int beg, int end) {
+        if (chars != null) {
+            return chars.subSequence(beg, end).toString();
+        }
         int len = 0;
         char[] buffer = new char[end - beg];
         int oldPos = getPos();
@@ -172,6 +186,10 @@ class Buffer {
         return new String(buffer, 0, len);
     }
 
+    boolean isDecoded() {
+        return chars != null;
+    }
+
     public int getPos() {
         return bufPos + bufStart;
     }
@@ -396,6 +414,11 @@ public class Scanner {
         Init();
     }
 
+    public Scanner(CharSequence chars) {
+        buffer = new Buffer(chars);
+        Init();
+    }
+
     void Init() {
         pos = -1;
         line = 1;
@@ -403,7 +426,7 @@ public class Scanner {
         charPos = -1;
         oldEols = 0;
         NextCh();
-        if (ch == 0xEF) { // check optional byte order mark for UTF-8
+        if (ch == 0xEF && !buffer.isDecoded()) { // check optional byte order mark for UTF-8
             NextCh();
             int ch1 = ch;
             NextCh();
@@ -415,6 +438,9 @@ public class Scanner {
             col = 0;
             charPos = -1;
             NextCh();
+        } else if (ch == '\uFEFF' && buffer.isDecoded()) { // decoded byte order mark
+            col = 0; // charPos keeps counting, it is an offset into the source text
+            NextCh();
         }
         pt = tokens = new Token(); // first token is a dummy
     }
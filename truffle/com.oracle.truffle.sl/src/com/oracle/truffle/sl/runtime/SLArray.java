@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.runtime;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.sl.SLException;
+import com.oracle.truffle.sl.nodes.access.SLReadArrayElementNode;
+import com.oracle.truffle.sl.nodes.access.SLWriteArrayElementNode;
+
+/**
+ * A fixed-length SL array. The elements are kept in one of three storages, which are specialized
+ * on by the {@link SLReadArrayElementNode} and {@link SLWriteArrayElementNode}:
+ * <ul>
+ * <li>a {@code long[]}, which new arrays start with and which holds SL numbers that fit into 64
+ * bits,</li>
+ * <li>a {@code double[]}, for floating point values, which SL does not produce itself but which
+ * can be written to an array by other languages,</li>
+ * <li>an {@code Object[]} for all other values.</li>
+ * </ul>
+ * A write of a value that does not fit into the current storage widens the storage once, from
+ * {@code long[]} to {@code double[]} to {@code Object[]}. A {@code long[]} storage only widens to
+ * {@code double[]} if all its elements can be represented exactly; otherwise it becomes an
+ * {@code Object[]} right away. Storages never narrow again.
+ */
+public final class SLArray implements TruffleObject {
+
+    /**
+     * Largest magnitude of a {@code long} that can be converted to a {@code double} and back
+     * without loss.
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private Object store;
+
+    public SLArray(int length) {
+        this.store = new long[length];
+    }
+
+    private SLArray(Object store) {
+        this.store = store;
+    }
+
+    /**
+     * Creates an array of the given values in the narrowest storage that can hold all of them.
+     */
+    @TruffleBoundary
+    public static SLArray create(Object[] values) {
+        boolean allLongs = true;
+        boolean allDoubles = true;
+        for (Object value : values) {
+            allLongs &= value instanceof Long;
+            allDoubles &= value instanceof Double;
+        }
+        if (allLongs) {
+            long[] longs = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                longs[i] = (long) values[i];
+            }
+            return new SLArray(longs);
+        } else if (allDoubles) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                doubles[i] = (double) values[i];
+            }
+            return new SLArray(doubles);
+        }
+        return new SLArray(values.clone());
+    }
+
+    public Object getStore() {
+        return store;
+    }
+
+    public boolean isLongStore() {
+        return store instanceof long[];
+    }
+
+    public boolean isDoubleStore() {
+        return store instanceof double[];
+    }
+
+    public boolean isObjectStore() {
+        return store instanceof Object[];
+    }
+
+    public long[] getLongStore() {
+        return (long[]) store;
+    }
+
+    public double[] getDoubleStore() {
+        return (double[]) store;
+    }
+
+    public Object[] getObjectStore() {
+        return (Object[]) store;
+    }
+
+    public int getLength() {
+        if (store instanceof long[]) {
+            return ((long[]) store).length;
+        } else if (store instanceof double[]) {
+            return ((double[]) store).length;
+        } else {
+            return ((Object[]) store).length;
+        }
+    }
+
+    /**
+     * Checks that {@code index} is a valid index of this array and returns it as an {@code int}.
+     */
+    public int checkIndex(long index) {
+        if (index < 0 || index >= getLength()) {
+            CompilerDirectives.transferToInterpreter();
+            throw new SLException("Array index out of bounds: " + index);
+        }
+        return (int) index;
+    }
+
+    /**
+     * Widens a {@code long[]} storage so that {@code value} can be stored, either to a
+     * {@code double[]} or to an {@code Object[]}.
+     */
+    @TruffleBoundary
+    public void widenFromLong(Object value) {
+        long[] longs = getLongStore();
+        if (value instanceof Double && allExactDoubles(longs)) {
+            double[] doubles = new double[longs.length];
+            for (int i = 0; i < longs.length; i++) {
+                doubles[i] = longs[i];
+            }
+            store = doubles;
+        } else {
+            Object[] objects = new Object[longs.length];
+            for (int i = 0; i < longs.length; i++) {
+                objects[i] = longs[i];
+            }
+            store = objects;
+        }
+    }
+
+    /**
+     * Widens a {@code double[]} storage to an {@code Object[]}.
+     */
+    @TruffleBoundary
+    public void widenFromDouble() {
+        double[] doubles = getDoubleStore();
+        Object[] objects = new Object[doubles.length];
+        for (int i = 0; i < doubles.length; i++) {
+            objects[i] = doubles[i];
+        }
+        store = objects;
+    }
+
+    private static boolean allExactDoubles(long[] longs) {
+        for (long value : longs) {
+            if (value > MAX_EXACT_DOUBLE || value < -MAX_EXACT_DOUBLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads an element without specializing on the storage.
+     */
+    @TruffleBoundary
+    public Object read(long index) {
+        int i = checkIndex(index);
+        if (store instanceof long[]) {
+            return ((long[]) store)[i];
+        } else if (store instanceof double[]) {
+            return ((double[]) store)[i];
+        } else {
+            return ((Object[]) store)[i];
+        }
+    }
+
+    /**
+     * Writes an element without specializing on the storage, widening it if necessary.
+     */
+    @TruffleBoundary
+    public void write(long index, Object value) {
+        int i = checkIndex(index);
+        if (store instanceof long[]) {
+            if (value instanceof Long) {
+                ((long[]) store)[i] = (long) value;
+                return;
+            }
+            widenFromLong(value);
+        }
+        if (store instanceof double[]) {
+            if (value instanceof Double) {
+                ((double[]) store)[i] = (double) value;
+                return;
+            }
+            widenFromDouble();
+        }
+        ((Object[]) store)[i] = value;
+    }
+
+    @Override
+    public ForeignAccess getForeignAccess() {
+        return SLArrayForeignAccess.ACCESS;
+    }
+
+    @Override
+    @TruffleBoundary
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        int length = getLength();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(read(i));
+        }
+        return sb.append(']').toString();
+    }
+}
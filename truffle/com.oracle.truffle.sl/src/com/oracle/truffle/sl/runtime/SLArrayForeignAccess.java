@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.runtime;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.nodes.access.SLReadArrayElementNode;
+import com.oracle.truffle.sl.nodes.access.SLReadArrayElementNodeGen;
+import com.oracle.truffle.sl.nodes.access.SLWriteArrayElementNode;
+import com.oracle.truffle.sl.nodes.access.SLWriteArrayElementNodeGen;
+import java.util.List;
+
+/**
+ * Implementation of foreign access for {@link SLArray}. Supports {@link Message#READ},
+ * {@link Message#WRITE}, {@link Message#HAS_SIZE} and {@link Message#GET_SIZE} with numeric indices.
+ */
+final class SLArrayForeignAccess implements ForeignAccess.Factory10 {
+
+    static final ForeignAccess ACCESS = ForeignAccess.create(SLArray.class, new SLArrayForeignAccess());
+
+    private SLArrayForeignAccess() {
+    }
+
+    @Override
+    public CallTarget accessIsNull() {
+        return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(false));
+    }
+
+    @Override
+    public CallTarget accessIsExecutable() {
+        return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(false));
+    }
+
+    @Override
+    public CallTarget accessIsBoxed() {
+        return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(false));
+    }
+
+    @Override
+    public CallTarget accessHasSize() {
+        return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(true));
+    }
+
+    @Override
+    public CallTarget accessGetSize() {
+        return Truffle.getRuntime().createCallTarget(new SLForeignGetSizeNode());
+    }
+
+    @Override
+    public CallTarget accessUnbox() {
+        return null;
+    }
+
+    @Override
+    public CallTarget accessRead() {
+        return Truffle.getRuntime().createCallTarget(new SLForeignReadNode());
+    }
+
+    @Override
+    public CallTarget accessWrite() {
+        return Truffle.getRuntime().createCallTarget(new SLForeignWriteNode());
+    }
+
+    @Override
+    public CallTarget accessExecute(int argumentsLength) {
+        return null;
+    }
+
+    @Override
+    public CallTarget accessInvoke(int argumentsLength) {
+        return null;
+    }
+
+    @Override
+    public CallTarget accessNew(int argumentsLength) {
+        return null;
+    }
+
+    @Override
+    public CallTarget accessMessage(Message unknown) {
+        return null;
+    }
+
+    /**
+     * Converts a foreign number to the element type of an {@link SLArray}: integral numbers become
+     * {@code long}s, floating point numbers {@code double}s.
+     */
+    static Object toElement(Object value) {
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        } else if (value instanceof Double) {
+            return value;
+        }
+        return SLContext.fromForeignValue(value);
+    }
+
+    private static class SLForeignGetSizeNode extends RootNode {
+
+        public SLForeignGetSizeNode() {
+            super(SLLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return ((SLArray) ForeignAccess.getReceiver(frame)).getLength();
+        }
+    }
+
+    private static class SLForeignReadNode extends RootNode {
+
+        @Child private SLReadArrayElementNode read = SLReadArrayElementNodeGen.create();
+
+        public SLForeignReadNode() {
+            super(SLLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            SLArray array = (SLArray) ForeignAccess.getReceiver(frame);
+            Number index = (Number) ForeignAccess.getArguments(frame).get(0);
+            return read.executeRead(array, index.longValue());
+        }
+    }
+
+    private static class SLForeignWriteNode extends RootNode {
+
+        @Child private SLWriteArrayElementNode write = SLWriteArrayElementNodeGen.create();
+
+        public SLForeignWriteNode() {
+            super(SLLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            SLArray array = (SLArray) ForeignAccess.getReceiver(frame);
+            List<Object> arguments = ForeignAccess.getArguments(frame);
+            Number index = (Number) arguments.get(0);
+            Object value = toElement(arguments.get(1));
+            write.executeWrite(array, index.longValue(), value);
+            return value;
+        }
+    }
+}
@@ -45,12 +45,16 @@ import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.object.AllocationSite;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Layout;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.sl.SLLanguage;
+import com.oracle.truffle.sl.builtins.SLArrayGetBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLArrayLengthBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLArraySetBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLAssertFalseBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLAssertTrueBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLBuiltinNode;
@@ -58,7 +62,11 @@ import com.oracle.truffle.sl.builtins.SLDefineFunctionBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLEvalBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLHelloEqualsWorldBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLNanoTimeBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLNewArrayBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLNewObjectBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLParallelMapBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLParallelReduceBuiltinFactory;
+import com.oracle.truffle.sl.builtins.SLParallelWorkers;
 import com.oracle.truffle.sl.builtins.SLPrintlnBuiltin;
 import com.oracle.truffle.sl.builtins.SLPrintlnBuiltinFactory;
 import com.oracle.truffle.sl.builtins.SLReadlnBuiltin;
@@ -71,9 +79,15 @@ import com.oracle.truffle.sl.parser.Parser;
 import com.oracle.truffle.sl.parser.SLNodeFactory;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigInteger;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * The run-time state of SL during execution. One context is instantiated before any source code is
@@ -86,7 +100,7 @@ import java.math.BigInteger;
  * context. Therefore, the context is not a singleton.
  */
 public final class SLContext extends ExecutionContext {
-    private static final Layout LAYOUT = Layout.createLayout();
+    private static final Layout LAYOUT = Layout.newLayout().setDictionaryMode(true).build();
 
     private final SLLanguage language;
     private final BufferedReader input;
@@ -94,6 +108,9 @@ public final class SLContext extends ExecutionContext {
     private final SLFunctionRegistry functionRegistry;
     private final Shape emptyShape;
     private final TruffleLanguage.Env env;
+    private ForkJoinPool forkJoinPool;
+    private final Map<SLFunction, SLParallelWorkers> parallelWorkers = new IdentityHashMap<>();
+    private boolean disposed;
 
     public SLContext(SLLanguage language, TruffleLanguage.Env env, BufferedReader input, PrintWriter output) {
         this(language, env, input, output, true);
@@ -137,6 +154,83 @@ public final class SLContext extends ExecutionContext {
         return functionRegistry;
     }
 
+    /**
+     * Returns the pool that executes the data-parallel builtins of this context. The pool is
+     * created on first use and has one worker per available processor. Its workers enter the
+     * engine of this context, so that SL functions can be called on them. The pool is shut down
+     * when the context is {@link #dispose() disposed}.
+     */
+    public synchronized ForkJoinPool getForkJoinPool() {
+        if (disposed) {
+            throw new IllegalStateException("Context has been disposed");
+        }
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), new ForkJoinWorkerThreadFactory() {
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    return new SLWorkerThread(pool, env);
+                }
+            }, null, false);
+        }
+        return forkJoinPool;
+    }
+
+    /**
+     * Returns the workers that the uncached data-parallel builtins reuse, keyed by the mapper
+     * function. Accesses have to synchronize on the returned map.
+     */
+    public Map<SLFunction, SLParallelWorkers> getParallelWorkers() {
+        return parallelWorkers;
+    }
+
+    /**
+     * Shuts down the {@link #getForkJoinPool() pool} of this context, so that its workers terminate
+     * and no longer keep the engine reachable. Called when the engine disposes this context.
+     */
+    public synchronized void dispose() {
+        disposed = true;
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+            forkJoinPool = null;
+        }
+        synchronized (parallelWorkers) {
+            parallelWorkers.clear();
+        }
+    }
+
+    private static final class SLWorkerThread extends ForkJoinWorkerThread {
+
+        private final TruffleLanguage.Env env;
+        private Closeable entered;
+
+        SLWorkerThread(ForkJoinPool pool, TruffleLanguage.Env env) {
+            super(pool);
+            this.env = env;
+            setName("SL parallel worker " + getPoolIndex());
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            if (env != null) {
+                entered = env.enter();
+            }
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            try {
+                if (entered != null) {
+                    entered.close();
+                    entered = null;
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                super.onTermination(exception);
+            }
+        }
+    }
+
     public SLLanguage getLanguage() {
         return language;
     }
@@ -156,6 +250,12 @@ public final class SLContext extends ExecutionContext {
         installBuiltin(SLAssertFalseBuiltinFactory.getInstance(), registerRootNodes);
         installBuiltin(SLNewObjectBuiltinFactory.getInstance(), registerRootNodes);
         installBuiltin(SLEvalBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLNewArrayBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLArrayLengthBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLArrayGetBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLArraySetBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLParallelMapBuiltinFactory.getInstance(), registerRootNodes);
+        installBuiltin(SLParallelReduceBuiltinFactory.getInstance(), registerRootNodes);
     }
 
     public void installBuiltin(NodeFactory<? extends SLBuiltinNode> factory, boolean registerRootNodes) {
@@ -217,6 +317,14 @@ public final class SLContext extends ExecutionContext {
         return LAYOUT.newInstance(emptyShape);
     }
 
+    /**
+     * Creates an allocation site for empty SL objects. Objects allocated through it are pre-sized
+     * for the properties that earlier objects from the same site received.
+     */
+    public AllocationSite createAllocationSite() {
+        return LAYOUT.createAllocationSite(emptyShape);
+    }
+
     public static boolean isSLObject(Object value) {
         return LAYOUT.getType().isInstance(value);
     }
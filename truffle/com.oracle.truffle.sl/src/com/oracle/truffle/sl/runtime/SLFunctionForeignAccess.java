@@ -57,8 +57,18 @@ import java.util.List;
  * Implementation of foreign access for {@link SLFunction}.
  */
 final class SLFunctionForeignAccess implements ForeignAccess.Factory {
+    private static final ThreadLocal<ForeignAccess> ACCESS = new ThreadLocal<ForeignAccess>() {
+        @Override
+        protected ForeignAccess initialValue() {
+            return ForeignAccess.create(new SLFunctionForeignAccess());
+        }
+    };
+
+    /**
+     * @return the {@link ForeignAccess} shared by all functions used by the current thread
+     */
     public static ForeignAccess create() {
-        return ForeignAccess.create(new SLFunctionForeignAccess());
+        return ACCESS.get();
     }
 
     private SLFunctionForeignAccess() {
@@ -49,7 +49,6 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.ObjectType;
-import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.sl.SLLanguage;
 
 final class SLObjectType extends ObjectType implements ForeignAccess.Factory10, ForeignAccess.Factory {
@@ -101,7 +100,7 @@ final class SLObjectType extends ObjectType implements ForeignAccess.Factory10,
 
     @Override
     public CallTarget accessWrite() {
-        throw new UnsupportedOperationException();
+        return Truffle.getRuntime().createCallTarget(new SLForeignWriteNode());
     }
 
     @Override
@@ -139,8 +138,24 @@ final class SLObjectType extends ObjectType implements ForeignAccess.Factory10,
         public Object execute(VirtualFrame frame) {
             String fieldName = (String) ForeignAccess.getArguments(frame).get(0);
             DynamicObject obj = (DynamicObject) ForeignAccess.getReceiver(frame);
-            Property property = obj.getShape().getProperty(fieldName);
-            return obj.get(property.getKey());
+            return obj.get(fieldName);
+        }
+
+    }
+
+    private static class SLForeignWriteNode extends RootNode {
+
+        public SLForeignWriteNode() {
+            super(SLLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            String fieldName = (String) ForeignAccess.getArguments(frame).get(0);
+            Object value = SLContext.fromForeignValue(ForeignAccess.getArguments(frame).get(1));
+            DynamicObject obj = (DynamicObject) ForeignAccess.getReceiver(frame);
+            obj.define(fieldName, value);
+            return value;
         }
 
     }